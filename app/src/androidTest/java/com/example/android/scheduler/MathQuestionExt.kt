@@ -1,5 +1,6 @@
 package com.example.android.scheduler
 
+import com.example.android.scheduler.implementation.java.engine.data.Results
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
 import java.util.*
 
@@ -10,4 +11,13 @@ fun MathQuestion.answer() = String.format(
     operator.symbol(),
     secondOperand,
     operator.compute(firstOperand, secondOperand)
-)
\ No newline at end of file
+)
+
+fun Results.answerAt(index: Int) = String.format(
+    Locale.US,
+    "%.2f %s %.2f = %.2f",
+    getFirstOperand(index),
+    getOperator(index).symbol(),
+    getSecondOperand(index),
+    getResult(index)
+)
@@ -1,10 +1,16 @@
 package com.example.android.scheduler
 
 import com.example.android.scheduler.implementation.java.App
+import com.example.android.scheduler.implementation.java.engine.EngineConfig
 import com.example.android.scheduler.implementation.java.util.SimpleCountingIdlingResource
 
 class TestApp : App() {
     private val idlingRes by lazy { SimpleCountingIdlingResource("APP_RESOURCE") }
 
+    // Read by the engine service when it is created, tests may replace it before.
+    var engineConfig: EngineConfig = EngineConfig.Builder().build()
+
     override fun getIdlingResource(): SimpleCountingIdlingResource = idlingRes
-}
\ No newline at end of file
+
+    override fun getEngineConfig(): EngineConfig = engineConfig
+}
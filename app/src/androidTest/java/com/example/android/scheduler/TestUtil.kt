@@ -14,6 +14,7 @@ import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.Matcher
 import org.hamcrest.core.AllOf.allOf
 import org.hamcrest.core.AnyOf.anyOf
+import org.mockito.ArgumentCaptor
 import org.mockito.Mockito
 
 class RecyclerViewItemCountAssertion(private val expectedCount: Int) : ViewAssertion {
@@ -61,4 +62,6 @@ private class NestedScrollToAction(
     ))
 }
 
-inline fun <reified T> mock(): T = Mockito.mock(T::class.java)
\ No newline at end of file
+inline fun <reified T> mock(): T = Mockito.mock(T::class.java)
+
+inline fun <reified T> argumentCaptor(): ArgumentCaptor<T> = ArgumentCaptor.forClass(T::class.java)
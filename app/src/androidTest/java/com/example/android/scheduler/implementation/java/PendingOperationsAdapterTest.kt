@@ -33,6 +33,7 @@ class PendingOperationsAdapterTest {
     companion object {
         private val MATH_QUESTION =
             MathQuestion(1.0, 1.0, Operator.ADD, 10)
+        private const val MAX_ITEMS = 1_000
     }
 
     private lateinit var activityScenario: ActivityScenario<TestActivity>
@@ -106,6 +107,40 @@ class PendingOperationsAdapterTest {
         operations.add(Operation(startTime, startTime + 10_000, MATH_QUESTION))
         runOnUiThread { pendingAdapter.replaceData(operations) }
 
-        assertThat(pendingAdapter.itemCount, `is`(equalTo(2)))
+        // The rows change once the diff has been calculated in the background.
+        assertThat(awaitItemCount(pendingAdapter, 2), `is`(equalTo(2)))
+        assertThat(pendingAdapter.getItemId(1), `is`(equalTo(operations[1].id)))
+    }
+
+    @Test
+    fun addOperations_whileDiffing_areAppliedAfterTheDiff() {
+        val startTime = System.currentTimeMillis()
+        val operations = List(MAX_ITEMS) {
+            Operation(startTime, startTime + 10_000 + it, MATH_QUESTION)
+        }
+        val added = Operation(startTime, startTime + 5_000, MATH_QUESTION)
+        var adapter: PendingOperationsAdapter? = null
+        runOnUiThread {
+            adapter = PendingOperationsAdapter(testActivity.lifecycle, emptyList())
+            recyclerView.adapter = adapter
+            adapter!!.replaceData(operations)
+            adapter!!.addOperations(listOf(added))
+        }
+
+        val pendingAdapter = adapter!!
+        assertThat(awaitItemCount(pendingAdapter, MAX_ITEMS + 1), `is`(equalTo(MAX_ITEMS + 1)))
+        assertThat(pendingAdapter.getItemId(0), `is`(equalTo(added.id)))
+    }
+
+    private fun awaitItemCount(adapter: PendingOperationsAdapter, count: Int): Int {
+        var itemCount = 0
+        for (i in 0 until 100) {
+            runOnUiThread { itemCount = adapter.itemCount }
+            if (itemCount == count) {
+                break
+            }
+            Thread.sleep(50)
+        }
+        return itemCount
     }
 }
\ No newline at end of file
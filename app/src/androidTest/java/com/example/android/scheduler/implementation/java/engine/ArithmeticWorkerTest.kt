@@ -8,8 +8,14 @@ import androidx.work.testing.WorkManagerTestInitHelper
 import com.example.android.scheduler.WorkManagerTestRule
 import com.example.android.scheduler.answer
 import com.example.android.scheduler.implementation.java.engine.ArithmeticWorker.KEY_RESULT
+import com.example.android.scheduler.implementation.java.engine.ArithmeticWorker.KEY_RESULTS
+import com.example.android.scheduler.implementation.java.engine.ArithmeticWorker.MAX_BATCH_SIZE
+import com.example.android.scheduler.implementation.java.engine.ArithmeticWorker.getBatchWorkInputData
 import com.example.android.scheduler.implementation.java.engine.ArithmeticWorker.getWorkInputData
+import com.example.android.scheduler.implementation.java.engine.ArithmeticWorker.readUndeliveredResults
+import com.example.android.scheduler.implementation.java.engine.data.model.IdGenerator
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation
 import com.example.android.scheduler.implementation.java.engine.data.model.Operator
 import org.hamcrest.Matchers.`is`
 import org.junit.Assert.assertEquals
@@ -17,7 +23,6 @@ import org.junit.Assert.assertThat
 import org.junit.Rule
 import org.junit.Test
 import org.junit.runner.RunWith
-import java.util.*
 import java.util.concurrent.TimeUnit
 
 @MediumTest
@@ -25,7 +30,7 @@ import java.util.concurrent.TimeUnit
 class ArithmeticWorkerTest {
 
     companion object {
-        private val OPERATION_ID = UUID.randomUUID().toString()
+        private val OPERATION_ID = IdGenerator.getDefault().next()
         private val MATH_QUESTION =
             MathQuestion(1.0, 1.0, Operator.ADD, 5L)
     }
@@ -80,4 +85,49 @@ class ArithmeticWorkerTest {
         assertEquals(MATH_QUESTION.answer(), outputData.getString(KEY_RESULT))
         assertThat(workInfo.state, `is`(WorkInfo.State.SUCCEEDED))
     }
-}
\ No newline at end of file
+
+    @Test
+    @Throws(Exception::class)
+    fun undeliveredResult_isReadFromOutputData() {
+        val inputData = getWorkInputData(OPERATION_ID, MATH_QUESTION)
+        val request = OneTimeWorkRequestBuilder<ArithmeticWorker>()
+            .setInputData(inputData)
+            .build()
+
+        workRule.workManager.enqueue(request).result.get()
+        val workInfo = workRule.workManager.getWorkInfoById(request.id).get()
+        val results = mutableMapOf<Long, Double>()
+        val count = readUndeliveredResults(workInfo.outputData) { id, result -> results[id] = result }
+
+        assertEquals(1, count)
+        assertEquals(2.0, results[OPERATION_ID]!!, 0.0)
+    }
+
+    @Test
+    @Throws(Exception::class)
+    fun validBatchInputData_workerSucceeds() {
+        // A full batch with the longest values must fit in the Data size limit.
+        val operations = List(MAX_BATCH_SIZE) {
+            Operation(0, 0, MathQuestion(-Double.MAX_VALUE, it.toDouble(), Operator.SUBTRACT, 0L))
+        }
+        val inputData = getBatchWorkInputData(operations, 0, operations.size)
+        val request = OneTimeWorkRequestBuilder<ArithmeticWorker>()
+            .setInputData(inputData)
+            .build()
+
+        workRule.workManager.enqueue(request).result.get()
+        val workInfo = workRule.workManager.getWorkInfoById(request.id).get()
+        val results = workInfo.outputData.getDoubleArray(KEY_RESULTS)
+
+        assertThat(workInfo.state, `is`(WorkInfo.State.SUCCEEDED))
+        assertEquals(operations.size, results?.size)
+        operations.forEachIndexed { i, operation ->
+            val question = operation.mathQuestion
+            assertEquals(
+                question.operator.compute(question.firstOperand, question.secondOperand),
+                results!![i],
+                0.0
+            )
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import android.content.Intent
+import androidx.test.core.app.ApplicationProvider.getApplicationContext
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.MediumTest
+import androidx.test.platform.app.InstrumentationRegistry
+import androidx.test.rule.ServiceTestRule
+import com.example.android.scheduler.TestApp
+import com.example.android.scheduler.WorkManagerTestRule
+import com.example.android.scheduler.implementation.java.engine.MathEngineService.ACTION_CANCEL_ALL
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.After
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@MediumTest
+@RunWith(AndroidJUnit4::class)
+class MathEngineServiceCoalescingTest {
+
+    companion object {
+        private const val WAIT_TIMEOUT = 5000L
+        private const val COALESCING_WINDOW = 60_000L
+        private const val DELAY_TIME = 600L
+        private const val QUESTION_COUNT = 10
+    }
+
+    @get:Rule
+    var workRule = WorkManagerTestRule()
+
+    @get:Rule
+    var serviceRule = ServiceTestRule()
+
+    private lateinit var service: MathEngineService
+
+    @Before
+    fun setup() {
+        // Every operation goes to WorkManager, the whole burst falls in one window.
+        getApplicationContext<TestApp>().engineConfig = EngineConfig.Builder()
+            .setSchedulerBackend(EngineConfig.SchedulerBackend.WORK_MANAGER)
+            .setMaxInMemoryDelay(-1)
+            .setCoalescingWindow(COALESCING_WINDOW)
+            .build()
+        val intent = Intent(getApplicationContext(), MathEngineService::class.java)
+        val binder = serviceRule.bindService(intent)
+        service = (binder as MathEngineService.LocalBinder).service
+    }
+
+    @After
+    fun tearDown() {
+        getApplicationContext<TestApp>().sendBroadcast(Intent(ACTION_CANCEL_ALL))
+        getApplicationContext<TestApp>().engineConfig = EngineConfig.Builder().build()
+    }
+
+    @Test
+    fun calculate_burstOfSingleQuestions_sharesOneWorkRequest() {
+        val context = getApplicationContext<TestApp>()
+        // Holds the engine thread, so the questions below are run as one burst.
+        val released = CountDownLatch(1)
+        service.engineLoop.post { released.await() }
+        repeat(QUESTION_COUNT) {
+            val mathQuestion = MathQuestion(it.toDouble(), 1.0, Operator.ADD, DELAY_TIME)
+            context.startService(MathEngineService.createIntent(context, mathQuestion))
+        }
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+        released.countDown()
+
+        val deadline = System.currentTimeMillis() + WAIT_TIMEOUT
+        while (scheduledWorkCount() < QUESTION_COUNT && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10)
+        }
+        assertThat(scheduledWorkCount(), `is`(equalTo(QUESTION_COUNT.toLong())))
+        // Queries run after the enqueue transactions issued before them.
+        val workInfos = workRule.workManager
+            .getWorkInfosByTag(WorkManagerScheduler.ARITHMETIC_WORK_TAG).get()
+        assertThat(workInfos.size, `is`(equalTo(1)))
+    }
+
+    // The operations handed to WorkManager so far, read on the engine thread.
+    private fun scheduledWorkCount(): Long {
+        var count = 0L
+        val read = CountDownLatch(1)
+        service.engineLoop.post {
+            count = service.schedulerStats.single { it.name == "work-manager" }.scheduledCount
+            read.countDown()
+        }
+        assertTrue(read.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS))
+        return count
+    }
+}
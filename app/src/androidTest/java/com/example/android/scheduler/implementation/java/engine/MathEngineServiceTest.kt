@@ -12,9 +12,12 @@ import androidx.test.uiautomator.Until
 import com.example.android.scheduler.BuildConfig.APPLICATION_ID
 import com.example.android.scheduler.R
 import com.example.android.scheduler.answer
+import com.example.android.scheduler.answerAt
+import com.example.android.scheduler.argumentCaptor
 import com.example.android.scheduler.implementation.java.App
 import com.example.android.scheduler.implementation.java.engine.MathEngineService.ACTION_CANCEL_ALL
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation
 import com.example.android.scheduler.implementation.java.engine.data.model.Operator
 import com.example.android.scheduler.mock
 import org.hamcrest.CoreMatchers.`is`
@@ -25,7 +28,12 @@ import org.junit.Before
 import org.junit.Rule
 import org.junit.Test
 import org.junit.runner.RunWith
+import org.mockito.ArgumentMatchers.any
+import org.mockito.ArgumentMatchers.anyInt
+import org.mockito.ArgumentMatchers.anyList
 import org.mockito.Mockito.never
+import org.mockito.Mockito.timeout
+import org.mockito.Mockito.times
 import org.mockito.Mockito.verify
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
@@ -44,8 +52,13 @@ class MathEngineServiceTest {
         val intent = Intent(getApplicationContext(), MathEngineService::class.java)
         val binder = serviceRule.bindService(intent)
         service = (binder as MathEngineService.LocalBinder).service
-        service.pending.clear()
-        service.results.clear()
+        val cleared = CountDownLatch(1)
+        service.engineLoop.post {
+            service.pending.clear()
+            service.results.clear()
+            cleared.countDown()
+        }
+        assertTrue(cleared.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS))
     }
 
     @After
@@ -62,22 +75,61 @@ class MathEngineServiceTest {
         serviceRule.startService(MathEngineService.createIntent(getApplicationContext(), mathQuestion))
 
         // Test interaction with the listener
-        verify(listener).onPendingOperationsChanged()
-        verify(listener, never()).onResultsChanged()
-        assertThat(service.pendingOperations.size, `is`(equalTo(1)))
-        assertThat(service.operationsResults.size, `is`(equalTo(0)))
+        verify(listener, timeout(WAIT_TIMEOUT)).onConnected(anyList(), any())
+        verify(listener, timeout(WAIT_TIMEOUT)).onPendingOperationsAdded(anyList())
+        verify(listener, never()).onPendingOperationsRemoved(anyList())
+        verify(listener, never()).onResultsInserted(anyInt(), anyInt())
+        assertThat(service.pendingCount, `is`(equalTo(1)))
+        assertThat(service.operationsResults.size(), `is`(equalTo(0)))
+    }
+
+    @Test
+    fun calculateBatch_notifiesListenersOnce() {
+        val listener = mock<MathEngineService.Listener>()
+        service.addListener(listener)
+
+        val mathQuestions = List(100) { MathQuestion(it.toDouble(), 1.0, Operator.ADD, 60L) }
+        val intents = MathEngineService.createBatchIntents(getApplicationContext(), mathQuestions)
+        serviceRule.startService(intents.single())
+
+        val added = argumentCaptor<List<Operation>>()
+        verify(listener, timeout(WAIT_TIMEOUT)).onPendingOperationsAdded(added.capture())
+        assertThat(added.value.size, `is`(equalTo(mathQuestions.size)))
+
+        // Any later update is posted by the engine thread before this command runs.
+        val settled = CountDownLatch(1)
+        service.engineLoop.post { settled.countDown() }
+        assertTrue(settled.await(WAIT_TIMEOUT, TimeUnit.MILLISECONDS))
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync()
+        assertThat(service.pendingCount, `is`(equalTo(mathQuestions.size)))
+        verify(listener, times(1)).onPendingOperationsAdded(anyList())
+        verify(listener, never()).onPendingOperationsRemoved(anyList())
+        verify(listener, never()).onResultsInserted(anyInt(), anyInt())
+    }
+
+    @Test
+    fun createBatchIntents_splitsIntoChunks() {
+        val count = MathEngineService.MAX_BATCH_SIZE * 2 + 1
+        val mathQuestions = List(count) { MathQuestion(1.0, 1.0, Operator.ADD, 60L) }
+
+        val intents = MathEngineService.createBatchIntents(getApplicationContext(), mathQuestions)
+
+        assertThat(intents.size, `is`(equalTo(3)))
     }
 
     @Test
     fun mathEngineService_fullCycle() {
         val latch = CountDownLatch(3)
         service.addListener(object : MathEngineService.Listener {
-            override fun onResultsChanged() {
+            override fun onPendingOperationsAdded(added: MutableList<Operation>) {
+                latch.countDown()
+            }
+
+            override fun onPendingOperationsRemoved(removed: MutableList<Operation>) {
                 latch.countDown()
             }
 
-            override fun onPendingOperationsChanged() {
-                // Called twice
+            override fun onResultsInserted(positionStart: Int, itemCount: Int) {
                 latch.countDown()
             }
         })
@@ -86,9 +138,9 @@ class MathEngineServiceTest {
         serviceRule.startService(MathEngineService.createIntent(getApplicationContext(), mathQuestion))
 
         assertTrue(latch.await(mathQuestion.delayTime + 1, TimeUnit.SECONDS))
-        assertThat(service.pendingOperations.size, `is`(equalTo(0)))
-        assertThat(service.operationsResults.size, `is`(equalTo(1)))
-        assertEquals(service.operationsResults[0].result, mathQuestion.answer())
+        assertThat(service.pendingCount, `is`(equalTo(0)))
+        assertThat(service.operationsResults.size(), `is`(equalTo(1)))
+        assertEquals(service.operationsResults.answerAt(0), mathQuestion.answer())
     }
 
     @Test
@@ -5,7 +5,7 @@ import androidx.test.ext.junit.runners.AndroidJUnit4
 import androidx.test.filters.MediumTest
 import androidx.test.internal.runner.junit4.statement.UiThreadStatement.runOnUiThread
 import com.example.android.scheduler.TestLifecycleOwner
-import com.example.android.scheduler.implementation.java.engine.data.model.MathAnswer
+import com.example.android.scheduler.implementation.java.engine.data.Results
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
 import com.example.android.scheduler.implementation.java.engine.data.model.Operation
 import com.example.android.scheduler.implementation.java.engine.data.model.Operator
@@ -16,6 +16,7 @@ import org.junit.Before
 import org.junit.Test
 import org.junit.runner.RunWith
 import org.mockito.Mockito.`when`
+import org.mockito.Mockito.any
 import org.mockito.Mockito.anyList
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
@@ -51,7 +52,7 @@ class MathEngineTest {
     fun bindingToService_onConnectedCalled() {
         val latch = CountDownLatch(1)
         val listener = mock<MathEngine.Listener>()
-        `when`(listener.onConnected(anyList(), anyList())).then { latch.countDown() }
+        `when`(listener.onConnected(anyList(), any(Results::class.java))).then { latch.countDown() }
         runOnUiThread {
             MathEngine(getApplicationContext(), lifecycleOwner.lifecycle, listener)
             lifecycleOwner.onStart()
@@ -64,16 +65,19 @@ class MathEngineTest {
         val bindingLatch = CountDownLatch(1)
         val interactionLatch = CountDownLatch(3)
         val listener = object : MathEngine.Listener {
-            override fun onConnected(p: MutableList<Operation>, r: MutableList<MathAnswer>) {
+            override fun onConnected(p: MutableList<Operation>, r: Results) {
                 bindingLatch.countDown()
             }
 
-            override fun onPendingOperationsChanged(pending: MutableList<Operation>) {
-                // Called twice
+            override fun onPendingOperationsAdded(added: MutableList<Operation>) {
                 interactionLatch.countDown()
             }
 
-            override fun onResultsChanged(results: MutableList<MathAnswer>) {
+            override fun onPendingOperationsRemoved(removed: MutableList<Operation>) {
+                interactionLatch.countDown()
+            }
+
+            override fun onResultsInserted(results: Results, positionStart: Int, itemCount: Int) {
                 interactionLatch.countDown()
             }
         }
@@ -0,0 +1,65 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.MediumTest
+import androidx.work.OneTimeWorkRequestBuilder
+import androidx.work.WorkInfo
+import com.example.android.scheduler.WorkManagerTestRule
+import com.example.android.scheduler.implementation.java.engine.ArithmeticWorker.getWorkInputData
+import com.example.android.scheduler.implementation.java.engine.data.model.IdGenerator
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@MediumTest
+@RunWith(AndroidJUnit4::class)
+class WorkRecordManagerTest {
+
+    @get:Rule
+    var workRule = WorkManagerTestRule()
+
+    private lateinit var workRecords: WorkRecordManager
+
+    @Before
+    fun setup() {
+        workRecords = WorkRecordManager(workRule.targetContext)
+    }
+
+    @Test
+    fun enqueue_recordsTransaction() {
+        val requests = List(3) { createRequest() }
+
+        workRecords.enqueue(requests).result.get()
+
+        assertThat(workRecords.stats.enqueueCount, `is`(equalTo(1L)))
+        assertThat(workRecords.stats.enqueuedRequestCount, `is`(equalTo(3L)))
+        assertTrue(workRecords.stats.maxEnqueueNanos > 0)
+    }
+
+    @Test
+    fun prune_removesFinishedRecords() {
+        val request = createRequest()
+        workRecords.enqueue(listOf(request)).result.get()
+        val workInfo = workRule.workManager.getWorkInfoById(request.id).get()
+        assertThat(workInfo.state, `is`(WorkInfo.State.SUCCEEDED))
+
+        workRecords.prune().result.get()
+
+        assertThat(workRule.workManager.getWorkInfoById(request.id).get(), `is`(nullValue()))
+        assertThat(workRecords.stats.pruneCount, `is`(equalTo(1L)))
+        assertTrue(workRecords.stats.databaseBytes > 0)
+    }
+
+    private fun createRequest() = OneTimeWorkRequestBuilder<ArithmeticWorker>()
+        .setInputData(getWorkInputData(IdGenerator.getDefault().next(),
+            MathQuestion(1.0, 1.0, Operator.ADD, 0L)))
+        .build()
+}
@@ -0,0 +1,54 @@
+package com.example.android.scheduler.implementation.java.engine.data.model
+
+import android.os.Parcel
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.SmallTest
+import com.google.common.truth.Truth.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Tests that the parcelable interface is implemented correctly.
+ */
+@SmallTest
+@RunWith(AndroidJUnit4::class)
+class ParcelableMathQuestionBatchTest {
+
+    companion object {
+        private val MATH_QUESTIONS = listOf(
+            MathQuestion(1.0, 3.0, Operator.ADD, 10L),
+            MathQuestion(-2.5, 0.0, Operator.DIVIDE, 0L),
+            MathQuestion(7.0, 6.0, Operator.MULTIPLY, 60L)
+        )
+    }
+
+    private lateinit var parcelable: ParcelableMathQuestionBatch
+
+    @Before
+    fun initBatch() {
+        parcelable = ParcelableMathQuestionBatch(
+            MathQuestionBatch.of(MATH_QUESTIONS, 0, MATH_QUESTIONS.size)
+        )
+    }
+
+    @Test
+    fun batch_readWriteParcelable() {
+        // Write
+        val parcel = Parcel.obtain()
+        parcelable.writeToParcel(parcel, parcelable.describeContents())
+        // Reset for reading
+        parcel.setDataPosition(0)
+        // Read
+        val batchFromParcel = ParcelableMathQuestionBatch.CREATOR.createFromParcel(parcel).batch
+        // Verify
+        assertThat(batchFromParcel.size()).isEqualTo(MATH_QUESTIONS.size)
+        MATH_QUESTIONS.forEachIndexed { i, mathQuestion ->
+            val question = batchFromParcel.get(i)
+            assertThat(question.firstOperand).isEqualTo(mathQuestion.firstOperand)
+            assertThat(question.secondOperand).isEqualTo(mathQuestion.secondOperand)
+            assertThat(question.operator).isEqualTo(mathQuestion.operator)
+            assertThat(question.delayTime).isEqualTo(mathQuestion.delayTime)
+        }
+    }
+}
@@ -13,7 +13,7 @@ import org.junit.runner.RunWith
  */
 @SmallTest
 @RunWith(AndroidJUnit4::class)
-class MathQuestionTest {
+class ParcelableMathQuestionTest {
 
     companion object {
         private const val FIRST_OPERAND = 1.0
@@ -22,22 +22,24 @@ class MathQuestionTest {
         private val OPERATOR = Operator.ADD
     }
 
-    private lateinit var mathQuestion: MathQuestion
+    private lateinit var parcelable: ParcelableMathQuestion
 
     @Before
     fun initMathQuestion() {
-        mathQuestion = MathQuestion(FIRST_OPERAND, SECOND_OPERAND, OPERATOR, DELAY_TIME)
+        val mathQuestion = MathQuestion(FIRST_OPERAND, SECOND_OPERAND, OPERATOR, DELAY_TIME)
+        parcelable = ParcelableMathQuestion(mathQuestion)
     }
 
     @Test
     fun mathQuestion_readWriteParcelable() {
         // Write
         val parcel = Parcel.obtain()
-        mathQuestion.writeToParcel(parcel, mathQuestion.describeContents())
+        parcelable.writeToParcel(parcel, parcelable.describeContents())
         // Reset for reading
         parcel.setDataPosition(0)
         // Read
-        val mathQuestionFromParcel = MathQuestion.CREATOR.createFromParcel(parcel)
+        val mathQuestionFromParcel =
+            ParcelableMathQuestion.CREATOR.createFromParcel(parcel).mathQuestion
         // Verify
         assertThat(mathQuestionFromParcel.firstOperand).isEqualTo(FIRST_OPERAND)
         assertThat(mathQuestionFromParcel.secondOperand).isEqualTo(SECOND_OPERAND)
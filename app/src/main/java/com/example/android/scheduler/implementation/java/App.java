@@ -7,9 +7,12 @@ import android.app.NotificationChannel;
 import android.app.NotificationManager;
 import android.os.Build;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import com.example.android.scheduler.R;
+import com.example.android.scheduler.implementation.java.engine.Clock;
+import com.example.android.scheduler.implementation.java.engine.EngineConfig;
 import com.example.android.scheduler.implementation.java.util.SimpleCountingIdlingResource;
 
 public class App extends Application {
@@ -44,6 +47,17 @@ public class App extends Application {
         return null;
     }
 
+    @NonNull
+    public EngineConfig getEngineConfig() {
+        return new EngineConfig.Builder().build();
+    }
+
+    // The source of time of the engine and the countdowns, tests may replace it.
+    @NonNull
+    public Clock getClock() {
+        return Clock.SYSTEM;
+    }
+
     public Class<? extends Activity> getMainEntryPoint() {
         return MainActivity.class;
     }
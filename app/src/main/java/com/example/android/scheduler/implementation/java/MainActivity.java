@@ -20,7 +20,8 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.android.scheduler.R;
 import com.example.android.scheduler.implementation.java.engine.MathEngine;
-import com.example.android.scheduler.implementation.java.engine.data.model.MathAnswer;
+import com.example.android.scheduler.implementation.java.engine.data.Results;
+import com.example.android.scheduler.implementation.java.engine.data.ResultsStore;
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
 import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
 import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
@@ -195,14 +196,15 @@ public class MainActivity extends AppCompatActivity {
 
     private void setupPendingOperations() {
         mPendingOperationsAdapter =
-                new PendingOperationsAdapter(getLifecycle(), new ArrayList<>(0));
+                new PendingOperationsAdapter(getLifecycle(), new ArrayList<>(0),
+                        ((App)getApplication()).getClock());
         mPendingOperationsRV.setLayoutManager(
                 new LinearLayoutManager(this, RecyclerView.VERTICAL, false));
         mPendingOperationsRV.setAdapter(mPendingOperationsAdapter);
     }
 
     private void setupOperationsResults() {
-        mOperationsResultsAdapter = new OperationsResultsAdapter(new ArrayList<>(0));
+        mOperationsResultsAdapter = new OperationsResultsAdapter(new ResultsStore());
         mOperationsResultsRV.setLayoutManager(
                 new LinearLayoutManager(this, RecyclerView.VERTICAL, false));
         mOperationsResultsRV.setAdapter(mOperationsResultsAdapter);
@@ -253,19 +255,31 @@ public class MainActivity extends AppCompatActivity {
 
     private final MathEngine.Listener mMathEngineListener = new MathEngine.Listener() {
         @Override
-        public void onConnected(@NonNull List<Operation> pending, @NonNull List<MathAnswer> results) {
+        public void onConnected(@NonNull List<Operation> pending, @NonNull Results results) {
             mPendingOperationsAdapter.replaceData(pending);
             mOperationsResultsAdapter.replaceData(results);
         }
 
         @Override
-        public void onPendingOperationsChanged(@NonNull List<Operation> pending) {
-            mPendingOperationsAdapter.replaceData(pending);
+        public void onPendingOperationsAdded(@NonNull List<Operation> added) {
+            mPendingOperationsAdapter.addOperations(added);
         }
 
         @Override
-        public void onResultsChanged(@NonNull List<MathAnswer> results) {
-            mOperationsResultsAdapter.replaceData(results);
+        public void onPendingOperationsRemoved(@NonNull List<Operation> removed) {
+            mPendingOperationsAdapter.removeOperations(removed);
+        }
+
+        @Override
+        public void onResultsInserted(@NonNull Results results, int positionStart,
+                                      int itemCount) {
+            mOperationsResultsAdapter.insertData(results, positionStart, itemCount);
+        }
+
+        @Override
+        public void onResultsRemoved(@NonNull Results results, int positionStart,
+                                     int itemCount) {
+            mOperationsResultsAdapter.removeData(results, positionStart, itemCount);
         }
 
         @Override
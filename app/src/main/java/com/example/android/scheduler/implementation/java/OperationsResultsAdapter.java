@@ -10,19 +10,28 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.android.scheduler.R;
-import com.example.android.scheduler.implementation.java.engine.data.model.MathAnswer;
-
-import java.util.List;
+import com.example.android.scheduler.implementation.java.engine.EngineTrace;
+import com.example.android.scheduler.implementation.java.engine.ResultFormatter;
+import com.example.android.scheduler.implementation.java.engine.Tracer;
+import com.example.android.scheduler.implementation.java.engine.data.Results;
 
 import butterknife.BindView;
 import butterknife.ButterKnife;
 
+/**
+ * Shows the operations results, oldest first. The rows have stable ids, the
+ * {@link Results#getRowId(int) row ids}, and as results are only appended or dropped from the
+ * front, replacing the results dispatches only the rows dropped and appended in between.
+ */
 public class OperationsResultsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
-    private List<MathAnswer> mMathAnswers;
+    // Rows are rendered on bind into this buffer, TextView keeps its own copy of the text.
+    private final StringBuilder mTextBuilder = new StringBuilder(64);
+    private Results mResults;
 
-    public OperationsResultsAdapter(@NonNull List<MathAnswer> mathAnswers) {
+    public OperationsResultsAdapter(@NonNull Results results) {
         super();
-        mMathAnswers = mathAnswers;
+        mResults = results;
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -35,18 +44,104 @@ public class OperationsResultsAdapter extends RecyclerView.Adapter<RecyclerView.
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, final int position) {
-        MathAnswer mathAnswer = mMathAnswers.get(position);
-        ((ItemViewHolder)holder).result.setText(mathAnswer.getResult());
+        Tracer tracer = EngineTrace.beginSection("OperationsResultsAdapter.onBindViewHolder");
+        try {
+            mTextBuilder.setLength(0);
+            // A result dropped since this snapshot is left blank, its removal is on its way.
+            if (mResults.isRetained(position)) {
+                ResultFormatter.appendResult(mTextBuilder,
+                        mResults.getFirstOperand(position),
+                        mResults.getOperator(position),
+                        mResults.getSecondOperand(position),
+                        mResults.getResult(position)
+                );
+            }
+            ((ItemViewHolder)holder).result.setText(mTextBuilder);
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
     }
 
     @Override
     public int getItemCount() {
-        return mMathAnswers.size();
+        return mResults.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mResults.getRowId(position);
     }
 
-    public void replaceData(@NonNull List<MathAnswer> mathAnswers) {
-        mMathAnswers = mathAnswers;
-        notifyDataSetChanged();
+    public void replaceData(@NonNull Results results) {
+        Tracer tracer = EngineTrace.beginSection("OperationsResultsAdapter.replaceData");
+        try {
+            dispatchReplacement(results);
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+    }
+
+    private void dispatchReplacement(@NonNull Results results) {
+        Results oldResults = mResults;
+        mResults = results;
+        int oldSize = oldResults.size();
+        int newSize = results.size();
+        if (oldSize > 0 && newSize > 0) {
+            long oldFirst = oldResults.getRowId(0);
+            long newFirst = results.getRowId(0);
+            long dropped = newFirst - oldFirst;
+            long appended = (newFirst + newSize) - (oldFirst + oldSize);
+            // The new rows are the old ones minus the dropped ones, followed by the appended ones.
+            if (dropped >= 0 && dropped <= oldSize && appended >= 0) {
+                if (dropped > 0) {
+                    notifyItemRangeRemoved(0, (int) dropped);
+                }
+                if (appended > 0) {
+                    notifyItemRangeInserted(oldSize - (int) dropped, (int) appended);
+                }
+                return;
+            }
+        }
+        if (oldSize > 0) {
+            notifyItemRangeRemoved(0, oldSize);
+        }
+        if (newSize > 0) {
+            notifyItemRangeInserted(0, newSize);
+        }
+    }
+
+    /**
+     * Shows the results appended since the last update.
+     *
+     * @param results The operations results
+     * @param positionStart The position of the first new result
+     * @param itemCount The number of new results
+     */
+    public void insertData(@NonNull Results results, int positionStart, int itemCount) {
+        Tracer tracer = EngineTrace.beginSection("OperationsResultsAdapter.insertData");
+        try {
+            mResults = results;
+            notifyItemRangeInserted(positionStart, itemCount);
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+    }
+
+    /**
+     * Removes the results dropped since the last update.
+     *
+     * @param results The operations results
+     * @param positionStart The position of the first dropped result
+     * @param itemCount The number of dropped results
+     */
+    public void removeData(@NonNull Results results, int positionStart, int itemCount) {
+        Tracer tracer = EngineTrace.beginSection("OperationsResultsAdapter.removeData");
+        try {
+            mResults = results;
+            notifyItemRangeRemoved(positionStart, itemCount);
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
     }
 
     static final class ItemViewHolder extends RecyclerView.ViewHolder {
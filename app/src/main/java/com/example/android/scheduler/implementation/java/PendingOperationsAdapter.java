@@ -1,26 +1,34 @@
 package com.example.android.scheduler.implementation.java;
 
 import android.annotation.SuppressLint;
-import android.os.CountDownTimer;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleObserver;
 import androidx.lifecycle.OnLifecycleEvent;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.android.scheduler.R;
+import com.example.android.scheduler.implementation.java.engine.Clock;
+import com.example.android.scheduler.implementation.java.engine.EngineTrace;
+import com.example.android.scheduler.implementation.java.engine.Tracer;
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
 import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.util.BackgroundDiffer;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import butterknife.BindView;
@@ -28,16 +36,46 @@ import butterknife.ButterKnife;
 
 import static com.example.android.scheduler.implementation.java.util.TimeUtil.getTimeFormatted;
 
+/**
+ * Shows the pending operations ordered by {@link Operation#END_TIME_ORDER}, the adapter keeps its
+ * own sorted copy and applies the changes to it, so a change costs a binary search per operation.
+ * The rows have stable ids, the operation ids. Replacing the operations, or a change too large to
+ * be applied one operation at a time, is diffed on a background thread, and only the rows that
+ * changed are dispatched. The changes received meanwhile are applied to the next list, that is
+ * diffed once the first diff is applied.
+ *
+ * <p>The remaining times are computed from {@link Operation#getEndTime()} by a single ticker, a
+ * {@link Choreographer} frame callback posted once per second, that only updates the rows attached
+ * to the window. The ticks follow the countdown of the earliest attached operation, and the ticker
+ * stops while the lifecycle is stopped or no row is attached, so the number of main thread messages
+ * doesn't depend on the number of pending operations.</p>
+ */
 public class PendingOperationsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
         implements LifecycleObserver {
+    // Beyond this many changes, one background diff is cheaper than replaying every change.
+    private static final int MAX_ITEM_NOTIFICATIONS = 64;
+    private static final long TICK_INTERVAL = 1000;
 
-    private final Map<String, CountDownTimer> mTimers;
+    private final Clock mClock;
+    private final Set<ItemViewHolder> mAttachedHolders = new HashSet<>();
+    private final BackgroundDiffer mDiffer = new BackgroundDiffer();
+    // The operations shown, only modified by the main thread while no diff is calculated.
     private List<Operation> mOperations;
+    // The operations being diffed against the shown ones, never modified.
+    @Nullable
+    private List<Operation> mDiffedOperations;
+    // The latest operations, if they changed while a diff was calculated.
+    @Nullable
+    private List<Operation> mNextOperations;
+    private boolean mStarted;
+    private boolean mTickScheduled;
 
-    public PendingOperationsAdapter(Lifecycle lifecycle, @NonNull List<Operation> operations) {
+    public PendingOperationsAdapter(Lifecycle lifecycle, @NonNull List<Operation> operations,
+                                    @NonNull Clock clock) {
         super();
-        mTimers = new HashMap<>();
-        mOperations = operations;
+        mClock = clock;
+        mOperations = new ArrayList<>(operations);
+        setHasStableIds(true);
         lifecycle.addObserver(this);
     }
 
@@ -54,18 +92,30 @@ public class PendingOperationsAdapter extends RecyclerView.Adapter<RecyclerView.
         ItemViewHolder itemViewHolder = ((ItemViewHolder)holder);
         Operation operation = mOperations.get(position);
 
-        if (itemViewHolder.timer != null) {
-            itemViewHolder.timer.cancel();
-            itemViewHolder.timer = null;
-            mTimers.remove(operation.getId());
-        }
-
         MathQuestion question = operation.getMathQuestion();
         itemViewHolder.equation.setText(String.format(Locale.US, "Equation: %.2f %s %.2f",
                 question.getFirstOperand(), question.getOperator().symbol(), question.getSecondOperand())
         );
 
-        setupTimer(itemViewHolder, operation);
+        itemViewHolder.operation = operation;
+        itemViewHolder.shownSeconds = -1;
+        updateRemainingTime(itemViewHolder, mClock.currentTimeMillis());
+    }
+
+    @Override
+    public void onViewAttachedToWindow(@NonNull RecyclerView.ViewHolder holder) {
+        ItemViewHolder itemViewHolder = ((ItemViewHolder)holder);
+        mAttachedHolders.add(itemViewHolder);
+        updateRemainingTime(itemViewHolder, mClock.currentTimeMillis());
+        scheduleTick();
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(@NonNull RecyclerView.ViewHolder holder) {
+        mAttachedHolders.remove((ItemViewHolder)holder);
+        if (mAttachedHolders.isEmpty()) {
+            cancelTick();
+        }
     }
 
     @Override
@@ -73,54 +123,234 @@ public class PendingOperationsAdapter extends RecyclerView.Adapter<RecyclerView.
         return mOperations.size();
     }
 
+    @Override
+    public long getItemId(int position) {
+        return mOperations.get(position).getId();
+    }
+
+    /**
+     * Replaces all the operations, the rows are updated once the diff has been calculated.
+     *
+     * @param operations The operations ordered by {@link Operation#END_TIME_ORDER}
+     */
     public void replaceData(@NonNull List<Operation> operations) {
-        mOperations = operations;
-        cancelTimers();
-        mTimers.clear();
-        notifyDataSetChanged();
+        submit(new ArrayList<>(operations));
+    }
+
+    public void addOperations(@NonNull List<Operation> added) {
+        Tracer tracer = EngineTrace.beginSection("PendingOperationsAdapter.addOperations");
+        try {
+            if (mDiffer.isCalculating()) {
+                merge(nextOperations(), added);
+                return;
+            }
+            if (added.size() > MAX_ITEM_NOTIFICATIONS) {
+                List<Operation> operations = new ArrayList<>(mOperations.size() + added.size());
+                operations.addAll(mOperations);
+                merge(operations, added);
+                submit(operations);
+                return;
+            }
+            for (Operation operation : added) {
+                int position = Collections.binarySearch(mOperations, operation,
+                        Operation.END_TIME_ORDER);
+                if (position < 0) {
+                    position = -position - 1;
+                    mOperations.add(position, operation);
+                    notifyItemInserted(position);
+                }
+            }
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+    }
+
+    public void removeOperations(@NonNull List<Operation> removed) {
+        Tracer tracer = EngineTrace.beginSection("PendingOperationsAdapter.removeOperations");
+        try {
+            if (mDiffer.isCalculating()) {
+                mNextOperations = filter(nextOperations(), removed);
+                return;
+            }
+            if (removed.size() > MAX_ITEM_NOTIFICATIONS) {
+                submit(filter(mOperations, removed));
+                return;
+            }
+            for (Operation operation : removed) {
+                int position = Collections.binarySearch(mOperations, operation,
+                        Operation.END_TIME_ORDER);
+                if (position >= 0) {
+                    mOperations.remove(position);
+                    notifyItemRemoved(position);
+                }
+            }
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
     }
 
     public void clearData() {
-        mOperations.clear();
-        cancelTimers();
-        mTimers.clear();
-        notifyDataSetChanged();
+        mDiffer.cancel();
+        mDiffedOperations = null;
+        mNextOperations = null;
+        int count = mOperations.size();
+        mOperations = new ArrayList<>();
+        notifyItemRangeRemoved(0, count);
     }
 
-    @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
-    void cancelTimers() {
-        for (CountDownTimer timer : mTimers.values())
-            timer.cancel();
+    // Diffs the shown operations against the given ones, which are shown once the diff is applied.
+    private void submit(@NonNull List<Operation> operations) {
+        mDiffedOperations = operations;
+        mNextOperations = null;
+        mDiffer.calculate(new OperationsDiffCallback(mOperations, operations), result -> {
+            mOperations = operations;
+            mDiffedOperations = null;
+            Tracer tracer = EngineTrace.beginSection("PendingOperationsAdapter.dispatchDiff");
+            try {
+                result.dispatchUpdatesTo(this);
+            } finally {
+                EngineTrace.endSection(tracer);
+            }
+            if (mNextOperations != null) {
+                submit(mNextOperations);
+            }
+        });
     }
 
-    private void setupTimer(ItemViewHolder holder, Operation operation) {
-        long totalMillis = operation.getEndTime() - System.currentTimeMillis();
-        if (totalMillis <= 0) {
-            holder.remainingTime.setText(null);
-            return;
+    private List<Operation> nextOperations() {
+        if (mNextOperations == null) {
+            //noinspection ConstantConditions
+            mNextOperations = new ArrayList<>(mDiffedOperations);
+        }
+        return mNextOperations;
+    }
+
+    private static void merge(List<Operation> operations, List<Operation> added) {
+        operations.addAll(added);
+        // Both parts are sorted runs already, which the merge sort just merges.
+        Collections.sort(operations, Operation.END_TIME_ORDER);
+    }
+
+    private static List<Operation> filter(List<Operation> operations, List<Operation> removed) {
+        Set<Operation> removedSet = new HashSet<>(removed);
+        List<Operation> remaining = new ArrayList<>(operations.size());
+        for (Operation operation : operations) {
+            if (!removedSet.contains(operation)) {
+                remaining.add(operation);
+            }
         }
-        holder.timer = new CountDownTimer(totalMillis, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                long hours = TimeUnit.MILLISECONDS.toHours(millisUntilFinished);
-                millisUntilFinished -= TimeUnit.HOURS.toMillis(hours);
+        return remaining;
+    }
 
-                long minutes = TimeUnit.MILLISECONDS.toMinutes(millisUntilFinished);
-                millisUntilFinished -= TimeUnit.MINUTES.toMillis(minutes);
+    @OnLifecycleEvent(Lifecycle.Event.ON_START)
+    void startTicker() {
+        mStarted = true;
+        long now = mClock.currentTimeMillis();
+        for (ItemViewHolder holder : mAttachedHolders) {
+            updateRemainingTime(holder, now);
+        }
+        scheduleTick();
+    }
 
-                long seconds = TimeUnit.MILLISECONDS.toSeconds(millisUntilFinished);
+    @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
+    void stopTicker() {
+        mStarted = false;
+        cancelTick();
+    }
 
-                // We could also use SimpleDateFormat class to parse time here
-                String remainingTime = "Remaining Time: " + getTimeFormatted(hours, minutes, seconds);
-                holder.remainingTime.setText(remainingTime);
+    // Posts the next tick for when the earliest attached countdown shows the next second.
+    private void scheduleTick() {
+        if (mTickScheduled || !mStarted) {
+            return;
+        }
+        long now = mClock.currentTimeMillis();
+        long earliestEndTime = Long.MAX_VALUE;
+        for (ItemViewHolder holder : mAttachedHolders) {
+            long endTime = holder.operation.getEndTime();
+            if (endTime > now && endTime < earliestEndTime) {
+                earliestEndTime = endTime;
             }
+        }
+        if (earliestEndTime == Long.MAX_VALUE) {
+            return;
+        }
+        long delay = (earliestEndTime - now) % TICK_INTERVAL;
+        Choreographer.getInstance().postFrameCallbackDelayed(mTick,
+                delay == 0 ? TICK_INTERVAL : delay);
+        mTickScheduled = true;
+    }
+
+    private void cancelTick() {
+        if (mTickScheduled) {
+            Choreographer.getInstance().removeFrameCallback(mTick);
+            mTickScheduled = false;
+        }
+    }
 
-            @Override
-            public void onFinish() {
-                holder.remainingTime.setText(null);
+    private final Choreographer.FrameCallback mTick = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            mTickScheduled = false;
+            long now = mClock.currentTimeMillis();
+            for (ItemViewHolder holder : mAttachedHolders) {
+                updateRemainingTime(holder, now);
             }
-        }.start();
-        mTimers.put(operation.getId(), holder.timer);
+            scheduleTick();
+        }
+    };
+
+    // Only touches the label when the shown second changes, the last second is shown until the end.
+    private static void updateRemainingTime(ItemViewHolder holder, long now) {
+        long remainingMillis = holder.operation.getEndTime() - now;
+        long totalSeconds = remainingMillis > 0
+                ? Math.max(1, TimeUnit.MILLISECONDS.toSeconds(remainingMillis)) : 0;
+        if (totalSeconds == holder.shownSeconds) {
+            return;
+        }
+        holder.shownSeconds = totalSeconds;
+        if (remainingMillis <= 0) {
+            holder.remainingTime.setText(null);
+            return;
+        }
+        long hours = TimeUnit.SECONDS.toHours(totalSeconds);
+        long minutes = TimeUnit.SECONDS.toMinutes(totalSeconds) % 60;
+        long seconds = totalSeconds % 60;
+
+        // We could also use SimpleDateFormat class to parse time here
+        String remainingTime = "Remaining Time: " + getTimeFormatted(hours, minutes, seconds);
+        holder.remainingTime.setText(remainingTime);
+    }
+
+    private static final class OperationsDiffCallback extends DiffUtil.Callback {
+        private final List<Operation> mOldOperations;
+        private final List<Operation> mNewOperations;
+
+        OperationsDiffCallback(List<Operation> oldOperations, List<Operation> newOperations) {
+            mOldOperations = oldOperations;
+            mNewOperations = newOperations;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return mOldOperations.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return mNewOperations.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return mOldOperations.get(oldItemPosition).getId()
+                    == mNewOperations.get(newItemPosition).getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            // An operation never changes.
+            return true;
+        }
     }
 
     @SuppressLint("NonConstantResourceId")
@@ -132,7 +362,9 @@ public class PendingOperationsAdapter extends RecyclerView.Adapter<RecyclerView.
         @BindView(R.id.remaining_time)
         TextView remainingTime;
 
-        CountDownTimer timer;
+        Operation operation;
+        // The remaining seconds shown by the label, -1 if not shown yet.
+        long shownSeconds = -1;
 
         ItemViewHolder(View v) {
             super(v);
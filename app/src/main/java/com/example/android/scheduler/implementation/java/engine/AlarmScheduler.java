@@ -0,0 +1,91 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.os.Build;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+
+import java.util.Collection;
+
+/**
+ * Schedules one exact alarm per operation ({@code setExactAndAllowWhileIdle} on API 23+), the
+ * operations are answered on time even in Doze, at the cost of waking the device up for each one.
+ * Alarms survive the process but not a device reboot, they are set on the elapsed realtime clock
+ * after the delay left according to the engine clock.
+ *
+ * <p>Every operation has its own one-shot {@link PendingIntent}, so scheduling an operation again
+ * replaces its alarm, and the alarms left by an earlier process are found again, see
+ * {@link #isScheduled(Operation)}. The system cancels the intent once its alarm has gone off, so an
+ * operation whose alarm fired but whose result never reached the service is not considered
+ * scheduled any more.</p>
+ *
+ * <p>Use it for latency-critical questions only, the system throttles while-idle alarms.</p>
+ */
+final class AlarmScheduler implements Scheduler {
+    private final Context mContext;
+    private final AlarmManager mAlarmManager;
+    private final Clock mClock;
+    private final SchedulerStats mStats = new SchedulerStats("alarm-manager");
+
+    AlarmScheduler(@NonNull Context context, @NonNull Clock clock) {
+        mContext = context.getApplicationContext();
+        mAlarmManager = (AlarmManager) mContext.getSystemService(Context.ALARM_SERVICE);
+        mClock = clock;
+    }
+
+    @Override
+    public void schedule(@NonNull Operation operation) {
+        long start = System.nanoTime();
+        PendingIntent pendingIntent = getPendingIntent(operation,
+                PendingIntent.FLAG_UPDATE_CURRENT);
+        long triggerTime = SystemClock.elapsedRealtime()
+                + Math.max(0, operation.getEndTime() - mClock.currentTimeMillis());
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            mAlarmManager.setExactAndAllowWhileIdle(
+                    AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerTime, pendingIntent);
+        } else {
+            mAlarmManager.setExact(
+                    AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerTime, pendingIntent);
+        }
+        mStats.recordSchedule(System.nanoTime() - start);
+    }
+
+    @Override
+    public boolean isScheduled(@NonNull Operation operation) {
+        // The pending intent is one-shot, it only exists until its alarm goes off.
+        return getPendingIntent(operation, PendingIntent.FLAG_NO_CREATE) != null;
+    }
+
+    @Override
+    public void cancelAll(@NonNull Collection<Operation> operations) {
+        // Every alarm has its own intent data, so they can only be cancelled one by one.
+        for (Operation operation : operations) {
+            PendingIntent pendingIntent =
+                    getPendingIntent(operation, PendingIntent.FLAG_NO_CREATE);
+            if (pendingIntent != null) {
+                mAlarmManager.cancel(pendingIntent);
+                pendingIntent.cancel();
+            }
+        }
+    }
+
+    @NonNull
+    @Override
+    public SchedulerStats getStats() {
+        return mStats;
+    }
+
+    // FLAG_ONE_SHOT is part of the intent identity, so every lookup passes it too.
+    @Nullable
+    private PendingIntent getPendingIntent(@NonNull Operation operation, int flags) {
+        return PendingIntent.getBroadcast(mContext, 0,
+                ArithmeticAlarmReceiver.createIntent(mContext, operation),
+                PendingIntent.FLAG_ONE_SHOT | flags);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+import androidx.tracing.Trace;
+
+/**
+ * Writes the engine trace sections to the system trace, they show up in Perfetto and Systrace
+ * captures of the app.
+ */
+final class AndroidTracer implements Tracer {
+    @Override
+    public void beginSection(@NonNull String name) {
+        Trace.beginSection(name);
+    }
+
+    @Override
+    public void endSection() {
+        Trace.endSection();
+    }
+
+    @Override
+    public void beginAsyncSection(@NonNull String name, int cookie) {
+        Trace.beginAsyncSection(name, cookie);
+    }
+
+    @Override
+    public void endAsyncSection(@NonNull String name, int cookie) {
+        Trace.endAsyncSection(name, cookie);
+    }
+}
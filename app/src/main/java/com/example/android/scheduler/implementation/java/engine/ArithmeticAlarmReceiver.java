@@ -0,0 +1,54 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+/**
+ * Answers an operation scheduled by {@link AlarmScheduler} when its alarm goes off.
+ */
+public class ArithmeticAlarmReceiver extends BroadcastReceiver {
+    private static final String KEY_FIRST_OPERAND = "KEY_FIRST_OPERAND";
+    private static final String KEY_SECOND_OPERAND = "KEY_SECOND_OPERAND";
+    private static final String KEY_OPERATOR_ORDINAL = "KEY_OPERATOR_ORDINAL";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        Uri data = intent.getData();
+        int operatorOrdinal = intent.getIntExtra(KEY_OPERATOR_ORDINAL, -1);
+        if (data == null || operatorOrdinal < 0 || operatorOrdinal >= Operator.values().length) {
+            return;
+        }
+        double first = intent.getDoubleExtra(KEY_FIRST_OPERAND, 0);
+        double second = intent.getDoubleExtra(KEY_SECOND_OPERAND, 0);
+        Operator operator = Operator.values()[operatorOrdinal];
+        long operationId;
+        try {
+            operationId = Long.parseLong(data.getSchemeSpecificPart());
+        } catch (NumberFormatException e) {
+            return;
+        }
+        MathEngineService.showResult(context, operationId, operator.compute(first, second));
+    }
+
+    /**
+     * Returns the alarm intent of the operation, the operation id is the intent data so that every
+     * operation gets its own {@link android.app.PendingIntent}.
+     */
+    @NonNull
+    static Intent createIntent(@NonNull Context c, @NonNull Operation operation) {
+        MathQuestion mathQuestion = operation.getMathQuestion();
+        return new Intent(c, ArithmeticAlarmReceiver.class)
+                .setData(Uri.fromParts("operation", Long.toString(operation.getId()), null))
+                .putExtra(KEY_FIRST_OPERAND, mathQuestion.getFirstOperand())
+                .putExtra(KEY_SECOND_OPERAND, mathQuestion.getSecondOperand())
+                .putExtra(KEY_OPERATOR_ORDINAL, mathQuestion.getOperator().ordinal());
+    }
+}
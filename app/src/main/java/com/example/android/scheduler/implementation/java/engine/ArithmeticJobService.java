@@ -0,0 +1,66 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import android.annotation.TargetApi;
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.os.Build;
+import android.os.PersistableBundle;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+/**
+ * Answers an operation scheduled by {@link JobSchedulerScheduler} when its job runs.
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+public class ArithmeticJobService extends JobService {
+    private static final String KEY_OPERATION_ID = "KEY_OPERATION_ID";
+    private static final String KEY_FIRST_OPERAND = "KEY_FIRST_OPERAND";
+    private static final String KEY_SECOND_OPERAND = "KEY_SECOND_OPERAND";
+    private static final String KEY_OPERATOR_ORDINAL = "KEY_OPERATOR_ORDINAL";
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        PersistableBundle extras = params.getExtras();
+        long operationId = extras.getLong(KEY_OPERATION_ID, Operation.NO_ID);
+        int operatorOrdinal = extras.getInt(KEY_OPERATOR_ORDINAL, -1);
+        if (operationId != Operation.NO_ID && operatorOrdinal >= 0
+                && operatorOrdinal < Operator.values().length) {
+            double first = extras.getDouble(KEY_FIRST_OPERAND, 0);
+            double second = extras.getDouble(KEY_SECOND_OPERAND, 0);
+            Operator operator = Operator.values()[operatorOrdinal];
+            MathEngineService.showResult(this, operationId, operator.compute(first, second));
+        }
+        // The work is done, nothing runs in the background.
+        return false;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        return false;
+    }
+
+    /**
+     * Returns the id of the operation a job answers.
+     *
+     * @param extras The extras of the job
+     * @return The operation id or {@link Operation#NO_ID}.
+     */
+    static long getOperationId(@NonNull PersistableBundle extras) {
+        return extras.getLong(KEY_OPERATION_ID, Operation.NO_ID);
+    }
+
+    @NonNull
+    static PersistableBundle getJobExtras(@NonNull Operation operation) {
+        MathQuestion mathQuestion = operation.getMathQuestion();
+        PersistableBundle extras = new PersistableBundle();
+        extras.putLong(KEY_OPERATION_ID, operation.getId());
+        extras.putDouble(KEY_FIRST_OPERAND, mathQuestion.getFirstOperand());
+        extras.putDouble(KEY_SECOND_OPERAND, mathQuestion.getSecondOperand());
+        extras.putInt(KEY_OPERATOR_ORDINAL, mathQuestion.getOperator().ordinal());
+        return extras;
+    }
+}
@@ -7,18 +7,42 @@ import androidx.work.Data;
 import androidx.work.Worker;
 import androidx.work.WorkerParameters;
 
+import com.example.android.scheduler.implementation.java.App;
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
 import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
 
-import java.util.Locale;
+import java.util.List;
 
+/**
+ * Answers either one operation, or a batch of operations whose end times fall in the same
+ * coalescing window, see {@link #getBatchWorkInputData(List, int, int)}.
+ */
 public class ArithmeticWorker extends Worker {
     private static final String KEY_OPERATION_ID = "KEY_OPERATION_ID";
     private static final String KEY_FIRST_OPERAND = "KEY_FIRST_OPERAND";
     private static final String KEY_SECOND_OPERAND = "KEY_SECOND_OPERAND";
     private static final String KEY_OPERATOR_ORDINAL = "KEY_OPERATOR_ORDINAL";
 
+    private static final String KEY_OPERATION_IDS = "KEY_OPERATION_IDS";
+    private static final String KEY_FIRST_OPERANDS = "KEY_FIRST_OPERANDS";
+    private static final String KEY_SECOND_OPERANDS = "KEY_SECOND_OPERANDS";
+    private static final String KEY_OPERATOR_ORDINALS = "KEY_OPERATOR_ORDINALS";
+
     static final String KEY_RESULT = "key_result";
+    static final String KEY_RESULTS = "key_results";
+    // The output data also holds the result values and the operation ids (under the input keys),
+    // so a result that couldn't be delivered is found by the next service instance.
+    private static final String KEY_RESULT_VALUE = "key_result_value";
+
+    /**
+     * The max number of operations in one batch. {@link Data} boxes the arrays and serializes them
+     * with an ObjectOutputStream, an operation then takes about 50 bytes: 14 for each of its Long
+     * and two Doubles, 5 to 10 for its Integer (a shared cached instance or a new one), the class
+     * descriptors are written once per array. 100 of them take about 5 KB of input data, and 28
+     * bytes each of output data, half of {@link Data#MAX_DATA_BYTES}.
+     */
+    static final int MAX_BATCH_SIZE = 100;
 
     public ArithmeticWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
@@ -27,8 +51,19 @@ public class ArithmeticWorker extends Worker {
     @NonNull
     @Override
     public Result doWork() {
+        long start = System.nanoTime();
+        Clock clock = ((App) getApplicationContext()).getClock();
+        Data data = getInputData();
+        long[] operationIds = data.getLongArray(KEY_OPERATION_IDS);
+        long firstOperationId = operationIds != null && operationIds.length > 0
+                ? operationIds[0] : data.getLong(KEY_OPERATION_ID, Operation.NO_ID);
+        EventRing.getDefault().record(EventRing.WORKER_START, firstOperationId,
+                operationIds != null ? operationIds.length : 1, clock.currentTimeMillis());
+        Tracer tracer = EngineTrace.beginSection("ArithmeticWorker.doWork");
         try {
-            Data data = getInputData();
+            if (operationIds != null) {
+                return doBatchWork(data, operationIds);
+            }
             if (!validInputData(data)) {
                 return Result.failure();
             }
@@ -37,34 +72,141 @@ public class ArithmeticWorker extends Worker {
             int operatorOrdinal = data.getInt(KEY_OPERATOR_ORDINAL, 0);
             Operator operator = Operator.values()[operatorOrdinal];
 
-            String operationId = data.getString(KEY_OPERATION_ID);
-            String result = String.format(Locale.US, "%.2f %s %.2f = %.2f",
-                    first, operator.symbol(), second, operator.compute(first, second)
-            );
+            long operationId = data.getLong(KEY_OPERATION_ID, Operation.NO_ID);
+            double result = operator.compute(first, second);
 
-            MathEngineService.showResult(getApplicationContext(), operationId, result);
-            return Result.success(new Data.Builder().putString(KEY_RESULT, result).build());
+            if (MathEngineService.showResult(getApplicationContext(), operationId, result)) {
+                // Already answered, the record only has to say that the work is done.
+                return Result.success();
+            }
+            String output = Arithmetic.format(first, operator, second, result);
+            return Result.success(new Data.Builder()
+                    .putString(KEY_RESULT, output)
+                    .putLong(KEY_OPERATION_ID, operationId)
+                    .putDouble(KEY_RESULT_VALUE, result)
+                    .build());
         }
         catch (Exception e) {
             return Result.failure();
         }
+        finally {
+            EngineTrace.endSection(tracer);
+            long nanos = System.nanoTime() - start;
+            EngineMetrics.getDefault().recordWorkerExecution(nanos);
+            EventRing.getDefault().record(EventRing.WORKER_END, firstOperationId,
+                    (int) Math.min(Integer.MAX_VALUE, nanos / 1000), clock.currentTimeMillis());
+        }
     }
 
+    // Evaluates the whole batch in one loop and delivers all the results with one intent.
     @NonNull
-    static Data getWorkInputData(@NonNull String operationId, @NonNull MathQuestion mathQuestion) {
+    private Result doBatchWork(@NonNull Data data, @NonNull long[] operationIds) {
+        double[] firstOperands = data.getDoubleArray(KEY_FIRST_OPERANDS);
+        double[] secondOperands = data.getDoubleArray(KEY_SECOND_OPERANDS);
+        int[] operatorOrdinals = data.getIntArray(KEY_OPERATOR_ORDINALS);
+        if (!validBatchInputData(operationIds, firstOperands, secondOperands, operatorOrdinals)) {
+            return Result.failure();
+        }
+        Operator[] operators = Operator.values();
+        double[] results = new double[operationIds.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = operators[operatorOrdinals[i]].compute(firstOperands[i], secondOperands[i]);
+        }
+        if (MathEngineService.showResults(getApplicationContext(), operationIds, results)) {
+            return Result.success();
+        }
+        return Result.success(new Data.Builder()
+                .putDoubleArray(KEY_RESULTS, results)
+                .putLongArray(KEY_OPERATION_IDS, operationIds)
+                .build());
+    }
+
+    /**
+     * Reads the results that a finished worker couldn't deliver from its output data.
+     *
+     * @param outputData The output data of the worker
+     * @param consumer Receives the results
+     * @return The number of results.
+     */
+    static int readUndeliveredResults(@NonNull Data outputData,
+                                      @NonNull ResultChannel.Consumer consumer) {
+        long operationId = outputData.getLong(KEY_OPERATION_ID, Operation.NO_ID);
+        if (operationId != Operation.NO_ID
+                && outputData.hasKeyWithValueOfType(KEY_RESULT_VALUE, Double.class)) {
+            consumer.onResult(operationId, outputData.getDouble(KEY_RESULT_VALUE, Double.NaN));
+            return 1;
+        }
+        long[] operationIds = outputData.getLongArray(KEY_OPERATION_IDS);
+        double[] results = outputData.getDoubleArray(KEY_RESULTS);
+        if (operationIds == null || results == null || operationIds.length != results.length) {
+            return 0;
+        }
+        for (int i = 0; i < operationIds.length; i++) {
+            consumer.onResult(operationIds[i], results[i]);
+        }
+        return operationIds.length;
+    }
+
+    @NonNull
+    static Data getWorkInputData(long operationId, @NonNull MathQuestion mathQuestion) {
         return new Data.Builder()
-                .putString(KEY_OPERATION_ID, operationId)
+                .putLong(KEY_OPERATION_ID, operationId)
                 .putDouble(KEY_FIRST_OPERAND, mathQuestion.getFirstOperand())
                 .putDouble(KEY_SECOND_OPERAND, mathQuestion.getSecondOperand())
                 .putInt(KEY_OPERATOR_ORDINAL, mathQuestion.getOperator().ordinal())
                 .build();
     }
 
+    /**
+     * Packs a range of the operations, at most {@link #MAX_BATCH_SIZE}, into one input data.
+     */
+    @NonNull
+    static Data getBatchWorkInputData(@NonNull List<Operation> operations, int from, int to) {
+        int size = to - from;
+        long[] operationIds = new long[size];
+        double[] firstOperands = new double[size];
+        double[] secondOperands = new double[size];
+        int[] operatorOrdinals = new int[size];
+        for (int i = 0; i < size; i++) {
+            Operation operation = operations.get(from + i);
+            MathQuestion mathQuestion = operation.getMathQuestion();
+            operationIds[i] = operation.getId();
+            firstOperands[i] = mathQuestion.getFirstOperand();
+            secondOperands[i] = mathQuestion.getSecondOperand();
+            operatorOrdinals[i] = mathQuestion.getOperator().ordinal();
+        }
+        return new Data.Builder()
+                .putLongArray(KEY_OPERATION_IDS, operationIds)
+                .putDoubleArray(KEY_FIRST_OPERANDS, firstOperands)
+                .putDoubleArray(KEY_SECOND_OPERANDS, secondOperands)
+                .putIntArray(KEY_OPERATOR_ORDINALS, operatorOrdinals)
+                .build();
+    }
+
+    private static boolean validBatchInputData(long[] operationIds, double[] firstOperands,
+                                               double[] secondOperands, int[] operatorOrdinals) {
+        if (firstOperands == null || secondOperands == null || operatorOrdinals == null) {
+            return false;
+        }
+        int size = operationIds.length;
+        if (firstOperands.length != size || secondOperands.length != size
+                || operatorOrdinals.length != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (operationIds[i] == Operation.NO_ID || operatorOrdinals[i] < 0
+                    || operatorOrdinals[i] >= Operator.values().length) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static boolean validInputData(Data data) {
         return data.hasKeyWithValueOfType(KEY_FIRST_OPERAND, Double.class) &&
                data.hasKeyWithValueOfType(KEY_SECOND_OPERAND, Double.class) &&
                data.hasKeyWithValueOfType(KEY_OPERATOR_ORDINAL, Integer.class) &&
                data.getInt(KEY_OPERATOR_ORDINAL, 0) < Operator.values().length &&
-               data.getString(KEY_OPERATION_ID) != null;
+               data.getLong(KEY_OPERATION_ID, Operation.NO_ID) != Operation.NO_ID;
     }
 }
\ No newline at end of file
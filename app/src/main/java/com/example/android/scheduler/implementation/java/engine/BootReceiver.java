@@ -5,7 +5,8 @@ import android.content.Context;
 import android.content.Intent;
 
 /**
- * A Receiver to start the background service when device boots.
+ * A Receiver to start the background service when device boots, the service then rebuilds its
+ * state from its journal and the outstanding work.
  */
 public class BootReceiver extends BroadcastReceiver {
     private static final String ACTION_BOOT_COMPLETED = "android.intent.action.BOOT_COMPLETED";
@@ -0,0 +1,137 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import android.annotation.TargetApi;
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.LongObjectMap;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Schedules one {@link ArithmeticJobService} job per operation straight with the
+ * {@link JobScheduler}, skipping the WorkManager database.
+ *
+ * <p>The system caps an app at 100 pending jobs (WorkManager's own jobs included), operations that
+ * don't fit are handed to the WorkManager fallback. The job id is derived from the operation id, so
+ * scheduling an operation again replaces its job instead of adding one, and the jobs left by an
+ * earlier process are found again, see {@link #isScheduled(Operation)}. The deliveries are recorded
+ * in the statistics of the backend that scheduled the operation, see {@link #getAllStats()}.</p>
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+final class JobSchedulerScheduler implements Scheduler {
+    // Keeps clear of the ids WorkManager assigns to its own jobs, which start from zero.
+    private static final int FIRST_JOB_ID = 1 << 30;
+    private static final long JOB_ID_MASK = FIRST_JOB_ID - 1;
+
+    private final JobScheduler mJobScheduler;
+    private final ComponentName mJobService;
+    private final Clock mClock;
+    private final Scheduler mFallback;
+    private final SchedulerStats mStats = new SchedulerStats("job-scheduler");
+    // The operations that have a job, by id, the others were handed to the fallback.
+    private final LongObjectMap<JobInfo> mJobs = new LongObjectMap<>();
+
+    JobSchedulerScheduler(@NonNull Context context, @NonNull Clock clock,
+                          @NonNull Scheduler fallback) {
+        mJobScheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        mJobService = new ComponentName(context, ArithmeticJobService.class);
+        mClock = clock;
+        mFallback = fallback;
+        for (JobInfo job : getPendingJobs()) {
+            mJobs.put(ArithmeticJobService.getOperationId(job.getExtras()), job);
+        }
+    }
+
+    @Override
+    public void schedule(@NonNull Operation operation) {
+        long start = System.nanoTime();
+        long delay = Math.max(0, operation.getEndTime() - mClock.currentTimeMillis());
+        JobInfo job = new JobInfo.Builder(getJobId(operation), mJobService)
+                .setMinimumLatency(delay)
+                .setOverrideDeadline(delay)
+                .setExtras(ArithmeticJobService.getJobExtras(operation))
+                .build();
+        int result;
+        try {
+            result = mJobScheduler.schedule(job);
+        } catch (IllegalStateException e) {
+            // Thrown once the app has too many pending jobs.
+            result = JobScheduler.RESULT_FAILURE;
+        }
+        if (result != JobScheduler.RESULT_SUCCESS) {
+            mStats.recordScheduleFailure(System.nanoTime() - start);
+            mFallback.schedule(operation);
+            return;
+        }
+        mJobs.put(operation.getId(), job);
+        mStats.recordSchedule(System.nanoTime() - start);
+    }
+
+    @Override
+    public boolean isScheduled(@NonNull Operation operation) {
+        return mJobs.containsKey(operation.getId()) || mFallback.isScheduled(operation);
+    }
+
+    @Override
+    public void flush() {
+        mFallback.flush();
+    }
+
+    @Override
+    public void cancelAll(@NonNull Collection<Operation> operations) {
+        for (JobInfo job : getPendingJobs()) {
+            mJobScheduler.cancel(job.getId());
+        }
+        mJobs.clear();
+        mFallback.cancelAll(operations);
+    }
+
+    @NonNull
+    @Override
+    public SchedulerStats getStats() {
+        return mStats;
+    }
+
+    @Override
+    public void recordDelivery(@NonNull Operation operation, long deliveryTime) {
+        if (mJobs.remove(operation.getId()) != null) {
+            mStats.recordDelivery(operation.getEndTime(), deliveryTime);
+        } else {
+            mFallback.recordDelivery(operation, deliveryTime);
+        }
+    }
+
+    @NonNull
+    @Override
+    public List<SchedulerStats> getAllStats() {
+        List<SchedulerStats> stats = new ArrayList<>();
+        stats.add(mStats);
+        stats.addAll(mFallback.getAllStats());
+        return stats;
+    }
+
+    // Two pending operations only share a job id if their ids are 2^30 apart.
+    private static int getJobId(@NonNull Operation operation) {
+        return FIRST_JOB_ID | (int) (operation.getId() & JOB_ID_MASK);
+    }
+
+    @NonNull
+    private List<JobInfo> getPendingJobs() {
+        List<JobInfo> jobs = mJobScheduler.getAllPendingJobs();
+        for (int i = jobs.size() - 1; i >= 0; i--) {
+            if (!mJobService.equals(jobs.get(i).getService())) {
+                jobs.remove(i);
+            }
+        }
+        return jobs;
+    }
+}
@@ -7,15 +7,18 @@ import android.content.ServiceConnection;
 import android.os.IBinder;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleObserver;
 import androidx.lifecycle.OnLifecycleEvent;
 
-import com.example.android.scheduler.implementation.java.engine.data.model.MathAnswer;
+import com.example.android.scheduler.implementation.java.App;
+import com.example.android.scheduler.implementation.java.engine.data.Results;
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
 import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
 
+import java.util.Collections;
 import java.util.List;
 
 import static com.example.android.scheduler.implementation.java.util.Preconditions.checkNotNull;
@@ -27,6 +30,7 @@ import static com.example.android.scheduler.implementation.java.util.Preconditio
  */
 public final class MathEngine implements LifecycleObserver {
     private final Context mContext;
+    private final Clock mClock;
     private final Lifecycle mLifecycle;
     private final MathEngine.Listener mListener;
 
@@ -34,7 +38,8 @@ public final class MathEngine implements LifecycleObserver {
     private boolean mIsBound;
 
     /**
-     * Notifies clients about the operations.
+     * Notifies clients about the operations, with the full state once connected and then with the
+     * changes only.
      */
     public interface Listener {
         /**
@@ -43,23 +48,43 @@ public final class MathEngine implements LifecycleObserver {
          * @param pending The pending operations
          * @param results The operations results
          */
-        default void onConnected(@NonNull List<Operation> pending,
-                                 @NonNull List<MathAnswer> results) {
+        default void onConnected(@NonNull List<Operation> pending, @NonNull Results results) {
         }
 
         /**
-         * Invoked when the pending operations have changed.
+         * Invoked when new operations are pending.
          *
-         * @param pending The pending operations
+         * @param added The added operations, immutable
+         */
+        default void onPendingOperationsAdded(@NonNull List<Operation> added) { }
+
+        /**
+         * Invoked when operations are no longer pending, because they have been answered.
+         *
+         * @param removed The removed operations, immutable
+         */
+        default void onPendingOperationsRemoved(@NonNull List<Operation> removed) { }
+
+        /**
+         * Invoked when results have been appended to the operations results.
+         *
+         * @param results The operations results
+         * @param positionStart The position of the first new result
+         * @param itemCount The number of new results
          */
-        default void onPendingOperationsChanged(@NonNull List<Operation> pending) { }
+        default void onResultsInserted(@NonNull Results results, int positionStart,
+                                       int itemCount) { }
 
         /**
-         * Invoked when the operations results have changed.
+         * Invoked when the oldest results have been dropped to stay within the results memory
+         * budget, see {@link EngineConfig.ResultsEviction#DROP}.
          *
          * @param results The operations results
+         * @param positionStart The position of the first dropped result
+         * @param itemCount The number of dropped results
          */
-        default void onResultsChanged(@NonNull List<MathAnswer> results) { }
+        default void onResultsRemoved(@NonNull Results results, int positionStart,
+                                      int itemCount) { }
 
         /**
          * Invoked when the user has cancelled all the pending operations by clicking on the
@@ -78,6 +103,7 @@ public final class MathEngine implements LifecycleObserver {
     public MathEngine(@NonNull Context context, @NonNull Lifecycle lifecycle,
                       @NonNull Listener listener) {
         mContext = checkNotNull(context);
+        mClock = ((App) context.getApplicationContext()).getClock();
         mLifecycle = checkNotNull(lifecycle);
         mListener = checkNotNull(listener);
         lifecycle.addObserver(this);
@@ -128,12 +154,90 @@ public final class MathEngine implements LifecycleObserver {
         MathEngineService.calculate(mContext, checkNotNull(mathQuestion));
     }
 
+    /**
+     * Evaluates a burst of math equations, each result is delivered after its own delay time.
+     *
+     * <p>The questions are sent to the service in a few large transactions instead of one per
+     * question, and the pending operations change only once per transaction.</p>
+     *
+     * @param mathQuestions The math questions
+     */
+    public void calculateAll(@NonNull List<MathQuestion> mathQuestions) {
+        MathEngineService.calculateAll(mContext, checkNotNull(mathQuestions));
+    }
+
+    /**
+     * Returns the scheduling overhead and delivery lateness of the schedulers used by the engine,
+     * see {@link EngineConfig#getSchedulerBackend()}.
+     *
+     * @return The scheduler statistics, empty if not connected to the service.
+     */
+    @NonNull
+    public List<SchedulerStats> getSchedulerStats() {
+        return mService != null ? mService.getSchedulerStats() : Collections.emptyList();
+    }
+
+    /**
+     * Returns the enqueue latency and the database size of the WorkManager records, see
+     * {@link EngineConfig.SchedulerBackend#WORK_MANAGER}.
+     *
+     * @return The work record statistics, {@code null} if not connected to the service.
+     */
+    @Nullable
+    public WorkRecordStats getWorkRecordStats() {
+        return mService != null ? mService.getWorkRecordStats() : null;
+    }
+
+    /**
+     * Returns how the engine state was rebuilt when the service was started.
+     *
+     * @return The recovery statistics, {@code null} if not connected to the service or if the
+     * state is still being rebuilt.
+     */
+    @Nullable
+    public RecoveryStats getRecoveryStats() {
+        return mService != null ? mService.getRecoveryStats() : null;
+    }
+
+    /**
+     * Returns the number of changes that were not shown by a foreground notification update of
+     * their own, because of {@link EngineConfig#getMaxNotificationUpdateRate()}. They are shown by a
+     * later update.
+     *
+     * @return The suppressed notification updates, zero if not connected to the service.
+     */
+    public long getSuppressedNotificationUpdates() {
+        return mService != null ? mService.getSuppressedNotificationUpdates() : 0;
+    }
+
+    /**
+     * Returns the submit to result latency, the lateness of the results, the execution time of the
+     * workers and of the listeners, the pending depth and the results rate of the engine of this
+     * process, see {@link EngineMetrics}. Available without a connection to the service.
+     *
+     * @return The metrics snapshot.
+     */
+    @NonNull
+    public EngineMetrics.Snapshot getMetrics() {
+        return EngineMetrics.getDefault().snapshot(mClock.currentTimeMillis());
+    }
+
+    /**
+     * Switches the trace sections of the scheduling pipeline, written to the system trace, see
+     * {@link EngineTrace}. They cost nothing while disabled, the default.
+     *
+     * @param enabled Whether the sections are traced
+     */
+    public static void setTracingEnabled(boolean enabled) {
+        EngineTrace.setTracer(enabled ? new AndroidTracer() : null);
+    }
+
     private final ServiceConnection mServiceConnection = new ServiceConnection() {
         @Override
         public void onServiceConnected(ComponentName name, IBinder service) {
             mService = ((MathEngineService.LocalBinder) service).getService();
+            // Connected once the engine thread has taken a snapshot of the state.
             mService.addListener(mServiceListener);
-            mListener.onConnected(mService.getPendingOperations(), mService.getOperationsResults());
             mIsBound = true;
         }
 
@@ -146,13 +250,28 @@ public final class MathEngine implements LifecycleObserver {
 
     private final MathEngineService.Listener mServiceListener = new MathEngineService.Listener() {
         @Override
-        public void onPendingOperationsChanged() {
-            mListener.onPendingOperationsChanged(mService.getPendingOperations());
+        public void onConnected(@NonNull List<Operation> pending, @NonNull Results results) {
+            mListener.onConnected(pending, results);
+        }
+
+        @Override
+        public void onPendingOperationsAdded(@NonNull List<Operation> added) {
+            mListener.onPendingOperationsAdded(added);
+        }
+
+        @Override
+        public void onPendingOperationsRemoved(@NonNull List<Operation> removed) {
+            mListener.onPendingOperationsRemoved(removed);
+        }
+
+        @Override
+        public void onResultsInserted(int positionStart, int itemCount) {
+            mListener.onResultsInserted(mService.getOperationsResults(), positionStart, itemCount);
         }
 
         @Override
-        public void onResultsChanged() {
-            mListener.onResultsChanged(mService.getOperationsResults());
+        public void onResultsRemoved(int positionStart, int itemCount) {
+            mListener.onResultsRemoved(mService.getOperationsResults(), positionStart, itemCount);
         }
 
         @Override
@@ -3,6 +3,7 @@ package com.example.android.scheduler.implementation.java.engine;
 import android.app.PendingIntent;
 import android.app.Service;
 import android.content.BroadcastReceiver;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
@@ -10,53 +11,203 @@ import android.os.Binder;
 import android.os.Handler;
 import android.os.IBinder;
 import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.ContextCompat;
-import androidx.work.OneTimeWorkRequest;
-import androidx.work.WorkManager;
-import androidx.work.WorkRequest;
+import androidx.work.WorkInfo;
 
 import com.example.android.scheduler.BuildConfig;
 import com.example.android.scheduler.R;
 import com.example.android.scheduler.implementation.java.App;
-import com.example.android.scheduler.implementation.java.engine.data.model.MathAnswer;
+import com.example.android.scheduler.implementation.java.engine.data.LongObjectMap;
+import com.example.android.scheduler.implementation.java.engine.data.MappedResultsStore;
+import com.example.android.scheduler.implementation.java.engine.data.MutableResults;
+import com.example.android.scheduler.implementation.java.engine.data.OperationJournal;
+import com.example.android.scheduler.implementation.java.engine.data.PendingOperations;
+import com.example.android.scheduler.implementation.java.engine.data.Results;
+import com.example.android.scheduler.implementation.java.engine.data.ResultsStore;
+import com.example.android.scheduler.implementation.java.engine.data.RingResultsStore;
+import com.example.android.scheduler.implementation.java.engine.data.model.IdGenerator;
 import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestionBatch;
 import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+import com.example.android.scheduler.implementation.java.engine.data.model.ParcelableMathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.ParcelableMathQuestionBatch;
 import com.example.android.scheduler.implementation.java.util.SimpleCountingIdlingResource;
 
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * A background service that schedules tasks to answer math questions.
+ *
+ * <p>The engine state (the pending operations, the results, the schedulers and the journal) is owned
+ * by a dedicated {@link EngineLoop} thread: the intents, the results, the notification actions and
+ * the timer ticks are commands posted to the loop, so the state is never touched by two threads and
+ * the intents are not even unparcelled on the main thread. The changes made by a burst of commands
+ * are posted to the main thread as a single update, that notifies the listeners and refreshes the
+ * notification, at most {@link EngineConfig#getMaxNotificationUpdateRate()} times per second, see
+ * {@link UpdateThrottle}.</p>
+ *
+ * <p>While the service is alive, operations with short delays are held by an
+ * {@link InMemoryScheduler} that is ticked on the engine thread only while it is not empty. Operations
+ * with delays longer than {@link EngineConfig#getMaxInMemoryDelay()} are handed to the configured
+ * {@link Scheduler} backend, WorkManager by default, which outlives the process. That choice and
+ * the answering of the operations are made by an {@link OperationLifecycle}, the one the scheduler
+ * simulation runs too.</p>
+ *
+ * <p>Results computed elsewhere in the process are pushed through a {@link ResultChannel} that is
+ * drained on the engine thread while the service is alive, intents are only used to start a service
+ * that isn't running.</p>
+ *
+ * <p>Every submitted, answered and cancelled operation is recorded in an {@link OperationJournal},
+ * which is replayed when the service is created, so the pending operations and the results survive
+ * the process being killed. The replayed operations are then reconciled with the outstanding
+ * WorkManager work in one query: undelivered results are collected, the operations whose end time
+ * passed while the service was down are evaluated at once, in batches of
+ * {@link #OVERDUE_BATCH_SIZE}, and the others are scheduled again unless their work is still
+ * enqueued. The journal is compacted in the background, at startup and while the service runs,
+ * once most of its records are about answered or cancelled operations.</p>
+ *
+ * <p>With {@link EngineConfig.ResultsStorage#MAPPED_FILE} the results are kept in a
+ * {@link MappedResultsStore} that survives the process by itself, only the pending operations are
+ * then rebuilt from the journal. With {@link EngineConfig.ResultsStorage#RING} only the newest
+ * results within the memory budget are kept in memory, the older ones are spilled to a file or
+ * dropped, and the ring is shrunk by {@link #onTrimMemory(int)}.</p>
  */
 public class MathEngineService extends Service {
-    private static final String ARITHMETIC_WORK_TAG = "ARITHMETIC_WORK_TAG";
+    private static final String TAG = "MathEngineService";
     private static final int NOTIFICATION_ID = 1;
+    private static final String JOURNAL_FILE_NAME = "operations.journal";
+    private static final String RESULTS_FILE_NAME = "results.store";
+    private static final String RESULTS_SPILL_FILE_NAME = "results.spill";
+    private static final String EVENTS_FILE_NAME = "engine-events.bin";
+    // The asynchronous trace section from the delivery of an intent to its engine command.
+    private static final String INTENT_SECTION = "MathEngineService.intent";
+
+    /**
+     * The min number of results kept in memory after {@link #onTrimMemory(int)}.
+     */
+    @VisibleForTesting
+    static final int MIN_RESULTS_IN_MEMORY = 256;
+
+    /**
+     * The max number of overdue operations evaluated in one engine command after a restart.
+     */
+    @VisibleForTesting
+    static final int OVERDUE_BATCH_SIZE = 1024;
+
+    /**
+     * The max time {@link #onDestroy()} waits for the engine thread to close the state, so a new
+     * instance never shares it with the previous one.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 2000;
 
     private static final String PACKAGE_NAME = BuildConfig.APPLICATION_ID;
     private static final String ACTION_CALCULATE = PACKAGE_NAME + ".engine.action.CALCULATE";
+    private static final String ACTION_CALCULATE_BATCH =
+            PACKAGE_NAME + ".engine.action.CALCULATE_BATCH";
     private static final String ACTION_RESULT = PACKAGE_NAME + ".engine.action.RESULT";
+    private static final String ACTION_RESULT_BATCH = PACKAGE_NAME + ".engine.action.RESULT_BATCH";
 
     @VisibleForTesting
     static final String ACTION_CANCEL_ALL = PACKAGE_NAME + ".engine.action.CANCEL_ALL";
 
     private static final String KEY_MATH_QUESTION = "KEY_MATH_QUESTION";
+    private static final String KEY_MATH_QUESTION_BATCH = "KEY_MATH_QUESTION_BATCH";
     private static final String KEY_OPERATION_ID = "KEY_OPERATION_ID";
     private static final String KEY_RESULT = "KEY_RESULT";
+    private static final String KEY_OPERATION_IDS = "KEY_OPERATION_IDS";
+    private static final String KEY_RESULTS = "KEY_RESULTS";
+
+    /**
+     * The max number of questions sent in one intent, about 200KB once parcelled, which keeps every
+     * transaction well below the 1MB binder buffer that is shared by the whole process.
+     */
+    @VisibleForTesting
+    static final int MAX_BATCH_SIZE = 8 * 1024;
+
+    // The number of engine events printed by dump(), unless given with --events.
+    private static final int DUMP_EVENT_COUNT = 50;
+    private static final long NO_DEADLINE = -1;
+
+    // Shared by the workers and the live service instance, they always run in the same process.
+    private static final ResultChannel RESULT_CHANNEL = new ResultChannel();
 
     private final IBinder mBinder = new LocalBinder();
-    private final List<Listener> mListeners = new ArrayList<>();
+    // Recorded from both threads, see EngineMetrics and EventRing.
+    private final EngineMetrics mMetrics = EngineMetrics.getDefault();
+    private final EventRing mEvents = EventRing.getDefault();
 
-    private WorkManager mWorkManager;
+    // Main thread state.
+    private final List<Listener> mListeners = new ArrayList<>();
+    // The listeners waiting for their snapshot, see addListener().
+    private final List<Listener> mConnectingListeners = new ArrayList<>();
     private Handler mMainThreadHandler;
-    private List<Operation> mPendingOperations;
-    private List<MathAnswer> mResults;
+    private Results mResultsView = new ResultsStore().snapshot();
+    private int mPendingCount;
+    // The engine state printed by dump(), as of the last update.
+    private long mOldestDeadline = NO_DEADLINE;
+    private long mNextTimerTick = NO_DEADLINE;
+    private long mResultsMemoryUsage;
+    private UpdateThrottle mNotificationThrottle;
+    private boolean mDestroyed;
+
+    // Engine thread state, only touched by the commands posted to the loop.
+    private EngineLoop mEngineLoop;
+    private PendingOperations mPendingOperations;
+    private MutableResults mResults;
+    // The max number of results held in memory by a ring and the dropped results already notified.
+    private int mResultsInMemory;
+    private long mNotifiedDroppedCount;
+    private EngineConfig mEngineConfig;
+    private Clock mClock;
+    private InMemoryScheduler mInMemoryScheduler;
+    private Scheduler mScheduler;
+    private OperationLifecycle mLifecycle;
+    private WorkRecordManager mWorkRecords;
+    private boolean mTimerTickScheduled;
+
+    private ExecutorService mJournalExecutor;
+    @Nullable
+    private OperationJournal mJournal;
+
+    // Restart recovery, see reconcile().
+    private long mRecoveryStartTime;
+    private List<Operation> mRecoveredOperations = Collections.emptyList();
+    // The operations of the WorkManager requests, as recorded in the journal.
+    private Map<UUID, long[]> mRecoveredWork = new HashMap<>();
+    private final List<Operation> mOverdueOperations = new ArrayList<>();
+    private int mOverdueEvaluated;
+    private int mRecoveredPendingCount;
+    private int mRecoveredResultCount;
+    private int mRescheduledCount;
+    private int mCancelledWorkCount;
+    @Nullable
+    private volatile RecoveryStats mRecoveryStats;
+
+    // The changes not yet posted to the main thread.
+    private List<Operation> mAddedOperations = new ArrayList<>();
+    private List<Operation> mAnsweredOperations = new ArrayList<>();
+    private int mAppendedResults;
+    private boolean mChanged;
 
     private NotificationActionsReceiver mNotificationActionsReceiver;
     private NotificationCompat.Builder mNotificationBuilder;
@@ -64,9 +215,15 @@ public class MathEngineService extends Service {
     @Nullable
     private SimpleCountingIdlingResource mIdlingResource;
 
+    /**
+     * Notified on the main thread about every change, the lists are immutable.
+     */
     interface Listener {
-        void onResultsChanged();
-        void onPendingOperationsChanged();
+        default void onConnected(@NonNull List<Operation> pending, @NonNull Results results) { }
+        void onPendingOperationsAdded(@NonNull List<Operation> added);
+        void onPendingOperationsRemoved(@NonNull List<Operation> removed);
+        void onResultsInserted(int positionStart, int itemCount);
+        default void onResultsRemoved(int positionStart, int itemCount) { }
         default void onNotificationActionCancelAllClick() { }
     }
 
@@ -74,11 +231,32 @@ public class MathEngineService extends Service {
     public void onCreate() {
         super.onCreate();
 
-        mWorkManager = WorkManager.getInstance(getApplicationContext());
         mMainThreadHandler = new Handler(Looper.getMainLooper());
-        mPendingOperations = new ArrayList<>();
-        mResults = new ArrayList<>();
+        mEngineLoop = new EngineLoop(TAG, this::onEngineIdle);
+        mPendingOperations = new PendingOperations();
         mIdlingResource = ((App)getApplication()).getIdlingResource();
+        mEngineConfig = ((App)getApplication()).getEngineConfig();
+        mClock = ((App)getApplication()).getClock();
+        mNotificationThrottle = new UpdateThrottle(mEngineConfig.getMaxNotificationUpdateRate());
+        mInMemoryScheduler = new InMemoryScheduler(mEngineConfig.getTimerTick(),
+                mEngineConfig.getTimerWheelSize(), mClock.currentTimeMillis(),
+                mTimerExpiryListener);
+        mWorkRecords = new WorkRecordManager(this);
+        mScheduler = Schedulers.create(this, mEngineConfig, mInMemoryScheduler, mWorkRecords,
+                mWorkListener, mClock);
+        mJournalExecutor = Executors.newSingleThreadExecutor();
+        mRecoveryStartTime = mClock.currentTimeMillis();
+        mEngineLoop.post(() -> {
+            mResults = createResults();
+            mLifecycle = new OperationLifecycle(mEngineConfig, mClock, mPendingOperations,
+                    mResults, mInMemoryScheduler, mScheduler, mMetrics, this::onOperationAnswered);
+            recoverFromJournal();
+            mNotifiedDroppedCount = mResults.getDroppedCount();
+            mAppendedResults = mResults.size();
+            mChanged = true;
+            RESULT_CHANNEL.attach(() -> mEngineLoop.post(mDrainResults));
+        });
+        mEngineLoop.start();
 
         mNotificationActionsReceiver = new NotificationActionsReceiver();
         IntentFilter filter = new IntentFilter();
@@ -102,19 +280,42 @@ public class MathEngineService extends Service {
                 .setPriority(NotificationCompat.PRIORITY_LOW)
                 .addAction(createCancelAllAction());
 
+        updateNotificationContent(0, 0);
         startForeground(NOTIFICATION_ID, mNotificationBuilder.build());
+        mWorkRecords.getOutstandingWork(
+                workInfos -> mEngineLoop.post(() -> reconcile(workInfos)));
+        mWorkRecords.start();
     }
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
+        // The extras are unparcelled on the engine thread.
         if (intent != null && ACTION_CALCULATE.equals(intent.getAction())) {
-            MathQuestion mathQuestion = intent.getParcelableExtra(KEY_MATH_QUESTION);
-            handleMathQuestion(mathQuestion);
+            postIntentCommand(startId, () -> {
+                ParcelableMathQuestion parcelable = intent.getParcelableExtra(KEY_MATH_QUESTION);
+                handleMathQuestion(parcelable.getMathQuestion());
+            });
+        }
+        else if (intent != null && ACTION_CALCULATE_BATCH.equals(intent.getAction())) {
+            postIntentCommand(startId, () -> {
+                ParcelableMathQuestionBatch parcelable =
+                        intent.getParcelableExtra(KEY_MATH_QUESTION_BATCH);
+                handleMathQuestionBatch(parcelable.getBatch());
+            });
         }
         else if (intent != null && ACTION_RESULT.equals(intent.getAction())) {
-            String operationId = intent.getStringExtra(KEY_OPERATION_ID);
-            String result = intent.getStringExtra(KEY_RESULT);
-            handleResult(operationId, result);
+            postIntentCommand(startId, () -> {
+                long operationId = intent.getLongExtra(KEY_OPERATION_ID, Operation.NO_ID);
+                double result = intent.getDoubleExtra(KEY_RESULT, Double.NaN);
+                handleResult(operationId, result);
+            });
+        }
+        else if (intent != null && ACTION_RESULT_BATCH.equals(intent.getAction())) {
+            postIntentCommand(startId, () -> {
+                long[] operationIds = intent.getLongArrayExtra(KEY_OPERATION_IDS);
+                double[] results = intent.getDoubleArrayExtra(KEY_RESULTS);
+                handleResults(operationIds, results);
+            });
         }
         else {
             startForeground(NOTIFICATION_ID, mNotificationBuilder.build());
@@ -123,13 +324,150 @@ public class MathEngineService extends Service {
         return START_STICKY;
     }
 
+    // Runs the command of an intent on the engine thread, traced from the intent delivery.
+    private void postIntentCommand(int startId, @NonNull Runnable command) {
+        EngineTrace.beginAsyncSection(INTENT_SECTION, startId);
+        mEngineLoop.post(() -> {
+            EngineTrace.endAsyncSection(INTENT_SECTION, startId);
+            command.run();
+        });
+    }
+
     @Override
     public void onDestroy() {
+        mDestroyed = true;
+        mMainThreadHandler.removeCallbacks(mDeferredNotificationUpdate);
         unregisterReceiver(mNotificationActionsReceiver);
-        mWorkManager.cancelAllWorkByTag(ARITHMETIC_WORK_TAG);
+        mWorkRecords.stop();
+        mEngineLoop.post(() -> {
+            RESULT_CHANNEL.detach();
+            cancelAllScheduled();
+            if (mJournal != null && !mPendingOperations.isEmpty()) {
+                // Nothing answers them any more, unlike when the process is killed.
+                mJournal.cancelAll();
+            }
+            closeJournal();
+            mJournalExecutor.shutdown();
+            mResults.close();
+        });
+        mEngineLoop.quit();
+        try {
+            if (!mEngineLoop.awaitTermination(SHUTDOWN_TIMEOUT)) {
+                Log.w(TAG, "The engine thread is still running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
         super.onDestroy();
     }
 
+    /**
+     * Prints the engine state for {@code adb shell dumpsys activity service MathEngineService},
+     * {@code --events <count>} sets the number of engine events printed, {@code --export-events}
+     * also writes all the events held by the ring to a file, see {@link EventRingFile}, and
+     * {@code --tracing on|off} switches the trace sections, see {@link EngineTrace}.
+     *
+     * <p>Runs on the main thread and only reads the state published by the engine thread with the
+     * last update, the thread safe statistics and the event ring, so the engine keeps running.</p>
+     */
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        long now = mClock.currentTimeMillis();
+        int eventCount = DUMP_EVENT_COUNT;
+        boolean exportEvents = false;
+        if (args != null) {
+            for (int i = 0; i < args.length; i++) {
+                if ("--events".equals(args[i]) && i + 1 < args.length) {
+                    try {
+                        eventCount = Math.max(0, Integer.parseInt(args[++i]));
+                    } catch (NumberFormatException e) {
+                        writer.println("Invalid event count: " + args[i]);
+                    }
+                } else if ("--export-events".equals(args[i])) {
+                    exportEvents = true;
+                } else if ("--tracing".equals(args[i]) && i + 1 < args.length) {
+                    MathEngine.setTracingEnabled("on".equals(args[++i]));
+                }
+            }
+        }
+        writer.println("MathEngineService:");
+        writer.printf(Locale.US, "  pending=%d, oldest deadline: %s, next timer tick: %s%n",
+                mPendingCount, formatDeadline(mOldestDeadline, now),
+                formatDeadline(mNextTimerTick, now));
+        writer.printf(Locale.US, "  results=%d, memory=%d bytes%n", mResultsView.size(),
+                mResultsMemoryUsage);
+        writer.println("  listeners=" + mListeners.size() + ", tracing="
+                + (EngineTrace.isEnabled() ? "on" : "off"));
+        for (SchedulerStats stats : getSchedulerStats()) {
+            writer.println("  " + stats);
+        }
+        writer.println("  " + getWorkRecordStats());
+        RecoveryStats recoveryStats = mRecoveryStats;
+        if (recoveryStats != null) {
+            writer.println("  " + recoveryStats);
+        }
+        writer.println("  notification updates suppressed="
+                + mNotificationThrottle.getSuppressedCount());
+        EngineMetrics.Snapshot metrics = mMetrics.snapshot(now);
+        writer.println("Metrics:");
+        writer.println("  latency (ms): " + metrics.getLatency());
+        writer.println("  lateness (ms): " + metrics.getLateness());
+        writer.println("  worker (ns): " + metrics.getWorkerExecution());
+        writer.println("  dispatch (ns): " + metrics.getDispatch());
+        writer.printf(Locale.US, "  max pending=%d, results=%d (%.1f/s)%n",
+                metrics.getMaxPendingDepth(), metrics.getResultCount(),
+                metrics.getResultsPerSecond());
+        List<EventRing.Event> events = mEvents.getLatestEvents(eventCount);
+        writer.printf(Locale.US, "Events (%d of %d):%n", events.size(),
+                mEvents.getRecordedCount());
+        for (EventRing.Event event : events) {
+            writer.println("  " + event);
+        }
+        if (exportEvents) {
+            File file = new File(getCacheDir(), EVENTS_FILE_NAME);
+            try {
+                int exported = EventRingFile.export(mEvents, file);
+                writer.printf(Locale.US, "Exported %d events to %s%n", exported, file);
+            } catch (IOException e) {
+                writer.println("Failed to export the events: " + e);
+            }
+        }
+    }
+
+    @NonNull
+    private static String formatDeadline(long deadline, long now) {
+        if (deadline == NO_DEADLINE) {
+            return "none";
+        }
+        return deadline >= now
+                ? String.format(Locale.US, "in %dms", deadline - now)
+                : String.format(Locale.US, "%dms ago", now - deadline);
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (mEngineConfig.getResultsStorage() != EngineConfig.ResultsStorage.RING) {
+            return;
+        }
+        // The UI going away alone isn't memory pressure.
+        int divisor;
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            divisor = 4;
+        } else if (level == ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            divisor = 2;
+        } else {
+            return;
+        }
+        mEngineLoop.post(() -> {
+            mResultsInMemory = Math.max(MIN_RESULTS_IN_MEMORY, mResultsInMemory / divisor);
+            mResults.trimMemory(mResultsInMemory);
+            mChanged = true;
+        });
+    }
+
     @Override
     public IBinder onBind(Intent arg0) {
         return mBinder;
@@ -151,97 +489,630 @@ public class MathEngineService extends Service {
     }
 
     static void calculate(@NonNull Context c, @NonNull MathQuestion mathQuestion) {
-        ContextCompat.startForegroundService(c, createIntent(c, mathQuestion));
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.calculate");
+        try {
+            ContextCompat.startForegroundService(c, createIntent(c, mathQuestion));
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
     }
 
     @VisibleForTesting
     static Intent createIntent(@NonNull Context c, @NonNull MathQuestion mathQuestion) {
         Intent intent = new Intent(c, MathEngineService.class);
         intent.setAction(ACTION_CALCULATE);
-        intent.putExtra(KEY_MATH_QUESTION, mathQuestion);
+        intent.putExtra(KEY_MATH_QUESTION, new ParcelableMathQuestion(mathQuestion));
         return intent;
     }
 
-    static void showResult(@NonNull Context c, String operationId, String result) {
-        Intent intent = new Intent(c, MathEngineService.class);
-        intent.setAction(ACTION_RESULT);
-        intent.putExtra(KEY_OPERATION_ID, operationId);
-        intent.putExtra(KEY_RESULT, result);
-        ContextCompat.startForegroundService(c, intent);
+    static void calculateAll(@NonNull Context c, @NonNull List<MathQuestion> mathQuestions) {
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.calculateAll");
+        try {
+            for (Intent intent : createBatchIntents(c, mathQuestions)) {
+                ContextCompat.startForegroundService(c, intent);
+            }
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
     }
 
+    /**
+     * Packs the questions into one intent per {@link #MAX_BATCH_SIZE} questions.
+     */
+    @VisibleForTesting
+    static List<Intent> createBatchIntents(@NonNull Context c,
+                                           @NonNull List<MathQuestion> mathQuestions) {
+        int size = mathQuestions.size();
+        List<Intent> intents = new ArrayList<>((size + MAX_BATCH_SIZE - 1) / MAX_BATCH_SIZE);
+        for (int from = 0; from < size; from += MAX_BATCH_SIZE) {
+            int to = Math.min(size, from + MAX_BATCH_SIZE);
+            Intent intent = new Intent(c, MathEngineService.class);
+            intent.setAction(ACTION_CALCULATE_BATCH);
+            intent.putExtra(KEY_MATH_QUESTION_BATCH,
+                    new ParcelableMathQuestionBatch(MathQuestionBatch.of(mathQuestions, from, to)));
+            intents.add(intent);
+        }
+        return intents;
+    }
+
+    /**
+     * Hands the result to the service.
+     *
+     * @return {@code true} if the result has been delivered to the live service, {@code false} if
+     * it's on its way to a service that has to be started first.
+     */
+    static boolean showResult(@NonNull Context c, long operationId, double result) {
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.showResult");
+        try {
+            if (RESULT_CHANNEL.offer(operationId, result)) {
+                return true;
+            }
+            Intent intent = new Intent(c, MathEngineService.class);
+            intent.setAction(ACTION_RESULT);
+            intent.putExtra(KEY_OPERATION_ID, operationId);
+            intent.putExtra(KEY_RESULT, result);
+            ContextCompat.startForegroundService(c, intent);
+            return false;
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+    }
+
+    /**
+     * Hands the results to the service, see {@link #showResult(Context, long, double)}.
+     */
+    static boolean showResults(@NonNull Context c, @NonNull long[] operationIds,
+                               @NonNull double[] results) {
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.showResults");
+        try {
+            if (RESULT_CHANNEL.offer(operationIds, results)) {
+                return true;
+            }
+            Intent intent = new Intent(c, MathEngineService.class);
+            intent.setAction(ACTION_RESULT_BATCH);
+            intent.putExtra(KEY_OPERATION_IDS, operationIds);
+            intent.putExtra(KEY_RESULTS, results);
+            ContextCompat.startForegroundService(c, intent);
+            return false;
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+    }
+
+    /**
+     * Adds the listener once the engine thread has taken a snapshot of the state, the listener
+     * receives it in {@link Listener#onConnected(List, Results)} and then every later change.
+     */
     void addListener(@NonNull Listener listener) {
-        mListeners.add(listener);
+        mConnectingListeners.add(listener);
+        mEngineLoop.post(() -> {
+            // The changes made so far are part of the snapshot, they must not be notified again.
+            publishChanges();
+            List<Operation> pending = mPendingOperations.snapshot();
+            Results results = mResults.snapshot();
+            mMainThreadHandler.post(() -> {
+                if (mConnectingListeners.remove(listener)) {
+                    mListeners.add(listener);
+                    listener.onConnected(pending, results);
+                }
+            });
+        });
     }
 
     void removeListener(@NonNull Listener listener) {
+        mConnectingListeners.remove(listener);
         mListeners.remove(listener);
     }
 
+    /**
+     * Returns the number of pending operations, as of the last change notified on the main thread.
+     */
+    int getPendingCount() {
+        return mPendingCount;
+    }
+
+    /**
+     * Returns the operations results, as of the last change notified on the main thread.
+     */
+    @NonNull
+    Results getOperationsResults() {
+        return mResultsView;
+    }
+
     @NonNull
-    List<Operation> getPendingOperations() {
-        return new ArrayList<>(mPendingOperations);
+    List<SchedulerStats> getSchedulerStats() {
+        List<SchedulerStats> stats = new ArrayList<>(3);
+        stats.add(mInMemoryScheduler.getStats());
+        if (mScheduler != mInMemoryScheduler) {
+            stats.addAll(mScheduler.getAllStats());
+        }
+        return stats;
     }
 
     @NonNull
-    List<MathAnswer> getOperationsResults() {
-        return new ArrayList<>(mResults);
+    WorkRecordStats getWorkRecordStats() {
+        return mWorkRecords.getStats();
+    }
+
+    @Nullable
+    RecoveryStats getRecoveryStats() {
+        return mRecoveryStats;
+    }
+
+    long getSuppressedNotificationUpdates() {
+        return mNotificationThrottle.getSuppressedCount();
     }
 
     @VisibleForTesting
-    List<Operation> getPending() {
+    EngineLoop getEngineLoop() {
+        return mEngineLoop;
+    }
+
+    // Engine thread only.
+    @VisibleForTesting
+    PendingOperations getPending() {
         return mPendingOperations;
     }
 
+    // Engine thread only.
     @VisibleForTesting
-    List<MathAnswer> getResults() {
+    MutableResults getResults() {
         return mResults;
     }
 
     private void handleMathQuestion(@NonNull MathQuestion mathQuestion) {
-        long startTime = System.currentTimeMillis();
-        long endTime = startTime + (mathQuestion.getDelayTime() * 1000);
-        Operation operation = new Operation(startTime, endTime, mathQuestion);
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.handleMathQuestion");
+        try {
+            addOperation(mathQuestion, mClock.currentTimeMillis());
+            onOperationsAdded();
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+    }
 
-        mPendingOperations.add(operation);
-        updateNotificationContent();
-        startForeground(NOTIFICATION_ID, mNotificationBuilder.build());
-        for (Listener listener : mListeners) {
-            listener.onPendingOperationsChanged();
+    // Inserts and schedules the whole batch, then notifies once.
+    private void handleMathQuestionBatch(@NonNull MathQuestionBatch batch) {
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.handleMathQuestionBatch");
+        try {
+            long startTime = mClock.currentTimeMillis();
+            for (int i = 0; i < batch.size(); i++) {
+                addOperation(batch.get(i), startTime);
+            }
+            onOperationsAdded();
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+    }
+
+    private void addOperation(@NonNull MathQuestion mathQuestion, long startTime) {
+        Operation operation = mLifecycle.submit(IdGenerator.getDefault().next(), mathQuestion,
+                startTime);
+        mAddedOperations.add(operation);
+        EngineTrace.beginAsyncSection(EngineTrace.OPERATION, operation.getId());
+        if (mJournal != null) {
+            mJournal.submit(operation);
         }
         if (mIdlingResource != null) {
             mIdlingResource.increment();
         }
-        // Enqueue work
-        WorkRequest workRequest = new OneTimeWorkRequest.Builder(ArithmeticWorker.class)
-                .setInputData(ArithmeticWorker.getWorkInputData(operation.getId(), mathQuestion))
-                .setInitialDelay(mathQuestion.getDelayTime(), TimeUnit.SECONDS)
-                .addTag(ARITHMETIC_WORK_TAG)
-                .build();
-        mWorkManager.enqueue(workRequest);
+        mEvents.record(EventRing.SUBMIT, operation.getId(),
+                (int) Math.min(Integer.MAX_VALUE, mathQuestion.getDelayTime()), startTime);
+        mEvents.record(EventRing.SCHEDULE, operation.getId(),
+                mLifecycle.isScheduledInMemory(operation) ? 1 : 0, startTime);
     }
 
-    private void handleResult(String operationId, String result) {
-        Operation operation = findOperation(operationId);
-        if (operation != null) {
-            mResults.add(new MathAnswer(result));
-            mPendingOperations.remove(operation);
-            notifyAndUpdateNotification();
+    private void onOperationsAdded() {
+        mChanged = true;
+        scheduleTimerTick();
+    }
+
+    private void handleResult(long operationId, double result) {
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.handleResult");
+        try {
+            mLifecycle.deliver(operationId, result, mClock.currentTimeMillis());
+            onOperationsAnswered();
+        } finally {
+            EngineTrace.endSection(tracer);
         }
     }
 
-    @Nullable
-    private Operation findOperation(String operationId) {
-        for (Operation operation : mPendingOperations) {
-            if (operation.getId().equals(operationId))
-                return operation;
+    private void handleResults(@Nullable long[] operationIds, @Nullable double[] results) {
+        if (operationIds == null || results == null || operationIds.length != results.length) {
+            return;
+        }
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.handleResults");
+        try {
+            long deliveryTime = mClock.currentTimeMillis();
+            for (int i = 0; i < operationIds.length; i++) {
+                mLifecycle.deliver(operationIds[i], results[i], deliveryTime);
+            }
+            onOperationsAnswered();
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+    }
+
+    private final ResultChannel.Consumer mResultConsumer = (operationId, result) ->
+            mLifecycle.deliver(operationId, result, mClock.currentTimeMillis());
+
+    private final Runnable mDrainResults = new Runnable() {
+        @Override
+        public void run() {
+            Tracer tracer = EngineTrace.beginSection("MathEngineService.drainResults");
+            try {
+                RESULT_CHANNEL.drain(mResultConsumer);
+                onOperationsAnswered();
+            } finally {
+                EngineTrace.endSection(tracer);
+            }
+        }
+    };
+
+    // Invoked by the lifecycle once the result is appended.
+    private void onOperationAnswered(@NonNull Operation operation, double result,
+                                     long answeredTime) {
+        EngineTrace.endAsyncSection(EngineTrace.OPERATION, operation.getId());
+        mEvents.record(EventRing.RESULT, operation.getId(),
+                (int) Math.min(Integer.MAX_VALUE, answeredTime - operation.getEndTime()),
+                answeredTime);
+        mAnsweredOperations.add(operation);
+        mAppendedResults++;
+        if (mJournal != null) {
+            mJournal.complete(operation.getId(), result);
+            compactJournalIfNeeded();
+        }
+    }
+
+    private void onOperationsAnswered() {
+        if (!mAnsweredOperations.isEmpty()) {
+            mChanged = true;
+        }
+    }
+
+    // Invoked by the engine loop once it has run all the queued commands. The operations scheduled
+    // by the whole burst are handed to the scheduler together, so the questions received one by one
+    // in a burst share a work request when they are due in the same coalescing window.
+    private void onEngineIdle() {
+        mScheduler.flush();
+        publishChanges();
+    }
+
+    // Posts the changes made since the last call to the main thread, as a single update.
+    private void publishChanges() {
+        if (!mChanged) {
+            return;
+        }
+        mChanged = false;
+        long dropped = mResults.getDroppedCount() - mNotifiedDroppedCount;
+        mNotifiedDroppedCount += dropped;
+        int size = mResults.size();
+        // Results appended since the last call may have been dropped already.
+        int previousSize = (int) (size - mAppendedResults + dropped);
+        int removedResults = (int) Math.min(dropped, previousSize);
+        Operation oldest = mPendingOperations.peek();
+        Update update = new Update(Collections.unmodifiableList(mAddedOperations),
+                Collections.unmodifiableList(mAnsweredOperations), mResults.snapshot(),
+                removedResults, previousSize - removedResults, mPendingOperations.size(),
+                oldest != null ? oldest.getEndTime() : NO_DEADLINE,
+                mInMemoryScheduler.isEmpty() ? NO_DEADLINE : mInMemoryScheduler.nextTickTime(),
+                mResults.getMemoryUsage());
+        mAddedOperations = new ArrayList<>();
+        mAnsweredOperations = new ArrayList<>();
+        mAppendedResults = 0;
+        mMetrics.recordPendingDepth(update.pendingCount);
+        mMainThreadHandler.post(() -> dispatch(update));
+    }
+
+    private void dispatch(@NonNull Update update) {
+        if (mDestroyed) {
+            return;
+        }
+        mPendingCount = update.pendingCount;
+        mResultsView = update.results;
+        mOldestDeadline = update.oldestDeadline;
+        mNextTimerTick = update.nextTimerTick;
+        mResultsMemoryUsage = update.resultsMemoryUsage;
+        int insertedResults = update.results.size() - update.insertedResultsStart;
+        long dispatchStart = System.nanoTime();
+        Tracer tracer = EngineTrace.beginSection("MathEngineService.dispatch");
+        try {
+            for (Listener listener : mListeners) {
+                if (!update.added.isEmpty()) {
+                    listener.onPendingOperationsAdded(update.added);
+                }
+                if (!update.removed.isEmpty()) {
+                    listener.onPendingOperationsRemoved(update.removed);
+                }
+                if (update.removedResults > 0) {
+                    listener.onResultsRemoved(0, update.removedResults);
+                }
+                if (insertedResults > 0) {
+                    listener.onResultsInserted(update.insertedResultsStart, insertedResults);
+                }
+            }
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+        mMetrics.recordDispatch(System.nanoTime() - dispatchStart);
+        onNotificationContentChanged();
+        if (mIdlingResource != null) {
+            for (int i = 0; i < update.removed.size(); i++) {
+                mIdlingResource.decrement();
+            }
+        }
+    }
+
+    // The mapped store and the ring fall back to the heap if their file can't be created.
+    @NonNull
+    private MutableResults createResults() {
+        try {
+            switch (mEngineConfig.getResultsStorage()) {
+                case EngineConfig.ResultsStorage.MAPPED_FILE:
+                    return new MappedResultsStore(new File(getFilesDir(), RESULTS_FILE_NAME));
+                case EngineConfig.ResultsStorage.RING:
+                    mResultsInMemory = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                            mEngineConfig.getResultsMemoryBudget() / RingResultsStore.RESULT_SIZE));
+                    File spillFile = mEngineConfig.getResultsEviction()
+                            == EngineConfig.ResultsEviction.SPILL_TO_DISK
+                            ? new File(getCacheDir(), RESULTS_SPILL_FILE_NAME) : null;
+                    return new RingResultsStore(mResultsInMemory, spillFile);
+                case EngineConfig.ResultsStorage.IN_MEMORY:
+                default:
+                    break;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot create the results store", e);
+        }
+        return new ResultsStore();
+    }
+
+    // Rebuilds the pending operations and the results, the journal is dropped if it can't be read.
+    // Persistent results are not rebuilt, the journal only keeps the pending operations for them.
+    private void recoverFromJournal() {
+        File file = new File(getFilesDir(), JOURNAL_FILE_NAME);
+        try {
+            mJournal = new OperationJournal(file, mJournalExecutor);
+            mJournal.recover(mJournalVisitor);
+            compactJournalIfNeeded();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot recover from the journal", e);
+            mPendingOperations.clear();
+            if (!mResults.isPersistent()) {
+                mResults.clear();
+            }
+            closeJournal();
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+        mRecoveredOperations = mPendingOperations.snapshot();
+        mRecoveredPendingCount = mRecoveredOperations.size();
+        if (mIdlingResource != null) {
+            for (int i = 0; i < mRecoveredPendingCount; i++) {
+                mIdlingResource.increment();
+            }
+        }
+    }
+
+    /*
+     * Reconciles the replayed operations with the arithmetic work that WorkManager holds, and with
+     * the jobs or alarms the scheduler backend still holds:
+     * - the results of finished work that never reached the service are delivered,
+     * - enqueued work whose operations are all overdue is cancelled, they are evaluated here,
+     * - operations still covered by unfinished work, a job or an alarm are left to it,
+     * - overdue operations are evaluated at once, the others are scheduled again.
+     */
+    private void reconcile(@NonNull List<WorkInfo> workInfos) {
+        long now = mClock.currentTimeMillis();
+        LongObjectMap<Operation> covered = new LongObjectMap<>();
+        for (WorkInfo workInfo : workInfos) {
+            WorkInfo.State state = workInfo.getState();
+            if (state == WorkInfo.State.SUCCEEDED) {
+                mRecoveredResultCount += ArithmeticWorker.readUndeliveredResults(
+                        workInfo.getOutputData(), mResultConsumer);
+            } else if (!state.isFinished()) {
+                List<Operation> operations = new ArrayList<>();
+                boolean overdue = true;
+                long[] operationIds = mRecoveredWork.get(workInfo.getId());
+                if (operationIds != null) {
+                    for (long operationId : operationIds) {
+                        Operation operation = mPendingOperations.find(operationId);
+                        if (operation != null) {
+                            operations.add(operation);
+                            overdue &= operation.getEndTime() <= now;
+                        }
+                    }
+                }
+                if (overdue && state == WorkInfo.State.ENQUEUED) {
+                    // Evaluated below, instead of waking up a worker at boot.
+                    mWorkRecords.cancel(workInfo.getId());
+                    mCancelledWorkCount++;
+                } else {
+                    for (Operation operation : operations) {
+                        covered.put(operation.getId(), operation);
+                    }
+                }
+            }
+        }
+        // Operations submitted since the service was created are already scheduled.
+        for (Operation operation : mRecoveredOperations) {
+            if (mPendingOperations.find(operation.getId()) == null
+                    || covered.containsKey(operation.getId())
+                    || mScheduler.isScheduled(operation)) {
+                continue;
+            }
+            if (operation.getEndTime() <= now) {
+                mOverdueOperations.add(operation);
+            } else {
+                mLifecycle.schedule(operation);
+                mRescheduledCount++;
+            }
+        }
+        mRecoveredOperations = Collections.emptyList();
+        mRecoveredWork = Collections.emptyMap();
+        scheduleTimerTick();
+        onOperationsAnswered();
+        mEngineLoop.post(mEvaluateOverdue);
+    }
+
+    // Evaluates the next batch of overdue operations, so the other commands are never held for long.
+    private final Runnable mEvaluateOverdue = new Runnable() {
+        @Override
+        public void run() {
+            int to = Math.min(mOverdueOperations.size(), mOverdueEvaluated + OVERDUE_BATCH_SIZE);
+            for (int i = mOverdueEvaluated; i < to; i++) {
+                mLifecycle.evaluate(mOverdueOperations.get(i));
+            }
+            mOverdueEvaluated = to;
+            onOperationsAnswered();
+            if (mOverdueEvaluated < mOverdueOperations.size()) {
+                mEngineLoop.post(this);
+                return;
+            }
+            mRecoveryStats = new RecoveryStats(mRecoveredPendingCount, mRecoveredResultCount,
+                    mOverdueOperations.size(), mRescheduledCount, mCancelledWorkCount,
+                    mClock.currentTimeMillis() - mRecoveryStartTime);
+            mOverdueOperations.clear();
+        }
+    };
+
+    private final OperationJournal.Visitor mJournalVisitor = new OperationJournal.Visitor() {
+        @Override
+        public void onSubmitted(@NonNull Operation operation) {
+            mPendingOperations.add(operation);
+            IdGenerator.getDefault().advancePast(operation.getId());
+        }
+
+        @Override
+        public void onCompleted(long operationId, double result) {
+            Operation operation = mPendingOperations.remove(operationId);
+            if (operation != null && !mResults.isPersistent()) {
+                MathQuestion question = operation.getMathQuestion();
+                mResults.add(question.getFirstOperand(), question.getOperator(),
+                        question.getSecondOperand(), result, operation.getEndTime(),
+                        MutableResults.UNKNOWN_TIME);
+            }
+        }
+
+        @Override
+        public void onCancelledAll() {
+            mPendingOperations.clear();
+        }
+
+        @Override
+        public void onWork(@NonNull UUID workId, @NonNull long[] operationIds) {
+            mRecoveredWork.put(workId, operationIds);
+        }
+
+        @Override
+        public void onResult(double firstOperand, @NonNull Operator operator, double secondOperand,
+                             double result) {
+            if (!mResults.isPersistent()) {
+                mResults.add(firstOperand, operator, secondOperand, result,
+                        MutableResults.UNKNOWN_TIME, MutableResults.UNKNOWN_TIME);
+            }
+        }
+    };
+
+    // Invoked on the engine thread, the journal maps the pending operations to their work.
+    private final WorkManagerScheduler.WorkListener mWorkListener =
+            (workId, operations, from, to) -> {
+                if (mJournal != null) {
+                    mJournal.recordWork(workId, operations, from, to);
+                }
+            };
+
+    // Compacts the journal in the background once most of its records no longer affect the state.
+    // Persistent results are not kept by the journal, only the pending operations for them.
+    private void compactJournalIfNeeded() {
+        if (mResults.isPersistent()) {
+            if (mJournal.needsCompaction(mPendingOperations.size())) {
+                mJournal.scheduleCompaction(mPendingOperations.snapshot(), new ResultsStore());
+            }
+        } else if (mJournal.needsCompaction(mPendingOperations.size() + mResults.size())) {
+            mJournal.scheduleCompaction(mPendingOperations.snapshot(), mResults.snapshot());
         }
-        return null;
     }
 
-    private void updateNotificationContent() {
+    private void closeJournal() {
+        if (mJournal == null) {
+            return;
+        }
+        try {
+            mJournal.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot close the journal", e);
+        }
+        mJournal = null;
+    }
+
+    private void scheduleTimerTick() {
+        if (mTimerTickScheduled || mInMemoryScheduler.isEmpty()) {
+            return;
+        }
+        long delay = Math.max(0, mInMemoryScheduler.nextTickTime() - mClock.currentTimeMillis());
+        mEngineLoop.setTimer(mTimerTick, delay);
+        mTimerTickScheduled = true;
+    }
+
+    private void cancelAllScheduled() {
+        mEngineLoop.cancelTimer();
+        mTimerTickScheduled = false;
+        List<Operation> pending = mPendingOperations.snapshot();
+        mEvents.record(EventRing.CANCEL, Operation.NO_ID, pending.size(),
+                mClock.currentTimeMillis());
+        if (EngineTrace.isEnabled()) {
+            for (int i = 0; i < pending.size(); i++) {
+                EngineTrace.endAsyncSection(EngineTrace.OPERATION, pending.get(i).getId());
+            }
+        }
+        mInMemoryScheduler.cancelAll(pending);
+        if (mScheduler != mInMemoryScheduler) {
+            mScheduler.cancelAll(pending);
+        }
+    }
+
+    private final Runnable mTimerTick = new Runnable() {
+        @Override
+        public void run() {
+            mTimerTickScheduled = false;
+            mInMemoryScheduler.advance(mClock.currentTimeMillis());
+            onOperationsAnswered();
+            scheduleTimerTick();
+        }
+    };
+
+    // Answers the expired operations in place, no worker and no intent round trip.
+    private final TimerWheel.Listener<Operation> mTimerExpiryListener =
+            operation -> mLifecycle.evaluate(operation);
+
+    // Shows the latest counts now, or once the throttle allows it.
+    private void onNotificationContentChanged() {
+        long delay = mNotificationThrottle.onChanged(SystemClock.uptimeMillis());
+        if (delay == UpdateThrottle.UPDATE_NOW) {
+            updateNotification();
+        } else if (delay != UpdateThrottle.UPDATE_DEFERRED) {
+            mMainThreadHandler.postDelayed(mDeferredNotificationUpdate, delay);
+        }
+    }
+
+    private final Runnable mDeferredNotificationUpdate = new Runnable() {
+        @Override
+        public void run() {
+            mNotificationThrottle.onDeferredUpdate(SystemClock.uptimeMillis());
+            updateNotification();
+        }
+    };
+
+    private void updateNotification() {
+        updateNotificationContent(mPendingCount, mResultsView.size());
+        startForeground(NOTIFICATION_ID, mNotificationBuilder.build());
+        mEvents.record(EventRing.NOTIFICATION_UPDATE, Operation.NO_ID, mPendingCount,
+                mClock.currentTimeMillis());
+    }
+
+    private void updateNotificationContent(int pendingCount, int resultsCount) {
         String content = getString(
-                R.string.format_pending_finished_operations, mPendingOperations.size(), mResults.size()
+                R.string.format_pending_finished_operations, pendingCount, resultsCount
         );
         mNotificationBuilder
                 .setContentText(content)
@@ -256,18 +1127,33 @@ public class MathEngineService extends Service {
         return new NotificationCompat.Action.Builder(0, actionLabel, pendingIntent).build();
     }
 
-    private void notifyAndUpdateNotification() {
-        mMainThreadHandler.post(() -> {
-            for (Listener listener : mListeners) {
-                listener.onPendingOperationsChanged();
-                listener.onResultsChanged();
-            }
-            updateNotificationContent();
-            startForeground(NOTIFICATION_ID, mNotificationBuilder.build());
-            if (mIdlingResource != null) {
-                mIdlingResource.decrement();
-            }
-        });
+    // The changes made by a burst of engine commands, posted to the main thread at once. Nothing
+    // in it is changed by the engine thread afterwards: the lists are handed over, and the results
+    // snapshot reads the results dropped or cleared since as placeholders (Results.isRetained()).
+    private static final class Update {
+        final List<Operation> added;
+        final List<Operation> removed;
+        final Results results;
+        final int removedResults;
+        final int insertedResultsStart;
+        final int pendingCount;
+        final long oldestDeadline;
+        final long nextTimerTick;
+        final long resultsMemoryUsage;
+
+        Update(List<Operation> added, List<Operation> removed, Results results,
+               int removedResults, int insertedResultsStart, int pendingCount,
+               long oldestDeadline, long nextTimerTick, long resultsMemoryUsage) {
+            this.added = added;
+            this.removed = removed;
+            this.results = results;
+            this.removedResults = removedResults;
+            this.insertedResultsStart = insertedResultsStart;
+            this.pendingCount = pendingCount;
+            this.oldestDeadline = oldestDeadline;
+            this.nextTimerTick = nextTimerTick;
+            this.resultsMemoryUsage = resultsMemoryUsage;
+        }
     }
 
     private final class NotificationActionsReceiver extends BroadcastReceiver {
@@ -279,8 +1165,16 @@ public class MathEngineService extends Service {
                     listener.onNotificationActionCancelAllClick();
                 }
                 stopForeground(true);
-                mWorkManager.cancelAllWorkByTag(ARITHMETIC_WORK_TAG);
-                mPendingOperations.clear();
+                mMainThreadHandler.removeCallbacks(mDeferredNotificationUpdate);
+                mNotificationThrottle.cancel();
+                mEngineLoop.post(() -> {
+                    cancelAllScheduled();
+                    mPendingOperations.clear();
+                    if (mJournal != null) {
+                        mJournal.cancelAll();
+                        compactJournalIfNeeded();
+                    }
+                });
                 stopSelf();
             }
         }
@@ -0,0 +1,54 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import android.content.Context;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.EngineConfig.SchedulerBackend;
+
+/**
+ * Creates the {@link Scheduler} backends.
+ */
+final class Schedulers {
+
+    private Schedulers() { }
+
+    /**
+     * Returns the durable scheduler for the given backend.
+     *
+     * @param context The context
+     * @param config The engine config that picks the backend
+     * @param inMemory The scheduler returned for {@link SchedulerBackend#IN_MEMORY}
+     * @param workRecords Manages the records of the WorkManager requests
+     * @param workListener Receives the operations of every WorkManager request
+     * @param clock The clock the operation end times refer to
+     * @return The scheduler.
+     */
+    @NonNull
+    static Scheduler create(@NonNull Context context, @NonNull EngineConfig config,
+                            @NonNull InMemoryScheduler inMemory,
+                            @NonNull WorkRecordManager workRecords,
+                            @NonNull WorkManagerScheduler.WorkListener workListener,
+                            @NonNull Clock clock) {
+        long coalescingWindow = config.getCoalescingWindow();
+        switch (config.getSchedulerBackend()) {
+            case SchedulerBackend.ALARM_MANAGER:
+                return new AlarmScheduler(context, clock);
+            case SchedulerBackend.JOB_SCHEDULER:
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                    return new JobSchedulerScheduler(context, clock,
+                            new WorkManagerScheduler(context, coalescingWindow, workRecords,
+                                    workListener, clock));
+                }
+                return new WorkManagerScheduler(context, coalescingWindow, workRecords,
+                        workListener, clock);
+            case SchedulerBackend.IN_MEMORY:
+                return inMemory;
+            case SchedulerBackend.WORK_MANAGER:
+            default:
+                return new WorkManagerScheduler(context, coalescingWindow, workRecords,
+                        workListener, clock);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Data;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.WorkRequest;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules {@link ArithmeticWorker} work requests, the work survives the process and device
+ * reboots, but the delays are batched by the system when the device is in Doze.
+ *
+ * <p>Without a coalescing window every operation gets its own work request as soon as it is
+ * scheduled. With a coalescing window the operations are buffered until {@link #flush()}, then the
+ * operations due in the same window share one work request (up to
+ * {@link ArithmeticWorker#MAX_BATCH_SIZE}) that runs at the latest end time of the window, and all
+ * the requests are enqueued in one WorkManager transaction.</p>
+ *
+ * <p>The work requests are enqueued through a {@link WorkRecordManager}, which keeps their records
+ * from piling up in the WorkManager database. Every request has a single tag,
+ * {@link #ARITHMETIC_WORK_TAG}, so the outstanding requests can be read back in one query. Which
+ * operations a request evaluates is reported to the {@link WorkListener}, the engine keeps it in
+ * its journal rather than in the WorkManager database.</p>
+ */
+final class WorkManagerScheduler implements Scheduler {
+    static final String ARITHMETIC_WORK_TAG = "ARITHMETIC_WORK_TAG";
+
+    private final WorkManager mWorkManager;
+    private final WorkRecordManager mWorkRecords;
+    private final WorkListener mWorkListener;
+    private final long mCoalescingWindow;
+    private final Clock mClock;
+    private final SchedulerStats mStats = new SchedulerStats("work-manager");
+
+    // The buffered operations grouped by window index, in scheduling order.
+    private final Map<Long, List<Operation>> mWindows = new LinkedHashMap<>();
+    private int mBufferedCount;
+
+    interface WorkListener {
+        /**
+         * Invoked on the scheduling thread for every work request, before it is enqueued.
+         *
+         * @param workId The id of the work request
+         * @param operations The operations, the request evaluates those in the given range
+         * @param from The index of the first operation
+         * @param to The index after the last operation
+         */
+        void onWorkScheduled(@NonNull UUID workId, @NonNull List<Operation> operations, int from,
+                             int to);
+    }
+
+    WorkManagerScheduler(@NonNull Context context, long coalescingWindow,
+                         @NonNull WorkRecordManager workRecords, @NonNull WorkListener workListener,
+                         @NonNull Clock clock) {
+        mWorkManager = WorkManager.getInstance(context.getApplicationContext());
+        mWorkRecords = workRecords;
+        mWorkListener = workListener;
+        mCoalescingWindow = coalescingWindow;
+        mClock = clock;
+    }
+
+    @Override
+    public void schedule(@NonNull Operation operation) {
+        if (mCoalescingWindow > 0) {
+            // Recorded by flush(), which does the actual work.
+            Long window = operation.getEndTime() / mCoalescingWindow;
+            List<Operation> operations = mWindows.get(window);
+            if (operations == null) {
+                operations = new ArrayList<>();
+                mWindows.put(window, operations);
+            }
+            operations.add(operation);
+            mBufferedCount++;
+            return;
+        }
+        long start = System.nanoTime();
+        Data inputData = ArithmeticWorker.getWorkInputData(operation.getId(),
+                operation.getMathQuestion());
+        mWorkRecords.enqueue(Collections.singletonList(createWorkRequest(inputData,
+                operation.getEndTime(), Collections.singletonList(operation), 0, 1)));
+        mStats.recordSchedule(System.nanoTime() - start);
+    }
+
+    @Override
+    public void flush() {
+        if (mBufferedCount == 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<WorkRequest> workRequests = new ArrayList<>();
+        for (List<Operation> operations : mWindows.values()) {
+            for (int from = 0; from < operations.size(); from += ArithmeticWorker.MAX_BATCH_SIZE) {
+                int to = Math.min(operations.size(), from + ArithmeticWorker.MAX_BATCH_SIZE);
+                long latestEndTime = Long.MIN_VALUE;
+                for (int i = from; i < to; i++) {
+                    latestEndTime = Math.max(latestEndTime, operations.get(i).getEndTime());
+                }
+                Data inputData = ArithmeticWorker.getBatchWorkInputData(operations, from, to);
+                workRequests.add(
+                        createWorkRequest(inputData, latestEndTime, operations, from, to));
+            }
+        }
+        mWorkRecords.enqueue(workRequests);
+        // Spread the enqueue cost over the buffered operations.
+        long nanos = (System.nanoTime() - start) / mBufferedCount;
+        for (int i = 0; i < mBufferedCount; i++) {
+            mStats.recordSchedule(nanos);
+        }
+        mWindows.clear();
+        mBufferedCount = 0;
+    }
+
+    @Override
+    public void cancelAll(@NonNull Collection<Operation> operations) {
+        mWindows.clear();
+        mBufferedCount = 0;
+        mWorkManager.cancelAllWorkByTag(ARITHMETIC_WORK_TAG);
+    }
+
+    @NonNull
+    @Override
+    public SchedulerStats getStats() {
+        return mStats;
+    }
+
+    @NonNull
+    private WorkRequest createWorkRequest(@NonNull Data inputData, long endTime,
+                                          @NonNull List<Operation> operations, int from, int to) {
+        long delay = Math.max(0, endTime - mClock.currentTimeMillis());
+        WorkRequest workRequest = new OneTimeWorkRequest.Builder(ArithmeticWorker.class)
+                .setInputData(inputData)
+                .setInitialDelay(delay, TimeUnit.MILLISECONDS)
+                .addTag(ARITHMETIC_WORK_TAG)
+                .keepResultsForAtLeast(WorkRecordManager.KEEP_RESULTS_DURATION,
+                        TimeUnit.MILLISECONDS)
+                .build();
+        mWorkListener.onWorkScheduled(workRequest.getId(), operations, from, to);
+        return workRequest;
+    }
+}
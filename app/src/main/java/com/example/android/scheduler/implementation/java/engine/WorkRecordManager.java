@@ -0,0 +1,155 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.work.Operation;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.WorkRequest;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages the lifecycle of the WorkManager records of the {@link ArithmeticWorker} requests, so the
+ * WorkManager database (and the cost of every enqueue and query) doesn't grow with the uptime.
+ *
+ * <p>Every work request is finished as soon as its result is delivered, the finished records are
+ * pruned every {@link #PRUNE_INTERVAL} while started, and WorkManager prunes them by itself after
+ * {@link #KEEP_RESULTS_DURATION} otherwise. The enqueue latency and the database size are reported
+ * by {@link #getStats()}.</p>
+ */
+final class WorkRecordManager {
+    @VisibleForTesting
+    static final long PRUNE_INTERVAL = TimeUnit.MINUTES.toMillis(30);
+
+    static final long KEEP_RESULTS_DURATION = TimeUnit.HOURS.toMillis(1);
+
+    // The database of WorkManager 2.x, in the app databases directory.
+    private static final String DATABASE_NAME = "androidx.work.workdb";
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    private final WorkManager mWorkManager;
+    private final File mDatabase;
+    private final Handler mHandler = new Handler(Looper.getMainLooper());
+    private final WorkRecordStats mStats = new WorkRecordStats();
+    private boolean mStarted;
+
+    interface OutstandingWorkCallback {
+        /**
+         * Invoked on a background thread with the arithmetic work, an empty list if it can't be
+         * read.
+         */
+        void onOutstandingWork(@NonNull List<WorkInfo> workInfos);
+    }
+
+    WorkRecordManager(@NonNull Context context) {
+        mWorkManager = WorkManager.getInstance(context.getApplicationContext());
+        mDatabase = context.getApplicationContext().getDatabasePath(DATABASE_NAME);
+    }
+
+    /**
+     * Prunes the finished records now and then every {@link #PRUNE_INTERVAL}.
+     */
+    void start() {
+        if (!mStarted) {
+            mStarted = true;
+            mHandler.post(mPruneTask);
+        }
+    }
+
+    void stop() {
+        mStarted = false;
+        mHandler.removeCallbacks(mPruneTask);
+    }
+
+    /**
+     * Enqueues the work requests in one transaction and records how long it takes to commit it.
+     *
+     * @param workRequests The work requests
+     * @return The enqueue operation
+     */
+    @NonNull
+    Operation enqueue(@NonNull List<? extends WorkRequest> workRequests) {
+        final long start = System.nanoTime();
+        final int count = workRequests.size();
+        Operation operation;
+        Tracer tracer = EngineTrace.beginSection("WorkManager.enqueue");
+        try {
+            operation = mWorkManager.enqueue(workRequests);
+        } finally {
+            EngineTrace.endSection(tracer);
+        }
+        operation.getResult().addListener(
+                () -> mStats.recordEnqueue(System.nanoTime() - start, count), DIRECT_EXECUTOR);
+        return operation;
+    }
+
+    /**
+     * Reads all the arithmetic work records (unfinished, and finished but not pruned yet) in one
+     * query.
+     *
+     * @param callback Receives the records
+     */
+    void getOutstandingWork(@NonNull OutstandingWorkCallback callback) {
+        ListenableFuture<List<WorkInfo>> future =
+                mWorkManager.getWorkInfosByTag(WorkManagerScheduler.ARITHMETIC_WORK_TAG);
+        future.addListener(() -> {
+            List<WorkInfo> workInfos = Collections.emptyList();
+            try {
+                workInfos = future.get();
+            } catch (ExecutionException e) {
+                // Everything is rescheduled.
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            callback.onOutstandingWork(workInfos);
+        }, DIRECT_EXECUTOR);
+    }
+
+    void cancel(@NonNull UUID workId) {
+        mWorkManager.cancelWorkById(workId);
+    }
+
+    /**
+     * Removes the finished records from the database.
+     *
+     * @return The prune operation
+     */
+    @VisibleForTesting
+    @NonNull
+    Operation prune() {
+        Operation operation = mWorkManager.pruneWork();
+        operation.getResult().addListener(
+                () -> mStats.recordPrune(getDatabaseBytes()), DIRECT_EXECUTOR);
+        return operation;
+    }
+
+    @NonNull
+    WorkRecordStats getStats() {
+        return mStats;
+    }
+
+    private long getDatabaseBytes() {
+        return mDatabase.length() + new File(mDatabase.getPath() + "-wal").length();
+    }
+
+    private final Runnable mPruneTask = new Runnable() {
+        @Override
+        public void run() {
+            prune();
+            mHandler.postDelayed(this, PRUNE_INTERVAL);
+        }
+    };
+}
@@ -0,0 +1,66 @@
+package com.example.android.scheduler.implementation.java.engine.data.model;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+
+import static com.example.android.scheduler.implementation.java.util.Preconditions.checkNotNull;
+
+/**
+ * A thin {@link Parcelable} adapter around {@link MathQuestion}, the model itself lives in the
+ * pure-JVM {@code engine-core} module and knows nothing about Android.
+ */
+public final class ParcelableMathQuestion implements Parcelable {
+
+    @NonNull
+    private final MathQuestion mathQuestion;
+
+    public ParcelableMathQuestion(@NonNull MathQuestion mathQuestion) {
+        this.mathQuestion = checkNotNull(mathQuestion);
+    }
+
+    private ParcelableMathQuestion(Parcel in) {
+        double firstOperand = in.readDouble();
+        double secondOperand = in.readDouble();
+        Operator operator = Operator.values()[in.readInt()];
+        long delayTime = in.readLong();
+        mathQuestion = new MathQuestion(firstOperand, secondOperand, operator, delayTime);
+    }
+
+    /**
+     * Returns the wrapped MathQuestion.
+     *
+     * @return The math question.
+     */
+    @NonNull
+    public MathQuestion getMathQuestion() {
+        return mathQuestion;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeDouble(mathQuestion.getFirstOperand());
+        dest.writeDouble(mathQuestion.getSecondOperand());
+        dest.writeInt(mathQuestion.getOperator().ordinal());
+        dest.writeLong(mathQuestion.getDelayTime());
+    }
+
+    public static final Parcelable.Creator<ParcelableMathQuestion> CREATOR =
+            new Parcelable.Creator<ParcelableMathQuestion>() {
+        @Override
+        public ParcelableMathQuestion createFromParcel(Parcel source) {
+            return new ParcelableMathQuestion(source);
+        }
+
+        @Override
+        public ParcelableMathQuestion[] newArray(int size) {
+            return new ParcelableMathQuestion[size];
+        }
+    };
+}
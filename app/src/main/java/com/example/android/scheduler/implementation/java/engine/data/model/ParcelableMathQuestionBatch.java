@@ -0,0 +1,66 @@
+package com.example.android.scheduler.implementation.java.engine.data.model;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+
+import static com.example.android.scheduler.implementation.java.util.Preconditions.checkNotNull;
+
+/**
+ * A thin {@link Parcelable} adapter around {@link MathQuestionBatch}, the questions are written as
+ * four primitive arrays (25 bytes per question).
+ */
+public final class ParcelableMathQuestionBatch implements Parcelable {
+
+    @NonNull
+    private final MathQuestionBatch batch;
+
+    public ParcelableMathQuestionBatch(@NonNull MathQuestionBatch batch) {
+        this.batch = checkNotNull(batch);
+    }
+
+    private ParcelableMathQuestionBatch(Parcel in) {
+        double[] firstOperands = in.createDoubleArray();
+        double[] secondOperands = in.createDoubleArray();
+        byte[] operators = in.createByteArray();
+        long[] delayTimes = in.createLongArray();
+        batch = new MathQuestionBatch(firstOperands, secondOperands, operators, delayTimes);
+    }
+
+    /**
+     * Returns the wrapped MathQuestionBatch.
+     *
+     * @return The math question batch.
+     */
+    @NonNull
+    public MathQuestionBatch getBatch() {
+        return batch;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeDoubleArray(batch.getFirstOperands());
+        dest.writeDoubleArray(batch.getSecondOperands());
+        dest.writeByteArray(batch.getOperators());
+        dest.writeLongArray(batch.getDelayTimes());
+    }
+
+    public static final Parcelable.Creator<ParcelableMathQuestionBatch> CREATOR =
+            new Parcelable.Creator<ParcelableMathQuestionBatch>() {
+        @Override
+        public ParcelableMathQuestionBatch createFromParcel(Parcel source) {
+            return new ParcelableMathQuestionBatch(source);
+        }
+
+        @Override
+        public ParcelableMathQuestionBatch[] newArray(int size) {
+            return new ParcelableMathQuestionBatch[size];
+        }
+    };
+}
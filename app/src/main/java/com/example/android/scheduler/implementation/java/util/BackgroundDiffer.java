@@ -0,0 +1,64 @@
+package com.example.android.scheduler.implementation.java.util;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Calculates {@link DiffUtil} diffs on a background thread shared by all the adapters, and hands
+ * the result back on the main thread, unless {@link #cancel()} has been called in between.
+ *
+ * <p>The lists read by the {@link DiffUtil.Callback} must not be modified until the result is
+ * delivered. Must be used from the main thread.</p>
+ */
+public final class BackgroundDiffer {
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    private final Handler mMainThreadHandler = new Handler(Looper.getMainLooper());
+    private int mGeneration;
+    private boolean mCalculating;
+
+    /**
+     * Receives the diff on the main thread.
+     */
+    public interface Callback {
+        void onDiffCalculated(@NonNull DiffUtil.DiffResult result);
+    }
+
+    /**
+     * Calculates the diff, without detecting moves, the lists are sorted.
+     *
+     * @param diffCallback Compares the old and the new lists
+     * @param callback Receives the diff
+     */
+    public void calculate(@NonNull DiffUtil.Callback diffCallback, @NonNull Callback callback) {
+        int generation = ++mGeneration;
+        mCalculating = true;
+        DIFF_EXECUTOR.execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(diffCallback, false);
+            mMainThreadHandler.post(() -> {
+                if (generation == mGeneration) {
+                    mCalculating = false;
+                    callback.onDiffCalculated(result);
+                }
+            });
+        });
+    }
+
+    /**
+     * Drops the diff being calculated.
+     */
+    public void cancel() {
+        mGeneration++;
+        mCalculating = false;
+    }
+
+    public boolean isCalculating() {
+        return mCalculating;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of evaluating an equation and rendering its result, which is what
+ * {@code ArithmeticWorker.doWork()} does for every question.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ArithmeticBenchmark {
+
+    @Param({"ADD", "SUBTRACT", "MULTIPLY", "DIVIDE"})
+    public Operator operator;
+
+    private double first;
+    private double second;
+    private double result;
+
+    @Setup
+    public void setup() {
+        first = 1234.5678;
+        second = 8.765;
+        result = operator.compute(first, second);
+    }
+
+    @Benchmark
+    public double compute() {
+        return operator.compute(first, second);
+    }
+
+    @Benchmark
+    public String format() {
+        return Arithmetic.format(first, operator, second, result);
+    }
+
+    @Benchmark
+    public String evaluate() {
+        return Arithmetic.evaluate(first, operator, second);
+    }
+}
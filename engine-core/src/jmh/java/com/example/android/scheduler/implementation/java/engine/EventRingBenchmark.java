@@ -0,0 +1,35 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recording an engine event, from one thread and from the engine, the main and the worker
+ * threads at once. It should take tens of nanoseconds and allocate nothing, so the ring can stay on
+ * in release builds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventRingBenchmark {
+    private final EventRing ring = new EventRing(4096);
+    private long operationId;
+
+    @Benchmark
+    public void record() {
+        ring.record(EventRing.RESULT, operationId++, 0, System.currentTimeMillis());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        ring.record(EventRing.RESULT, 1L, 0, System.currentTimeMillis());
+    }
+}
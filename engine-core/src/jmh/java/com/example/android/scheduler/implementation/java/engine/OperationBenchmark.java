@@ -0,0 +1,31 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of creating an operation, which is dominated by generating its id.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OperationBenchmark {
+
+    private final MathQuestion mathQuestion = new MathQuestion(1, 2, Operator.ADD, 10);
+
+    @Benchmark
+    public Operation newOperation() {
+        long startTime = System.currentTimeMillis();
+        return new Operation(startTime, startTime + 10_000, mathQuestion);
+    }
+}
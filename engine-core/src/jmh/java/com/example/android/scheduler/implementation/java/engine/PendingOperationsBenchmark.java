@@ -0,0 +1,69 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import com.example.android.scheduler.implementation.java.engine.data.PendingOperations;
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures looking up and completing a pending operation by id, which the service does for every
+ * result. Both should stay flat as the number of pending operations grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PendingOperationsBenchmark {
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int pendingCount;
+
+    private PendingOperations pending;
+    private Operation[] operations;
+    private long[] ids;
+    private int next;
+
+    @Setup
+    public void setup() {
+        pending = new PendingOperations();
+        operations = new Operation[pendingCount];
+        ids = new long[pendingCount];
+        MathQuestion mathQuestion = new MathQuestion(1, 2, Operator.ADD, 10);
+        for (int i = 0; i < pendingCount; i++) {
+            Operation operation = new Operation(i, i + 10_000, mathQuestion);
+            pending.add(operation);
+            operations[i] = operation;
+            ids[i] = operation.getId();
+        }
+    }
+
+    @Benchmark
+    public Operation find() {
+        long id = ids[next];
+        next = (next + 1) % ids.length;
+        return pending.find(id);
+    }
+
+    /**
+     * Completes a pending operation (find and remove it by id), then schedules it again so that the
+     * number of pending operations stays the same.
+     */
+    @Benchmark
+    public Operation complete() {
+        int i = next;
+        next = (next + 1) % ids.length;
+        Operation operation = pending.remove(ids[i]);
+        pending.add(operations[i]);
+        return operation;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link ResultFormatter} with the {@code String.format} call it replaces.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ResultFormatterBenchmark {
+    private static final int SIZE = 1024;
+
+    private final double[] firsts = new double[SIZE];
+    private final double[] seconds = new double[SIZE];
+    private final Operator[] operators = new Operator[SIZE];
+    private final double[] results = new double[SIZE];
+
+    private final ResultFormatter formatter = new ResultFormatter();
+    private final StringBuilder builder = new StringBuilder(64);
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        for (int i = 0; i < SIZE; i++) {
+            firsts[i] = (random.nextDouble() - 0.5) * 2e4;
+            seconds[i] = (random.nextDouble() - 0.5) * 2e4;
+            operators[i] = Operator.values()[random.nextInt(Operator.values().length)];
+            results[i] = operators[i].compute(firsts[i], seconds[i]);
+        }
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        int i = nextIndex();
+        return String.format(Locale.US, "%.2f %s %.2f = %.2f",
+                firsts[i], operators[i].symbol(), seconds[i], results[i]);
+    }
+
+    @Benchmark
+    public String resultFormatter() {
+        int i = nextIndex();
+        return formatter.format(firsts[i], operators[i], seconds[i], results[i]);
+    }
+
+    @Benchmark
+    public int resultFormatterNoString() {
+        int i = nextIndex();
+        builder.setLength(0);
+        return ResultFormatter.appendResult(builder, firsts[i], operators[i], seconds[i], results[i])
+                .length();
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (SIZE - 1);
+        return next;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures scheduling into and expiring from the timer wheel that holds the short-delay operations.
+ * Both should stay flat as the number of scheduled operations grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TimerWheelBenchmark {
+    private static final long TICK = 100;
+    private static final int WHEEL_SIZE = 512;
+    // Spread the deadlines over ten minutes, the default in-memory horizon.
+    private static final int HORIZON = 600_000;
+
+    @Param({"1000", "10000", "100000"})
+    public int scheduledCount;
+
+    private TimerWheel<Long> wheel;
+    private long now;
+    private Random random;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+        wheel = new TimerWheel<>(TICK, WHEEL_SIZE, 0);
+        for (int i = 0; i < scheduledCount; i++) {
+            long deadline = random.nextInt(HORIZON);
+            wheel.schedule(deadline, deadline);
+        }
+    }
+
+    /**
+     * Schedules an operation and cancels it, the number of scheduled operations stays the same.
+     */
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        return wheel.cancel(wheel.schedule(now, now + random.nextInt(HORIZON)));
+    }
+
+    /**
+     * Advances the wheel by one tick and schedules as many operations as expired, so that the
+     * number of scheduled operations stays the same.
+     */
+    @Benchmark
+    public int tick(final Blackhole blackhole) {
+        now += TICK;
+        int expired = wheel.advance(now, new TimerWheel.Listener<Long>() {
+            @Override
+            public void onExpired(Long item) {
+                blackhole.consume(item);
+            }
+        });
+        for (int i = 0; i < expired; i++) {
+            long deadline = now + random.nextInt(HORIZON);
+            wheel.schedule(deadline, deadline);
+        }
+        return expired;
+    }
+}
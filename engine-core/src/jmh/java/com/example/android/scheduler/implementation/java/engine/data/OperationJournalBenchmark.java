@@ -0,0 +1,102 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rebuilding the engine state from the journal, as done when the service is restarted
+ * after the process has been killed. Every other operation has been answered.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OperationJournalBenchmark {
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+            command.run();
+        }
+    };
+
+    @Param({"10000", "100000"})
+    public int operationCount;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("operations", ".journal");
+        MathQuestion question = new MathQuestion(3, 2, Operator.MULTIPLY, 60);
+        try (OperationJournal journal = new OperationJournal(file, DIRECT)) {
+            for (int i = 0; i < operationCount; i++) {
+                Operation operation = new Operation(i, i + 60_000, question);
+                journal.submit(operation);
+                if (i % 2 == 0) {
+                    journal.complete(operation.getId(), 6);
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    @Benchmark
+    public int recover() throws IOException {
+        final PendingOperations pending = new PendingOperations();
+        final ResultsStore results = new ResultsStore();
+        try (OperationJournal journal = new OperationJournal(file, DIRECT)) {
+            journal.recover(new OperationJournal.Visitor() {
+                @Override
+                public void onSubmitted(@NonNull Operation operation) {
+                    pending.add(operation);
+                }
+
+                @Override
+                public void onCompleted(long operationId, double result) {
+                    Operation operation = pending.remove(operationId);
+                    if (operation != null) {
+                        MathQuestion question = operation.getMathQuestion();
+                        results.add(question.getFirstOperand(), question.getOperator(),
+                                question.getSecondOperand(), result, operation.getEndTime(),
+                                MutableResults.UNKNOWN_TIME);
+                    }
+                }
+
+                @Override
+                public void onCancelledAll() {
+                    pending.clear();
+                }
+
+                @Override
+                public void onResult(double firstOperand, @NonNull Operator operator,
+                                     double secondOperand, double result) {
+                    results.add(firstOperand, operator, secondOperand, result,
+                            MutableResults.UNKNOWN_TIME, MutableResults.UNKNOWN_TIME);
+                }
+            });
+        }
+        return pending.size() + results.size();
+    }
+}
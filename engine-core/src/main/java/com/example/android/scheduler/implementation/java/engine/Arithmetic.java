@@ -0,0 +1,67 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+/**
+ * Evaluates math questions and renders their results as text.
+ */
+public final class Arithmetic {
+    // Workers run on a thread pool, so each thread gets its own formatter and buffer.
+    private static final ThreadLocal<ResultFormatter> FORMATTER = new ThreadLocal<ResultFormatter>() {
+        @Override
+        protected ResultFormatter initialValue() {
+            return new ResultFormatter();
+        }
+    };
+
+    private Arithmetic() { }
+
+    /**
+     * Evaluates the math question and returns the result in the following format
+     * {@literal "1.00 + 2.00 = 3.00"}.
+     *
+     * @param mathQuestion The math question
+     * @return The formatted result
+     */
+    @NonNull
+    public static String evaluate(@NonNull MathQuestion mathQuestion) {
+        return evaluate(
+                mathQuestion.getFirstOperand(),
+                mathQuestion.getOperator(),
+                mathQuestion.getSecondOperand()
+        );
+    }
+
+    /**
+     * Evaluates the equation and returns the result in the following format
+     * {@literal "1.00 + 2.00 = 3.00"}.
+     *
+     * @param first The first operand
+     * @param operator The operator
+     * @param second The second operand
+     * @return The formatted result
+     */
+    @NonNull
+    public static String evaluate(double first, @NonNull Operator operator, double second) {
+        return format(first, operator, second, operator.compute(first, second));
+    }
+
+    /**
+     * Renders an already evaluated equation in the following format
+     * {@literal "1.00 + 2.00 = 3.00"}, same as {@code "%.2f %s %.2f = %.2f"}.
+     *
+     * @param first The first operand
+     * @param operator The operator
+     * @param second The second operand
+     * @param result The result of the equation
+     * @return The formatted result
+     */
+    @NonNull
+    public static String format(double first, @NonNull Operator operator, double second,
+                                double result) {
+        return FORMATTER.get().format(first, operator, second, result);
+    }
+}
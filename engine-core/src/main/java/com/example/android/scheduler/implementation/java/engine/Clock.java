@@ -0,0 +1,25 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+/**
+ * The source of the current time used by the engine, so the scheduling logic can run against a
+ * virtual time in tests and simulations, see
+ * {@link com.example.android.scheduler.implementation.java.engine.simulation.VirtualClock}.
+ */
+public interface Clock {
+    /**
+     * The wall clock, {@link System#currentTimeMillis()}.
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    /**
+     * Returns the current time.
+     *
+     * @return The current time in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+}
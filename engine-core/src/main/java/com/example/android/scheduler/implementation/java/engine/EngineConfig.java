@@ -0,0 +1,370 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.VisibleForTesting;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class encapsulates the tuning properties of the math engine.
+ *
+ * <p>Use its nested {@link EngineConfig.Builder} builder class to construct new instances.
+ */
+public final class EngineConfig {
+    @IntDef({
+            SchedulerBackend.WORK_MANAGER,
+            SchedulerBackend.ALARM_MANAGER,
+            SchedulerBackend.JOB_SCHEDULER,
+            SchedulerBackend.IN_MEMORY
+    })
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface SchedulerBackend {
+        /** Durable, batched by the system in Doze. */
+        int WORK_MANAGER = 0;
+        /** Exact, even in Doze, for latency-critical questions. */
+        int ALARM_MANAGER = 1;
+        /** Durable, skips the WorkManager database (API 21+, WorkManager below). */
+        int JOB_SCHEDULER = 2;
+        /** Nothing survives the process. */
+        int IN_MEMORY = 3;
+    }
+
+    @IntDef({
+            ResultsStorage.IN_MEMORY,
+            ResultsStorage.MAPPED_FILE,
+            ResultsStorage.RING
+    })
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface ResultsStorage {
+        /** On the heap, rebuilt from the operations journal after a restart. */
+        int IN_MEMORY = 0;
+        /** In a memory-mapped file, flat heap usage and survives the process. */
+        int MAPPED_FILE = 1;
+        /** On the heap, the newest results within the memory budget, the older ones are evicted. */
+        int RING = 2;
+    }
+
+    @IntDef({
+            ResultsEviction.SPILL_TO_DISK,
+            ResultsEviction.DROP
+    })
+    @Retention(RetentionPolicy.SOURCE)
+    public @interface ResultsEviction {
+        /** The evicted results are moved to a file and can still be read. */
+        int SPILL_TO_DISK = 0;
+        /** The evicted results are removed. */
+        int DROP = 1;
+    }
+
+    @SchedulerBackend private final int schedulerBackend;
+    private final long timerTick;
+    private final int timerWheelSize;
+    private final long maxInMemoryDelay;
+    private final long coalescingWindow;
+    @ResultsStorage private final int resultsStorage;
+    private final long resultsMemoryBudget;
+    @ResultsEviction private final int resultsEviction;
+    private final int maxNotificationUpdateRate;
+
+    private EngineConfig(Builder builder) {
+        schedulerBackend = builder.schedulerBackend;
+        timerTick = builder.timerTick;
+        timerWheelSize = builder.timerWheelSize;
+        maxInMemoryDelay = builder.maxInMemoryDelay;
+        coalescingWindow = builder.coalescingWindow;
+        resultsStorage = builder.resultsStorage;
+        resultsMemoryBudget = builder.resultsMemoryBudget;
+        resultsEviction = builder.resultsEviction;
+        maxNotificationUpdateRate = builder.maxNotificationUpdateRate;
+    }
+
+    /**
+     * Returns the backend that schedules the operations with delays longer than
+     * {@link #getMaxInMemoryDelay()}.
+     *
+     * @return The scheduler backend.
+     */
+    @SchedulerBackend
+    public int getSchedulerBackend() {
+        return schedulerBackend;
+    }
+
+    /**
+     * Returns the resolution (in milliseconds) of the in-memory timer, an operation is answered at
+     * most one tick after its end time.
+     *
+     * @return The timer tick (in milliseconds).
+     */
+    public long getTimerTick() {
+        return timerTick;
+    }
+
+    /**
+     * Returns the number of buckets of the in-memory timer wheel.
+     *
+     * @return The timer wheel size.
+     */
+    public int getTimerWheelSize() {
+        return timerWheelSize;
+    }
+
+    /**
+     * Returns the longest delay (in milliseconds) that is scheduled in memory, operations with
+     * longer delays are handed to the {@link #getSchedulerBackend() scheduler backend}.
+     *
+     * @return The max in-memory delay (in milliseconds).
+     */
+    public long getMaxInMemoryDelay() {
+        return maxInMemoryDelay;
+    }
+
+    /**
+     * Returns the coalescing window (in milliseconds) of the WorkManager backend, operations due in
+     * the same window are answered by one work request at the latest end time of the window. Zero
+     * means one work request per operation.
+     *
+     * @return The coalescing window (in milliseconds).
+     */
+    public long getCoalescingWindow() {
+        return coalescingWindow;
+    }
+
+    /**
+     * Returns where the operations results are kept.
+     *
+     * @return The results storage.
+     */
+    @ResultsStorage
+    public int getResultsStorage() {
+        return resultsStorage;
+    }
+
+    /**
+     * Returns the memory (in bytes) the results may use with {@link ResultsStorage#RING}.
+     *
+     * @return The results memory budget (in bytes).
+     */
+    public long getResultsMemoryBudget() {
+        return resultsMemoryBudget;
+    }
+
+    /**
+     * Returns what happens to the results evicted from the memory budget with
+     * {@link ResultsStorage#RING}.
+     *
+     * @return The results eviction policy.
+     */
+    @ResultsEviction
+    public int getResultsEviction() {
+        return resultsEviction;
+    }
+
+    /**
+     * Returns the max number of foreground notification updates per second, the changes made in
+     * between are coalesced into the next update.
+     *
+     * @return The max notification update rate (per second).
+     */
+    public int getMaxNotificationUpdateRate() {
+        return maxNotificationUpdateRate;
+    }
+
+    /**
+     * Builds instances of {@link EngineConfig}.
+     */
+    @SuppressWarnings("unused")
+    public static class Builder {
+        @SchedulerBackend
+        @VisibleForTesting
+        static final int DEFAULT_SCHEDULER_BACKEND = SchedulerBackend.WORK_MANAGER;
+
+        @VisibleForTesting
+        static final long DEFAULT_TIMER_TICK = 100;
+
+        @VisibleForTesting
+        static final int DEFAULT_TIMER_WHEEL_SIZE = 512;
+
+        @VisibleForTesting
+        static final long DEFAULT_MAX_IN_MEMORY_DELAY = TimeUnit.MINUTES.toMillis(10);
+
+        @VisibleForTesting
+        static final long DEFAULT_COALESCING_WINDOW = 0;
+
+        @ResultsStorage
+        @VisibleForTesting
+        static final int DEFAULT_RESULTS_STORAGE = ResultsStorage.IN_MEMORY;
+
+        @VisibleForTesting
+        static final long DEFAULT_RESULTS_MEMORY_BUDGET = 1024 * 1024;
+
+        @ResultsEviction
+        @VisibleForTesting
+        static final int DEFAULT_RESULTS_EVICTION = ResultsEviction.SPILL_TO_DISK;
+
+        // Below the rate at which the system starts dropping the updates of an app.
+        @VisibleForTesting
+        static final int DEFAULT_MAX_NOTIFICATION_UPDATE_RATE = 4;
+
+        // Optional parameters - initialized to default values
+        @SchedulerBackend private int schedulerBackend = DEFAULT_SCHEDULER_BACKEND;
+        private long timerTick = DEFAULT_TIMER_TICK;
+        private int timerWheelSize = DEFAULT_TIMER_WHEEL_SIZE;
+        private long maxInMemoryDelay = DEFAULT_MAX_IN_MEMORY_DELAY;
+        private long coalescingWindow = DEFAULT_COALESCING_WINDOW;
+        @ResultsStorage private int resultsStorage = DEFAULT_RESULTS_STORAGE;
+        private long resultsMemoryBudget = DEFAULT_RESULTS_MEMORY_BUDGET;
+        @ResultsEviction private int resultsEviction = DEFAULT_RESULTS_EVICTION;
+        private int maxNotificationUpdateRate = DEFAULT_MAX_NOTIFICATION_UPDATE_RATE;
+
+        public Builder() {
+        }
+
+        /**
+         * Specifies the backend that schedules the operations with delays longer than the max
+         * in-memory delay.
+         *
+         * @param schedulerBackend The scheduler backend
+         * @return The builder instance.
+         */
+        public Builder setSchedulerBackend(@SchedulerBackend int schedulerBackend) {
+            this.schedulerBackend = schedulerBackend;
+            return this;
+        }
+
+        /**
+         * Specifies the resolution (in milliseconds) of the in-memory timer.
+         *
+         * @param timerTick The timer tick (in milliseconds), positive
+         * @return The builder instance.
+         */
+        public Builder setTimerTick(long timerTick) {
+            this.timerTick = timerTick;
+            return this;
+        }
+
+        /**
+         * Specifies the number of buckets of the in-memory timer wheel.
+         *
+         * @param timerWheelSize The timer wheel size, a power of two up to 2^30
+         * @return The builder instance.
+         */
+        public Builder setTimerWheelSize(int timerWheelSize) {
+            this.timerWheelSize = timerWheelSize;
+            return this;
+        }
+
+        /**
+         * Specifies the longest delay (in milliseconds) that is scheduled in memory, a negative value
+         * schedules every operation with the scheduler backend.
+         *
+         * @param maxInMemoryDelay The max in-memory delay (in milliseconds)
+         * @return The builder instance.
+         */
+        public Builder setMaxInMemoryDelay(long maxInMemoryDelay) {
+            this.maxInMemoryDelay = maxInMemoryDelay;
+            return this;
+        }
+
+        /**
+         * Specifies the coalescing window (in milliseconds) of the WorkManager backend, zero
+         * disables the coalescing.
+         *
+         * @param coalescingWindow The coalescing window (in milliseconds), not negative
+         * @return The builder instance.
+         */
+        public Builder setCoalescingWindow(long coalescingWindow) {
+            this.coalescingWindow = coalescingWindow;
+            return this;
+        }
+
+        /**
+         * Specifies where the operations results are kept.
+         *
+         * @param resultsStorage The results storage
+         * @return The builder instance.
+         */
+        public Builder setResultsStorage(@ResultsStorage int resultsStorage) {
+            this.resultsStorage = resultsStorage;
+            return this;
+        }
+
+        /**
+         * Specifies the memory (in bytes) the results may use with {@link ResultsStorage#RING}.
+         *
+         * @param resultsMemoryBudget The results memory budget (in bytes), positive
+         * @return The builder instance.
+         */
+        public Builder setResultsMemoryBudget(long resultsMemoryBudget) {
+            this.resultsMemoryBudget = resultsMemoryBudget;
+            return this;
+        }
+
+        /**
+         * Specifies what happens to the results evicted from the memory budget with
+         * {@link ResultsStorage#RING}.
+         *
+         * @param resultsEviction The results eviction policy
+         * @return The builder instance.
+         */
+        public Builder setResultsEviction(@ResultsEviction int resultsEviction) {
+            this.resultsEviction = resultsEviction;
+            return this;
+        }
+
+        /**
+         * Specifies the max number of foreground notification updates per second.
+         *
+         * @param maxNotificationUpdateRate The max notification update rate (per second), at least
+         * one
+         * @return The builder instance.
+         */
+        public Builder setMaxNotificationUpdateRate(int maxNotificationUpdateRate) {
+            this.maxNotificationUpdateRate = maxNotificationUpdateRate;
+            return this;
+        }
+
+        /**
+         * Returns new instance of EngineConfig.
+         *
+         * @return new instance of EngineConfig.
+         * @throws IllegalArgumentException if a property is out of its range, see the setters
+         */
+        public EngineConfig build() {
+            if (schedulerBackend < SchedulerBackend.WORK_MANAGER
+                    || schedulerBackend > SchedulerBackend.IN_MEMORY) {
+                throw new IllegalArgumentException("Invalid scheduler backend: "
+                        + schedulerBackend);
+            }
+            if (timerTick <= 0) {
+                throw new IllegalArgumentException("The timer tick must be positive: " + timerTick);
+            }
+            if (timerWheelSize <= 0 || timerWheelSize > (1 << 30)
+                    || Integer.bitCount(timerWheelSize) != 1) {
+                throw new IllegalArgumentException("The timer wheel size must be a power of two up "
+                        + "to 2^30: " + timerWheelSize);
+            }
+            if (coalescingWindow < 0) {
+                throw new IllegalArgumentException("The coalescing window can not be negative: "
+                        + coalescingWindow);
+            }
+            if (resultsStorage < ResultsStorage.IN_MEMORY || resultsStorage > ResultsStorage.RING) {
+                throw new IllegalArgumentException("Invalid results storage: " + resultsStorage);
+            }
+            if (resultsMemoryBudget <= 0) {
+                throw new IllegalArgumentException("The results memory budget must be positive: "
+                        + resultsMemoryBudget);
+            }
+            if (resultsEviction < ResultsEviction.SPILL_TO_DISK
+                    || resultsEviction > ResultsEviction.DROP) {
+                throw new IllegalArgumentException("Invalid results eviction: " + resultsEviction);
+            }
+            if (maxNotificationUpdateRate < 1) {
+                throw new IllegalArgumentException("The max notification update rate must be at "
+                        + "least one: " + maxNotificationUpdateRate);
+            }
+            return new EngineConfig(this);
+        }
+    }
+}
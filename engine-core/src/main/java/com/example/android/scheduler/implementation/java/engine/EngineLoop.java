@@ -0,0 +1,188 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A dedicated thread that owns the engine state: every change of the state is a command posted to
+ * the loop, and the commands run one at a time on the loop thread, in the order they were posted,
+ * so the state needs no locks.
+ *
+ * <p>Commands are posted from any thread to a lock-free multi-producer single-consumer queue, the
+ * loop thread is unparked only when it is waiting, so a burst of commands costs a single wakeup.
+ * When the queue is empty the idle handler runs once before waiting, that's where the changes made
+ * by a whole burst are published. A single timer runs a task at a given time on the loop thread.</p>
+ *
+ * <p>{@link #setTimer(Runnable, long)} and {@link #cancelTimer()} must be called from the loop
+ * thread only.</p>
+ */
+public final class EngineLoop {
+    private final Thread thread;
+    @Nullable
+    private final Runnable idleHandler;
+    private final AtomicReference<Node> tail;
+    private final AtomicBoolean waiting = new AtomicBoolean();
+    private volatile boolean quitting;
+    // Only touched by the loop thread.
+    private Node head;
+    @Nullable
+    private Runnable timerTask;
+    private long timerDeadlineNanos;
+
+    /**
+     * Creates a loop, call {@link #start()} to run the commands.
+     *
+     * @param name The name of the loop thread
+     * @param idleHandler Invoked on the loop thread every time the queue has been emptied, or
+     * {@code null}
+     */
+    public EngineLoop(@NonNull String name, @Nullable Runnable idleHandler) {
+        this.idleHandler = idleHandler;
+        head = new Node(null);
+        tail = new AtomicReference<>(head);
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                loop();
+            }
+        }, name);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Queues the command, it runs after the commands posted before.
+     *
+     * @param command The command
+     * @return {@code false} if the loop is quitting, in that case the command is dropped.
+     */
+    public boolean post(@NonNull Runnable command) {
+        if (quitting) {
+            return false;
+        }
+        Node node = new Node(command);
+        Node previous = tail.getAndSet(node);
+        previous.next = node;
+        if (waiting.get()) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    /**
+     * Runs the commands already posted and then stops the loop, the timer is cancelled and the
+     * commands posted afterwards are dropped.
+     */
+    public void quit() {
+        quitting = true;
+        LockSupport.unpark(thread);
+    }
+
+    public boolean isLoopThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Runs the task on the loop thread after the given delay, instead of the task set before.
+     *
+     * @param task The task
+     * @param delayMillis The delay in milliseconds, the task runs after the queued commands if it
+     * isn't positive
+     */
+    public void setTimer(@NonNull Runnable task, long delayMillis) {
+        timerTask = task;
+        timerDeadlineNanos =
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMillis));
+    }
+
+    public void cancelTimer() {
+        timerTask = null;
+    }
+
+    /**
+     * Waits for the loop thread to stop, after {@link #quit()}.
+     *
+     * @param timeoutMillis The max time to wait in milliseconds
+     * @return {@code true} if the loop thread has stopped.
+     */
+    public boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        thread.join(timeoutMillis);
+        return !thread.isAlive();
+    }
+
+    private void loop() {
+        while (true) {
+            runCommands();
+            if (quitting) {
+                // Commands linked before quit() returned are still run.
+                if (runCommands() == 0) {
+                    break;
+                }
+                continue;
+            }
+            if (runTimer()) {
+                continue;
+            }
+            if (idleHandler != null) {
+                idleHandler.run();
+            }
+            // A producer that links a node after this point sees the flag and unparks the thread.
+            waiting.set(true);
+            if (head.next == null && !quitting) {
+                if (timerTask == null) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = timerDeadlineNanos - System.nanoTime();
+                    if (remaining > 0) {
+                        LockSupport.parkNanos(this, remaining);
+                    }
+                }
+            }
+            waiting.set(false);
+        }
+        timerTask = null;
+    }
+
+    private int runCommands() {
+        int count = 0;
+        Node next;
+        while ((next = head.next) != null) {
+            head = next;
+            Runnable command = next.command;
+            // The consumed node becomes the new stub, drop its command.
+            next.command = null;
+            //noinspection ConstantConditions
+            command.run();
+            count++;
+        }
+        return count;
+    }
+
+    private boolean runTimer() {
+        Runnable task = timerTask;
+        if (task == null || timerDeadlineNanos - System.nanoTime() > 0) {
+            return false;
+        }
+        timerTask = null;
+        task.run();
+        return true;
+    }
+
+    private static final class Node {
+        @Nullable
+        Runnable command;
+        @Nullable
+        volatile Node next;
+
+        Node(@Nullable Runnable command) {
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records how the engine behaves under load: the latency from the submission of an operation to
+ * its result, the lateness of the results, the execution time of the workers and of the listener
+ * dispatch, the depth of the pending operations and the results rate.
+ *
+ * <p>The recorders are lock-free and don't allocate, see {@link Histogram} and
+ * {@link RateCounter}, so the engine records every operation. The service and the workers of a
+ * process record into {@link #getDefault()}, {@link #snapshot(long)} is read from any thread.</p>
+ */
+public final class EngineMetrics {
+    // The number of complete seconds the results rate is averaged over.
+    private static final int RATE_WINDOW_SECONDS = 10;
+
+    private static final EngineMetrics DEFAULT = new EngineMetrics();
+
+    private final Histogram latency = new Histogram();
+    private final Histogram lateness = new Histogram();
+    private final Histogram workerExecution = new Histogram();
+    private final Histogram dispatch = new Histogram();
+    private final RateCounter results = new RateCounter();
+    private final AtomicLong pendingDepth = new AtomicLong();
+    private final AtomicLong maxPendingDepth = new AtomicLong();
+
+    /**
+     * Returns the metrics of the engine of this process.
+     *
+     * @return The default metrics.
+     */
+    @NonNull
+    public static EngineMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Records the answer of one operation.
+     *
+     * @param startTime The time the operation was submitted in milliseconds
+     * @param endTime The end time of the operation in milliseconds
+     * @param answeredTime The time the result was added in milliseconds
+     */
+    public void recordResult(long startTime, long endTime, long answeredTime) {
+        latency.record(answeredTime - startTime);
+        lateness.record(answeredTime - endTime);
+        results.record(1, answeredTime);
+    }
+
+    /**
+     * Records the time a worker took to evaluate its operations.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void recordWorkerExecution(long nanos) {
+        workerExecution.record(nanos);
+    }
+
+    /**
+     * Records the time the listeners took to handle one update.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void recordDispatch(long nanos) {
+        dispatch.record(nanos);
+    }
+
+    /**
+     * Records the current number of pending operations.
+     *
+     * @param depth The number of pending operations
+     */
+    public void recordPendingDepth(int depth) {
+        pendingDepth.set(depth);
+        long current = maxPendingDepth.get();
+        while (depth > current && !maxPendingDepth.compareAndSet(current, depth)) {
+            current = maxPendingDepth.get();
+        }
+    }
+
+    /**
+     * Returns a copy of the metrics.
+     *
+     * @param now The current time in milliseconds
+     * @return The snapshot.
+     */
+    @NonNull
+    public Snapshot snapshot(long now) {
+        return new Snapshot(latency.snapshot(), lateness.snapshot(), workerExecution.snapshot(),
+                dispatch.snapshot(), pendingDepth.get(), maxPendingDepth.get(), results.getTotal(),
+                results.getRate(now, RATE_WINDOW_SECONDS));
+    }
+
+    /**
+     * The engine metrics at some point, immutable.
+     */
+    public static final class Snapshot {
+        @NonNull
+        private final Histogram.Snapshot latency;
+        @NonNull
+        private final Histogram.Snapshot lateness;
+        @NonNull
+        private final Histogram.Snapshot workerExecution;
+        @NonNull
+        private final Histogram.Snapshot dispatch;
+        private final long pendingDepth;
+        private final long maxPendingDepth;
+        private final long resultCount;
+        private final double resultsPerSecond;
+
+        Snapshot(@NonNull Histogram.Snapshot latency, @NonNull Histogram.Snapshot lateness,
+                 @NonNull Histogram.Snapshot workerExecution, @NonNull Histogram.Snapshot dispatch,
+                 long pendingDepth, long maxPendingDepth, long resultCount,
+                 double resultsPerSecond) {
+            this.latency = latency;
+            this.lateness = lateness;
+            this.workerExecution = workerExecution;
+            this.dispatch = dispatch;
+            this.pendingDepth = pendingDepth;
+            this.maxPendingDepth = maxPendingDepth;
+            this.resultCount = resultCount;
+            this.resultsPerSecond = resultsPerSecond;
+        }
+
+        /**
+         * Returns the time from the submission of an operation to its result.
+         *
+         * @return The latency histogram (in milliseconds).
+         */
+        @NonNull
+        public Histogram.Snapshot getLatency() {
+            return latency;
+        }
+
+        /**
+         * Returns the time from the end time of an operation to its result, early results count as
+         * zero.
+         *
+         * @return The lateness histogram (in milliseconds).
+         */
+        @NonNull
+        public Histogram.Snapshot getLateness() {
+            return lateness;
+        }
+
+        /**
+         * Returns the time the workers took to evaluate their operations.
+         *
+         * @return The worker execution histogram (in nanoseconds).
+         */
+        @NonNull
+        public Histogram.Snapshot getWorkerExecution() {
+            return workerExecution;
+        }
+
+        /**
+         * Returns the time the listeners took to handle an update.
+         *
+         * @return The dispatch histogram (in nanoseconds).
+         */
+        @NonNull
+        public Histogram.Snapshot getDispatch() {
+            return dispatch;
+        }
+
+        public long getPendingDepth() {
+            return pendingDepth;
+        }
+
+        public long getMaxPendingDepth() {
+            return maxPendingDepth;
+        }
+
+        public long getResultCount() {
+            return resultCount;
+        }
+
+        /**
+         * Returns the results rate over the last complete seconds.
+         *
+         * @return The number of results per second.
+         */
+        public double getResultsPerSecond() {
+            return resultsPerSecond;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "latency (ms): %s%nlateness (ms): %s%nworker (ns): %s%ndispatch (ns): %s%n"
+                            + "pending=%d (max %d), results=%d (%.1f/s)",
+                    latency, lateness, workerExecution, dispatch, pendingDepth, maxPendingDepth,
+                    resultCount, resultsPerSecond);
+        }
+    }
+}
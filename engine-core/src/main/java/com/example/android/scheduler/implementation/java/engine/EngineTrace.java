@@ -0,0 +1,110 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * The trace sections of the scheduling pipeline, written to the {@link Tracer} that is set, from
+ * the submission of an operation to its result being shown.
+ *
+ * <p>Tracing is switched at runtime with {@link #setTracer(Tracer)}, while no tracer is set every
+ * call is a volatile read, the section names are constants so nothing is allocated either way. A
+ * synchronous section is used as follows, so that it is ended even if the tracer is changed
+ * meanwhile:</p>
+ *
+ * <pre>
+ * Tracer tracer = EngineTrace.beginSection("Section");
+ * try {
+ *     ...
+ * } finally {
+ *     EngineTrace.endSection(tracer);
+ * }
+ * </pre>
+ *
+ * <p>The asynchronous sections of an operation are keyed by its id, see {@link #cookie(long)}.</p>
+ */
+public final class EngineTrace {
+    /** The asynchronous section of an operation, from its submission to its result. */
+    public static final String OPERATION = "Operation";
+
+    @Nullable
+    private static volatile Tracer current;
+
+    private EngineTrace() { }
+
+    /**
+     * Sets the tracer the sections are written to.
+     *
+     * @param tracer The tracer, or {@code null} to disable tracing
+     */
+    public static void setTracer(@Nullable Tracer tracer) {
+        current = tracer;
+    }
+
+    public static boolean isEnabled() {
+        return current != null;
+    }
+
+    /**
+     * Begins a synchronous section on the current thread.
+     *
+     * @param name The section name
+     * @return The tracer that must end the section, {@code null} if tracing is disabled.
+     */
+    @Nullable
+    public static Tracer beginSection(@NonNull String name) {
+        Tracer tracer = current;
+        if (tracer != null) {
+            tracer.beginSection(name);
+        }
+        return tracer;
+    }
+
+    /**
+     * Ends the section begun by {@link #beginSection(String)}.
+     *
+     * @param tracer The tracer it returned
+     */
+    public static void endSection(@Nullable Tracer tracer) {
+        if (tracer != null) {
+            tracer.endSection();
+        }
+    }
+
+    /**
+     * Begins an asynchronous section, of an operation for instance.
+     *
+     * @param name The section name
+     * @param id The id of what the section is about, the operation id for instance
+     */
+    public static void beginAsyncSection(@NonNull String name, long id) {
+        Tracer tracer = current;
+        if (tracer != null) {
+            tracer.beginAsyncSection(name, cookie(id));
+        }
+    }
+
+    /**
+     * Ends an asynchronous section, possibly on another thread.
+     *
+     * @param name The section name
+     * @param id The id the section was begun with
+     */
+    public static void endAsyncSection(@NonNull String name, long id) {
+        Tracer tracer = current;
+        if (tracer != null) {
+            tracer.endAsyncSection(name, cookie(id));
+        }
+    }
+
+    /**
+     * Returns the cookie of the asynchronous sections with the given id, the operation ids are
+     * sequential so the low bits are unique among the operations in flight.
+     *
+     * @param id The id
+     * @return The cookie.
+     */
+    public static int cookie(long id) {
+        return (int) (id ^ (id >>> 32));
+    }
+}
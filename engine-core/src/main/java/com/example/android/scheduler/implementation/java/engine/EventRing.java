@@ -0,0 +1,210 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size ring of the latest engine events, to tell what the engine did recently.
+ *
+ * <p>{@link #record(int, long, int, long)} is lock-free and doesn't allocate, an event is four
+ * longs of a preallocated array: its sequence number, the time, the operation id and the type with
+ * an argument. The oldest events are overwritten. A writer claims its slot by swapping the sequence
+ * number for a busy marker, an event whose slot is still being written by a writer a whole ring
+ * behind is dropped instead of waiting. An event being overwritten while it is read is detected by
+ * its sequence number and skipped.</p>
+ *
+ * <p>Recording costs a few atomic operations, so the engine records in release builds too, see
+ * {@link EventRingFile} to export the events.</p>
+ */
+public final class EventRing {
+    /** An operation was submitted, the argument is its delay in seconds. */
+    public static final int SUBMIT = 1;
+    /** An operation was handed to a scheduler, the argument is 1 for the in-memory scheduler. */
+    public static final int SCHEDULE = 2;
+    /** The result of an operation was delivered, the argument is its lateness in milliseconds. */
+    public static final int RESULT = 3;
+    /** The pending operations were cancelled, the argument is their number. */
+    public static final int CANCEL = 4;
+    /**
+     * A worker started, the operation id is the first one of its batch and the argument the number
+     * of operations.
+     */
+    public static final int WORKER_START = 5;
+    /** A worker ended, the argument is its execution time in microseconds. */
+    public static final int WORKER_END = 6;
+    /** The foreground notification was updated, the argument is the number of pending operations. */
+    public static final int NOTIFICATION_UPDATE = 7;
+
+    private static final String[] TYPE_NAMES = {"?", "submit", "schedule", "result", "cancel",
+            "worker start", "worker end", "notification"};
+
+    // The longs of an event: sequence, time, operation id, type << 32 | argument.
+    private static final int STRIDE = 4;
+    private static final long EMPTY = -1;
+    private static final long BUSY = -2;
+    private static final int DEFAULT_CAPACITY = 4096;
+
+    private static final EventRing DEFAULT = new EventRing(DEFAULT_CAPACITY);
+
+    private final AtomicLongArray events;
+    private final AtomicLong sequence = new AtomicLong();
+    private final int mask;
+
+    /**
+     * Creates a ring of the given capacity, rounded up to a power of two.
+     *
+     * @param capacity The number of events kept, at least one
+     */
+    public EventRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 24) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        events = new AtomicLongArray(size * STRIDE);
+        for (int i = 0; i < size; i++) {
+            events.set(i * STRIDE, EMPTY);
+        }
+    }
+
+    /**
+     * Returns the event ring of the engine of this process.
+     *
+     * @return The default ring.
+     */
+    @NonNull
+    public static EventRing getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Records an event, overwriting the oldest one if the ring is full.
+     *
+     * @param type The event type, {@link #SUBMIT} for instance
+     * @param operationId The operation id
+     * @param argument The argument, depends on the type
+     * @param time The time of the event in milliseconds
+     */
+    public void record(int type, long operationId, int argument, long time) {
+        long seq = sequence.getAndIncrement();
+        int base = (int) (seq & mask) * STRIDE;
+        long previous = events.get(base);
+        if (previous == BUSY || previous > seq || !events.compareAndSet(base, previous, BUSY)) {
+            return;
+        }
+        events.lazySet(base + 1, time);
+        events.lazySet(base + 2, operationId);
+        events.lazySet(base + 3, (long) type << 32 | (argument & 0xFFFFFFFFL));
+        events.set(base, seq);
+    }
+
+    /**
+     * Returns the number of events recorded since the ring was created, including the overwritten
+     * ones.
+     *
+     * @return The recorded count.
+     */
+    public long getRecordedCount() {
+        return sequence.get();
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the latest events, oldest first, the events being recorded meanwhile may be missing.
+     *
+     * @param count The max number of events
+     * @return The events.
+     */
+    @NonNull
+    public List<Event> getLatestEvents(int count) {
+        long end = sequence.get();
+        long start = Math.max(0, end - Math.min(count, mask + 1));
+        if (start >= end) {
+            return Collections.emptyList();
+        }
+        List<Event> latest = new ArrayList<>((int) (end - start));
+        for (long seq = start; seq < end; seq++) {
+            int base = (int) (seq & mask) * STRIDE;
+            if (events.get(base) != seq) {
+                continue;
+            }
+            long time = events.get(base + 1);
+            long operationId = events.get(base + 2);
+            long typeAndArgument = events.get(base + 3);
+            if (events.get(base) == seq) {
+                latest.add(new Event(seq, time, (int) (typeAndArgument >>> 32), operationId,
+                        (int) typeAndArgument));
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Returns the name of an event type.
+     *
+     * @param type The event type
+     * @return The name.
+     */
+    @NonNull
+    public static String getTypeName(int type) {
+        return type > 0 && type < TYPE_NAMES.length ? TYPE_NAMES[type] : TYPE_NAMES[0];
+    }
+
+    /**
+     * An event read from the ring, immutable.
+     */
+    public static final class Event {
+        private final long sequence;
+        private final long time;
+        private final int type;
+        private final long operationId;
+        private final int argument;
+
+        public Event(long sequence, long time, int type, long operationId, int argument) {
+            this.sequence = sequence;
+            this.time = time;
+            this.type = type;
+            this.operationId = operationId;
+            this.argument = argument;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public long getTime() {
+            return time;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        public long getOperationId() {
+            return operationId;
+        }
+
+        public int getArgument() {
+            return argument;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "#%d %d %s op=%d arg=%d",
+                    sequence, time, getTypeName(type), operationId, argument);
+        }
+    }
+}
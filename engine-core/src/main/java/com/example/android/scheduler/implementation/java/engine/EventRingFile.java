@@ -0,0 +1,176 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Exports the events of an {@link EventRing} to a file and decodes them back, on the device or on
+ * any JVM, for instance {@code java -cp engine-core.jar <this class> engine-events.bin}.
+ *
+ * <p>The file holds a magic number, a version and the event count, then every event as the
+ * variable-length deltas of its sequence number, time and operation id from the previous event,
+ * its type and its argument. Consecutive events are close in time and in ids, so an event usually
+ * takes 5 to 8 bytes instead of 32 in the ring.</p>
+ */
+public final class EventRingFile {
+    private static final int MAGIC = 0x45565452;
+    private static final int VERSION = 1;
+
+    private EventRingFile() { }
+
+    /**
+     * Writes the events held by the ring to a file, replacing it.
+     *
+     * @param ring The ring
+     * @param file The file
+     * @return The number of events written.
+     * @throws IOException If the file can't be written
+     */
+    public static int export(@NonNull EventRing ring, @NonNull File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            return export(ring, out);
+        }
+    }
+
+    /**
+     * Writes the events held by the ring to a stream, the stream is not closed.
+     *
+     * @param ring The ring
+     * @param out The stream
+     * @return The number of events written.
+     * @throws IOException If the stream can't be written
+     */
+    public static int export(@NonNull EventRing ring, @NonNull OutputStream out)
+            throws IOException {
+        List<EventRing.Event> events = ring.getLatestEvents(ring.getCapacity());
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        writeVarLong(data, events.size());
+        long sequence = 0;
+        long time = 0;
+        long operationId = 0;
+        for (EventRing.Event event : events) {
+            writeVarLong(data, event.getSequence() - sequence);
+            writeVarLong(data, zigZag(event.getTime() - time));
+            writeVarLong(data, zigZag(event.getOperationId() - operationId));
+            data.writeByte(event.getType());
+            writeVarLong(data, zigZag(event.getArgument()));
+            sequence = event.getSequence();
+            time = event.getTime();
+            operationId = event.getOperationId();
+        }
+        data.flush();
+        return events.size();
+    }
+
+    /**
+     * Reads the events of an exported file.
+     *
+     * @param file The file
+     * @return The events, oldest first.
+     * @throws IOException If the file can't be read or isn't an events file
+     */
+    @NonNull
+    public static List<EventRing.Event> decode(@NonNull File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return decode(in);
+        }
+    }
+
+    /**
+     * Reads exported events from a stream, the stream is not closed.
+     *
+     * @param in The stream
+     * @return The events, oldest first.
+     * @throws IOException If the stream can't be read or doesn't hold exported events
+     */
+    @NonNull
+    public static List<EventRing.Event> decode(@NonNull InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an events file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported events file version: " + version);
+        }
+        long count = readVarLong(data);
+        if (count < 0 || count > Integer.MAX_VALUE) {
+            throw new IOException("Invalid event count: " + count);
+        }
+        List<EventRing.Event> events = new ArrayList<>((int) Math.min(count, 1 << 16));
+        long sequence = 0;
+        long time = 0;
+        long operationId = 0;
+        for (long i = 0; i < count; i++) {
+            sequence += readVarLong(data);
+            time += unZigZag(readVarLong(data));
+            operationId += unZigZag(readVarLong(data));
+            int type = data.readUnsignedByte();
+            int argument = (int) unZigZag(readVarLong(data));
+            events.add(new EventRing.Event(sequence, time, type, operationId, argument));
+        }
+        return events;
+    }
+
+    /**
+     * Prints the events of the exported files given as arguments.
+     *
+     * @param args The file paths
+     * @throws IOException If a file can't be decoded
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: EventRingFile <events file>...");
+            System.exit(1);
+        }
+        for (String path : args) {
+            List<EventRing.Event> events = decode(new File(path));
+            System.out.println(path + ": " + events.size() + " events");
+            for (EventRing.Event event : events) {
+                System.out.println(event);
+            }
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length value");
+    }
+}
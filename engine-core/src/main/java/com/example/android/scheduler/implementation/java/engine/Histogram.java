@@ -0,0 +1,153 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A log-linear histogram of non-negative values: the values below 32 have a bucket each, every
+ * higher power of two is split into 32 buckets, so a value is known within about 3% of itself, over
+ * the whole range of {@code long}, with a fixed number of buckets.
+ *
+ * <p>{@link #record(long)} is lock-free and doesn't allocate, it can be called from any thread on
+ * a hot path. {@link #snapshot()} copies the counts, the buckets being recorded meanwhile may or
+ * may not be part of it.</p>
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value, negative values are recorded as zero.
+     *
+     * @param value The value
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns a copy of the recorded values.
+     *
+     * @return The snapshot.
+     */
+    @NonNull
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy, count.get(), sum.get(), max.get());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        // The top SUB_BUCKET_BITS + 1 bits, the first of them is always set.
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return (shift + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    // The highest value of the bucket.
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lower = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * The values recorded by a {@link Histogram} up to some point, immutable.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Returns the average of the recorded values.
+         *
+         * @return The mean, or zero if nothing was recorded.
+         */
+        public double getMean() {
+            return count > 0 ? (double) sum / count : 0;
+        }
+
+        /**
+         * Returns the value that the given percentage of the recorded values doesn't exceed, within
+         * the precision of the buckets.
+         *
+         * @param percentile The percentile, between 0 and 100
+         * @return The value, or zero if nothing was recorded.
+         */
+        public long getValueAtPercentile(double percentile) {
+            long total = 0;
+            for (long bucketCount : counts) {
+                total += bucketCount;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            double clamped = Math.min(100, Math.max(0, percentile));
+            long rank = Math.max(1, (long) Math.ceil(clamped / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "count=%d mean=%.1f p50=%d p90=%d p99=%d max=%d",
+                    count, getMean(), getValueAtPercentile(50), getValueAtPercentile(90),
+                    getValueAtPercentile(99), max);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+
+import java.util.Collection;
+
+/**
+ * A {@link Scheduler} that keeps the operations in a {@link TimerWheel}, nothing survives the
+ * process. The owner drives it by calling {@link #advance(long)} at {@link #nextTickTime()} while
+ * it is not empty, which makes it usable from plain JVM tests and benchmarks too.
+ *
+ * <p>This class is <strong>not thread safe</strong>, it must be driven by a single thread.</p>
+ */
+public final class InMemoryScheduler implements Scheduler {
+    private final TimerWheel<Operation> wheel;
+    private final TimerWheel.Listener<Operation> listener;
+    private final SchedulerStats stats = new SchedulerStats("in-memory");
+
+    // The time passed to the current advance call, used to record the lateness.
+    private long now;
+
+    private final TimerWheel.Listener<Operation> expiryListener =
+            new TimerWheel.Listener<Operation>() {
+        @Override
+        public void onExpired(@NonNull Operation operation) {
+            stats.recordDelivery(operation.getEndTime(), now);
+            listener.onExpired(operation);
+        }
+    };
+
+    /**
+     * Constructor for the InMemoryScheduler.
+     *
+     * @param tickMillis The timer resolution in milliseconds
+     * @param wheelSize The number of buckets of the timer wheel
+     * @param startTime The current time in milliseconds
+     * @param listener Notified about the operations that reached their end time
+     */
+    public InMemoryScheduler(long tickMillis, int wheelSize, long startTime,
+                             @NonNull TimerWheel.Listener<Operation> listener) {
+        wheel = new TimerWheel<>(tickMillis, wheelSize, startTime);
+        this.listener = listener;
+    }
+
+    @Override
+    public void schedule(@NonNull Operation operation) {
+        long start = System.nanoTime();
+        wheel.schedule(operation, operation.getEndTime());
+        stats.recordSchedule(System.nanoTime() - start);
+    }
+
+    @Override
+    public void cancelAll(@NonNull Collection<Operation> operations) {
+        wheel.clear();
+    }
+
+    @NonNull
+    @Override
+    public SchedulerStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Delivers every operation whose end time is due at the given time.
+     *
+     * @param now The current time in milliseconds
+     * @return The number of delivered operations.
+     */
+    public int advance(long now) {
+        this.now = now;
+        return wheel.advance(now, expiryListener);
+    }
+
+    /**
+     * Returns the time (in milliseconds) at which {@link #advance(long)} should be called next.
+     *
+     * @return The next tick time.
+     */
+    public long nextTickTime() {
+        return wheel.nextTickTime();
+    }
+
+    public int size() {
+        return wheel.size();
+    }
+
+    public boolean isEmpty() {
+        return wheel.isEmpty();
+    }
+}
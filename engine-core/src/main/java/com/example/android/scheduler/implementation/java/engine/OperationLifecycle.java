@@ -0,0 +1,156 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.MutableResults;
+import com.example.android.scheduler.implementation.java.engine.data.PendingOperations;
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+
+/**
+ * The scheduling and completion logic of the engine, shared by {@code MathEngineService} and the
+ * {@link com.example.android.scheduler.implementation.java.engine.simulation.SchedulerSimulation}.
+ *
+ * <p>A submitted operation is added to the {@link PendingOperations} and held by the
+ * {@link InMemoryScheduler} up to {@link EngineConfig#getMaxInMemoryDelay()}, or handed to the
+ * backend otherwise. An operation is answered once, either by the result the backend delivers or
+ * by evaluating it here, its result is then appended to the results and recorded in the
+ * {@link EngineMetrics}. The time is read from the given {@link Clock}.</p>
+ *
+ * <p>This class is <strong>not thread safe</strong>, it must be driven by a single thread.</p>
+ */
+public final class OperationLifecycle {
+    private final EngineConfig config;
+    private final Clock clock;
+    private final PendingOperations pending;
+    private final MutableResults results;
+    private final InMemoryScheduler inMemoryScheduler;
+    private final Scheduler backend;
+    private final EngineMetrics metrics;
+    private final Listener listener;
+
+    public interface Listener {
+        /**
+         * Invoked for every answered operation, once its result has been appended.
+         *
+         * @param operation The operation, no longer pending
+         * @param result The result
+         * @param answeredTime The time the result was appended
+         */
+        void onAnswered(@NonNull Operation operation, double result, long answeredTime);
+    }
+
+    /**
+     * Constructor for the OperationLifecycle.
+     *
+     * @param config The engine config, its max in-memory delay picks the scheduler
+     * @param clock The source of the start and answered times
+     * @param pending The pending operations
+     * @param results Receives the results
+     * @param inMemoryScheduler Holds the operations with short delays, its listener is expected to
+     * call {@link #evaluate(Operation)}
+     * @param backend Holds the other operations, it may be the in-memory scheduler too
+     * @param metrics Records the latency and the lateness of the results
+     * @param listener Notified about the answered operations
+     */
+    public OperationLifecycle(@NonNull EngineConfig config, @NonNull Clock clock,
+                              @NonNull PendingOperations pending,
+                              @NonNull MutableResults results,
+                              @NonNull InMemoryScheduler inMemoryScheduler,
+                              @NonNull Scheduler backend, @NonNull EngineMetrics metrics,
+                              @NonNull Listener listener) {
+        this.config = config;
+        this.clock = clock;
+        this.pending = pending;
+        this.results = results;
+        this.inMemoryScheduler = inMemoryScheduler;
+        this.backend = backend;
+        this.metrics = metrics;
+        this.listener = listener;
+    }
+
+    /**
+     * Adds a new pending operation for the question, due after its delay, and schedules it.
+     *
+     * @param id The operation id
+     * @param mathQuestion The question
+     * @param startTime The time the question was received
+     * @return The operation.
+     */
+    @NonNull
+    public Operation submit(long id, @NonNull MathQuestion mathQuestion, long startTime) {
+        Operation operation = new Operation(id, startTime,
+                startTime + mathQuestion.getDelayTime() * 1000, mathQuestion);
+        pending.add(operation);
+        schedule(operation);
+        return operation;
+    }
+
+    /**
+     * Schedules a pending operation with the in-memory scheduler or the backend, see
+     * {@link #isScheduledInMemory(Operation)}.
+     *
+     * @param operation The operation
+     */
+    public void schedule(@NonNull Operation operation) {
+        if (isScheduledInMemory(operation)) {
+            inMemoryScheduler.schedule(operation);
+        } else {
+            backend.schedule(operation);
+        }
+    }
+
+    /**
+     * Returns whether the operation delay is short enough to be held by the in-memory scheduler.
+     *
+     * @param operation The operation
+     * @return {@code true} for the in-memory scheduler, {@code false} for the backend.
+     */
+    public boolean isScheduledInMemory(@NonNull Operation operation) {
+        return operation.getEndTime() - operation.getStartTime() <= config.getMaxInMemoryDelay();
+    }
+
+    /**
+     * Answers a pending operation with the result delivered by the backend.
+     *
+     * @param operationId The operation id
+     * @param result The result
+     * @param deliveryTime The time the result reached the engine
+     * @return {@code false} if the operation is not pending, it's been answered or cancelled.
+     */
+    public boolean deliver(long operationId, double result, long deliveryTime) {
+        Operation operation = pending.remove(operationId);
+        if (operation == null) {
+            return false;
+        }
+        backend.recordDelivery(operation, deliveryTime);
+        append(operation, result);
+        return true;
+    }
+
+    /**
+     * Answers a pending operation by computing its result here, for the operations that expire in
+     * memory and the overdue ones.
+     *
+     * @param operation The operation
+     * @return {@code false} if the operation is not pending, it's been answered or cancelled.
+     */
+    public boolean evaluate(@NonNull Operation operation) {
+        if (!pending.remove(operation)) {
+            return false;
+        }
+        MathQuestion question = operation.getMathQuestion();
+        append(operation, question.getOperator().compute(question.getFirstOperand(),
+                question.getSecondOperand()));
+        return true;
+    }
+
+    private void append(@NonNull Operation operation, double result) {
+        MathQuestion question = operation.getMathQuestion();
+        long answeredTime = clock.currentTimeMillis();
+        results.add(question.getFirstOperand(), question.getOperator(),
+                question.getSecondOperand(), result, operation.getEndTime(), answeredTime);
+        metrics.recordResult(operation.getStartTime(), operation.getEndTime(), answeredTime);
+        listener.onAnswered(operation, result, answeredTime);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts events per second over the last {@value #WINDOW_SECONDS} seconds, in a ring of one
+ * second slots, to report a recent rate instead of an average since the start.
+ *
+ * <p>{@link #record(int, long)} is lock-free and doesn't allocate. A slot is reset by the first
+ * event of its new second, an event recorded by another thread at that very moment may be lost, so
+ * the rate is approximate, the total count is exact.</p>
+ */
+public final class RateCounter {
+    static final int WINDOW_SECONDS = 16;
+
+    private final AtomicLongArray counts = new AtomicLongArray(WINDOW_SECONDS);
+    // The second each slot counts.
+    private final AtomicLongArray seconds = new AtomicLongArray(WINDOW_SECONDS);
+    private final AtomicLong total = new AtomicLong();
+
+    public RateCounter() {
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            seconds.set(i, -1);
+        }
+    }
+
+    /**
+     * Records events.
+     *
+     * @param count The number of events
+     * @param now The current time in milliseconds
+     */
+    public void record(int count, long now) {
+        long second = now / 1000;
+        int slot = (int) (second % WINDOW_SECONDS);
+        long slotSecond = seconds.get(slot);
+        if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+            counts.set(slot, 0);
+        }
+        counts.addAndGet(slot, count);
+        total.addAndGet(count);
+    }
+
+    public long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Returns the average number of events per second over the given number of complete seconds
+     * before the current one.
+     *
+     * @param now The current time in milliseconds
+     * @param windowSeconds The number of seconds, at most {@value #WINDOW_SECONDS} - 1
+     * @return The rate per second.
+     */
+    public double getRate(long now, int windowSeconds) {
+        int window = Math.max(1, Math.min(WINDOW_SECONDS - 1, windowSeconds));
+        long second = now / 1000;
+        long sum = 0;
+        for (long s = second - window; s < second; s++) {
+            if (s < 0) {
+                continue;
+            }
+            int slot = (int) (s % WINDOW_SECONDS);
+            if (seconds.get(slot) == s) {
+                sum += counts.get(slot);
+            }
+        }
+        return (double) sum / window;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+
+/**
+ * Describes how the engine state was rebuilt when the service was (re)started, e.g. after a reboot
+ * or after the process was killed.
+ */
+public final class RecoveryStats {
+    private final int pendingCount;
+    private final int deliveredCount;
+    private final int overdueCount;
+    private final int rescheduledCount;
+    private final int cancelledWorkCount;
+    private final long durationMillis;
+
+    /**
+     * Constructor for the RecoveryStats.
+     *
+     * @param pendingCount The number of pending operations restored
+     * @param deliveredCount The number of results found in the finished work
+     * @param overdueCount The number of operations evaluated at once because their end time passed
+     * @param rescheduledCount The number of operations scheduled again
+     * @param cancelledWorkCount The number of work requests cancelled instead of being run
+     * @param durationMillis The time until the state was rebuilt, in milliseconds
+     */
+    public RecoveryStats(int pendingCount, int deliveredCount, int overdueCount,
+                         int rescheduledCount, int cancelledWorkCount, long durationMillis) {
+        this.pendingCount = pendingCount;
+        this.deliveredCount = deliveredCount;
+        this.overdueCount = overdueCount;
+        this.rescheduledCount = rescheduledCount;
+        this.cancelledWorkCount = cancelledWorkCount;
+        this.durationMillis = durationMillis;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public int getDeliveredCount() {
+        return deliveredCount;
+    }
+
+    public int getOverdueCount() {
+        return overdueCount;
+    }
+
+    public int getRescheduledCount() {
+        return rescheduledCount;
+    }
+
+    public int getCancelledWorkCount() {
+        return cancelledWorkCount;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "recovery: pending=%d, delivered=%d, overdue=%d, rescheduled=%d, "
+                        + "cancelled work=%d in %dms",
+                pendingCount, deliveredCount, overdueCount, rescheduledCount, cancelledWorkCount,
+                durationMillis);
+    }
+}
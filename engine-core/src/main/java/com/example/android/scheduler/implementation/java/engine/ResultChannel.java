@@ -0,0 +1,163 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free multi-producer single-consumer queue of results, used to push the results of the
+ * workers straight to a live consumer in the same process.
+ *
+ * <p>Producers call {@link #offer(long, double)} from any thread. While a consumer is attached
+ * the result is queued, and the {@link Waker} is invoked only when the consumer has no drain
+ * pending, so a burst of results costs a single wakeup. Without a consumer {@code offer} returns
+ * {@code false} and the producer has to deliver the result some other way.</p>
+ *
+ * <p>{@link #attach(Waker)}, {@link #detach()} and {@link #drain(Consumer)} must be called from
+ * the consumer thread only.</p>
+ */
+public final class ResultChannel {
+    private final AtomicReference<Node> tail;
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    // Only touched by the consumer.
+    private Node head;
+
+    @Nullable
+    private volatile Waker waker;
+
+    /**
+     * Invoked by the producers when the consumer should call {@link #drain(Consumer)}.
+     */
+    public interface Waker {
+        void wakeUp();
+    }
+
+    /**
+     * Receives the drained results.
+     */
+    public interface Consumer {
+        void onResult(long operationId, double result);
+    }
+
+    public ResultChannel() {
+        head = new Node(0, 0, null, null);
+        tail = new AtomicReference<>(head);
+    }
+
+    /**
+     * Attaches the consumer, results that were left in the channel are drained on the next wakeup.
+     *
+     * @param waker Invoked when the consumer should drain the channel
+     */
+    public void attach(@NonNull Waker waker) {
+        this.waker = waker;
+        drainRequested.set(true);
+        waker.wakeUp();
+    }
+
+    /**
+     * Detaches the consumer, later offers are rejected.
+     */
+    public void detach() {
+        waker = null;
+    }
+
+    public boolean isAttached() {
+        return waker != null;
+    }
+
+    /**
+     * Queues the result for the attached consumer.
+     *
+     * @param operationId The operation id
+     * @param result The result
+     * @return {@code false} if there is no consumer, in that case the result has to be delivered
+     * some other way.
+     */
+    public boolean offer(long operationId, double result) {
+        return enqueue(new Node(operationId, result, null, null));
+    }
+
+    /**
+     * Queues a batch of results for the attached consumer.
+     *
+     * @param operationIds The operations ids
+     * @param results The results, in the same order
+     * @return {@code false} if there is no consumer, in that case the results have to be delivered
+     * some other way.
+     */
+    public boolean offer(@NonNull long[] operationIds, @NonNull double[] results) {
+        if (operationIds.length != results.length) {
+            throw new IllegalArgumentException("Every operation id needs a result.");
+        }
+        return enqueue(new Node(0, 0, operationIds, results));
+    }
+
+    /**
+     * Hands all the queued results to the consumer.
+     *
+     * @param consumer The consumer
+     * @return The number of results.
+     */
+    public int drain(@NonNull Consumer consumer) {
+        // Reset before polling: a producer that links a node after this point requests a new drain.
+        drainRequested.set(false);
+        int count = 0;
+        Node next;
+        while ((next = head.next) != null) {
+            head = next;
+            if (next.operationIds == null) {
+                consumer.onResult(next.operationId, next.result);
+                count++;
+            } else {
+                for (int i = 0; i < next.operationIds.length; i++) {
+                    consumer.onResult(next.operationIds[i], next.results[i]);
+                }
+                count += next.operationIds.length;
+            }
+            // The consumed node becomes the new stub, drop its payload.
+            next.operationIds = null;
+            next.results = null;
+        }
+        return count;
+    }
+
+    private boolean enqueue(Node node) {
+        if (waker == null) {
+            return false;
+        }
+        Node previous = tail.getAndSet(node);
+        previous.next = node;
+        Waker current = waker;
+        if (current == null) {
+            // Detached meanwhile, the node is drained on the next attach, but the caller has to
+            // deliver it too (the consumer ignores results it already has).
+            return false;
+        }
+        if (drainRequested.compareAndSet(false, true)) {
+            current.wakeUp();
+        }
+        return true;
+    }
+
+    private static final class Node {
+        final long operationId;
+        final double result;
+        @Nullable
+        long[] operationIds;
+        @Nullable
+        double[] results;
+        @Nullable
+        volatile Node next;
+
+        Node(long operationId, double result, @Nullable long[] operationIds,
+             @Nullable double[] results) {
+            this.operationId = operationId;
+            this.result = result;
+            this.operationIds = operationIds;
+            this.results = results;
+        }
+    }
+}
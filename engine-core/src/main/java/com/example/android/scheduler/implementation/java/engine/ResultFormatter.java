@@ -0,0 +1,114 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import java.util.Locale;
+
+/**
+ * Renders equations in the {@literal "%.2f %s %.2f = %.2f"} format without going through
+ * {@link java.util.Formatter}, which parses the pattern, boxes the operands and allocates a new
+ * formatter on every call.
+ *
+ * <p>The output is identical to {@code String.format(Locale.US, "%.2f", value)}, including its
+ * rounding: the formatter rounds <em>half up</em> on the shortest decimal representation of the
+ * double (so {@code 1.005} is rendered as {@code "1.01"} even though the nearest double is slightly
+ * below it), negative values that round to zero keep their sign ({@code "-0.00"}) and
+ * {@code NaN}/{@code Infinity} are rendered the same way.</p>
+ *
+ * <p>An instance owns a reusable buffer and is <strong>not thread safe</strong>, the static
+ * {@code append} methods are.</p>
+ */
+public final class ResultFormatter {
+    /**
+     * Below this magnitude doubles are less than {@code 0.001} apart, so a double is the nearest one
+     * to at most one tie (a value with three decimals ending in 5). Larger values are rare and are
+     * delegated to {@link String#format(Locale, String, Object...)}.
+     */
+    private static final double MAX_FAST_VALUE = 1e12;
+
+    private final StringBuilder buffer = new StringBuilder(64);
+
+    /**
+     * Renders the equation in the following format {@literal "1.00 + 2.00 = 3.00"}.
+     *
+     * @param first The first operand
+     * @param operator The operator
+     * @param second The second operand
+     * @param result The result of the equation
+     * @return The formatted equation
+     */
+    @NonNull
+    public String format(double first, @NonNull Operator operator, double second, double result) {
+        buffer.setLength(0);
+        return appendResult(buffer, first, operator, second, result).toString();
+    }
+
+    /**
+     * Appends the equation in the following format {@literal "1.00 + 2.00 = 3.00"}.
+     *
+     * @param sb The builder to append to
+     * @param first The first operand
+     * @param operator The operator
+     * @param second The second operand
+     * @param result The result of the equation
+     * @return The same builder
+     */
+    @NonNull
+    public static StringBuilder appendResult(@NonNull StringBuilder sb, double first,
+                                             @NonNull Operator operator, double second,
+                                             double result) {
+        appendFixed2(sb, first).append(' ').append(operator.symbol()).append(' ');
+        appendFixed2(sb, second).append(" = ");
+        return appendFixed2(sb, result);
+    }
+
+    /**
+     * Appends the value with exactly two decimals, same as {@literal "%.2f"}.
+     *
+     * @param sb The builder to append to
+     * @param value The value
+     * @return The same builder
+     */
+    @NonNull
+    public static StringBuilder appendFixed2(@NonNull StringBuilder sb, double value) {
+        if (Double.isNaN(value)) {
+            return sb.append("NaN");
+        }
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append('-');
+        }
+        double abs = Math.abs(value);
+        if (Double.isInfinite(abs)) {
+            return sb.append("Infinity");
+        }
+        if (abs >= MAX_FAST_VALUE) {
+            return sb.append(String.format(Locale.US, "%.2f", abs));
+        }
+        long cents = roundHalfUpCents(abs);
+        int fraction = (int) (cents % 100);
+        return sb.append(cents / 100)
+                .append('.')
+                .append((char) ('0' + fraction / 10))
+                .append((char) ('0' + fraction % 10));
+    }
+
+    /**
+     * Returns the value multiplied by 100 and rounded half up, for non negative values below
+     * {@link #MAX_FAST_VALUE}.
+     */
+    private static long roundHalfUpCents(double abs) {
+        double scaled = abs * 100;
+        long floor = (long) scaled;
+        double fraction = scaled - floor;
+        // The product is off by at most half an ulp, so away from the tie it decides the rounding.
+        if (Math.abs(fraction - 0.5) > 2 * Math.ulp(scaled)) {
+            return fraction > 0.5 ? floor + 1 : floor;
+        }
+        // Close to a tie: compare with the double nearest to the tie itself (the division is
+        // correctly rounded). Equal means the shortest representation is the tie, which rounds up.
+        double tie = (2 * floor + 1) / 200.0;
+        return abs >= tie ? floor + 1 : floor;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Schedules operations to be answered once their end time is reached.
+ *
+ * <p>The engine picks the backend per deployment (see {@link EngineConfig#getSchedulerBackend()}),
+ * every backend reports its scheduling overhead and delivery lateness through
+ * {@link #getStats()}.</p>
+ */
+public interface Scheduler {
+
+    /**
+     * Schedules the operation to be answered at its end time.
+     *
+     * @param operation The operation
+     */
+    void schedule(@NonNull Operation operation);
+
+    /**
+     * Returns whether the backend still holds the operation, scheduled by an earlier instance of the
+     * engine, in which case it doesn't have to be scheduled again after a restart.
+     *
+     * @param operation The operation
+     * @return {@code true} if the operation is still scheduled.
+     */
+    default boolean isScheduled(@NonNull Operation operation) {
+        return false;
+    }
+
+    /**
+     * Hands the operations scheduled since the last call over to the backend, backends that buffer
+     * operations to schedule them together do it here. Called once per burst of engine commands.
+     */
+    default void flush() { }
+
+    /**
+     * Cancels the scheduled operations, backends that can cancel everything at once may ignore the
+     * given operations.
+     *
+     * @param operations The operations that are still pending
+     */
+    void cancelAll(@NonNull Collection<Operation> operations);
+
+    /**
+     * Returns the statistics of this scheduler.
+     *
+     * @return The statistics.
+     */
+    @NonNull
+    SchedulerStats getStats();
+
+    /**
+     * Records the delivery of an operation handed to this scheduler, in the statistics of the
+     * backend that actually scheduled it.
+     *
+     * @param operation The delivered operation
+     * @param deliveryTime The time the operation was answered in milliseconds
+     */
+    default void recordDelivery(@NonNull Operation operation, long deliveryTime) {
+        getStats().recordDelivery(operation.getEndTime(), deliveryTime);
+    }
+
+    /**
+     * Returns the statistics of this scheduler followed by the ones of the schedulers it hands
+     * operations over to.
+     *
+     * @return The statistics.
+     */
+    @NonNull
+    default List<SchedulerStats> getAllStats() {
+        return Collections.singletonList(getStats());
+    }
+}
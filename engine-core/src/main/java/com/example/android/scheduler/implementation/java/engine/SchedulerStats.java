@@ -0,0 +1,143 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the scheduling overhead and the delivery lateness of a {@link Scheduler}.
+ *
+ * <p>This class is thread safe, values could be recorded and read from any thread.</p>
+ */
+public final class SchedulerStats {
+    @NonNull
+    private final String name;
+
+    private final AtomicLong scheduledCount = new AtomicLong();
+    private final AtomicLong totalScheduleNanos = new AtomicLong();
+    private final AtomicLong maxScheduleNanos = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong totalLatenessMillis = new AtomicLong();
+    private final AtomicLong maxLatenessMillis = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Constructor for the SchedulerStats.
+     *
+     * @param name The name of the scheduler backend
+     */
+    public SchedulerStats(@NonNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records the time spent scheduling one operation.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void recordSchedule(long nanos) {
+        scheduledCount.incrementAndGet();
+        totalScheduleNanos.addAndGet(nanos);
+        updateMax(maxScheduleNanos, nanos);
+    }
+
+    /**
+     * Records the time spent on an attempt to schedule one operation that the backend refused, the
+     * operation is counted by the scheduler that took it instead.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void recordScheduleFailure(long nanos) {
+        failedCount.incrementAndGet();
+        totalScheduleNanos.addAndGet(nanos);
+        updateMax(maxScheduleNanos, nanos);
+    }
+
+    /**
+     * Records the delivery of one operation.
+     *
+     * @param deadline The end time of the operation in milliseconds
+     * @param deliveryTime The time the operation was answered in milliseconds
+     */
+    public void recordDelivery(long deadline, long deliveryTime) {
+        long lateness = deliveryTime - deadline;
+        deliveredCount.incrementAndGet();
+        totalLatenessMillis.addAndGet(lateness);
+        updateMax(maxLatenessMillis, lateness);
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public long getScheduledCount() {
+        return scheduledCount.get();
+    }
+
+    /**
+     * Returns the number of operations the backend refused to schedule.
+     *
+     * @return The failed count.
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * Returns the average time spent scheduling one operation, the failed attempts included.
+     *
+     * @return The average duration in nanoseconds, or zero if nothing was scheduled.
+     */
+    public long getAverageScheduleNanos() {
+        long count = scheduledCount.get() + failedCount.get();
+        return count > 0 ? totalScheduleNanos.get() / count : 0;
+    }
+
+    public long getMaxScheduleNanos() {
+        return maxScheduleNanos.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    /**
+     * Returns the average time between the end time of an operation and its delivery.
+     *
+     * @return The average lateness in milliseconds, or zero if nothing was delivered.
+     */
+    public long getAverageLatenessMillis() {
+        long count = deliveredCount.get();
+        return count > 0 ? totalLatenessMillis.get() / count : 0;
+    }
+
+    /**
+     * Returns the longest time between the end time of an operation and its delivery.
+     *
+     * @return The max lateness in milliseconds, or zero if nothing was delivered.
+     */
+    public long getMaxLatenessMillis() {
+        return deliveredCount.get() > 0 ? maxLatenessMillis.get() : 0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%s: scheduled=%d, failed=%d (avg %dns, max %dns), "
+                        + "delivered=%d (late avg %dms, max %dms)",
+                name, getScheduledCount(), getFailedCount(), getAverageScheduleNanos(),
+                getMaxScheduleNanos(), getDeliveredCount(), getAverageLatenessMillis(),
+                getMaxLatenessMillis());
+    }
+
+    private static void updateMax(AtomicLong max, long value) {
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+}
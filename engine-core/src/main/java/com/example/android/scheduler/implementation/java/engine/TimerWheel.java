@@ -0,0 +1,243 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A hashed timer wheel: timeouts are hashed by their deadline tick into a fixed number of buckets,
+ * each bucket is a doubly linked list, so scheduling and cancelling are O(1) and a single
+ * {@link #advance(long, Listener)} call expires every due bucket in one pass.
+ *
+ * <p>Timeouts never expire before their deadline, they expire at most one tick after it (plus the
+ * delay of the {@code advance} call itself). Deadlines further than one wheel revolution
+ * ({@code tickMillis * wheelSize}) are supported, their timeouts just stay in their bucket for more
+ * rounds.</p>
+ *
+ * <p>This class is <strong>not thread safe</strong>, it is meant to be driven by a single thread
+ * that calls {@link #advance(long, Listener)} around {@link #nextTickTime()}.</p>
+ *
+ * @param <T> The type of the scheduled items
+ */
+public final class TimerWheel<T> {
+    private final long tickMillis;
+    private final long startTime;
+    private final int mask;
+    private final Timeout<T>[] buckets;
+
+    // Number of ticks processed so far, tick N is due at startTime + N * tickMillis.
+    private long tick;
+    private int size;
+
+    /**
+     * Notified about the expired items.
+     *
+     * @param <T> The type of the scheduled items
+     */
+    public interface Listener<T> {
+        void onExpired(@NonNull T item);
+    }
+
+    /**
+     * A scheduled item, that could be used to cancel it.
+     *
+     * @param <T> The type of the scheduled item
+     */
+    public static final class Timeout<T> {
+        @Nullable
+        private T item;
+        private final long deadline;
+        private long rounds;
+        private int bucket;
+        @Nullable
+        private Timeout<T> prev;
+        @Nullable
+        private Timeout<T> next;
+        private boolean scheduled;
+
+        Timeout(@NonNull T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Returns the scheduled item, or {@code null} once it has expired or was cancelled.
+         *
+         * @return The item.
+         */
+        @Nullable
+        public T getItem() {
+            return item;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public boolean isScheduled() {
+            return scheduled;
+        }
+    }
+
+    /**
+     * Constructor for the TimerWheel.
+     *
+     * @param tickMillis The duration of a tick in milliseconds
+     * @param wheelSize The number of buckets, rounded up to a power of two
+     * @param startTime The time (in milliseconds) of tick zero, usually the current time
+     * @throws IllegalArgumentException if {@code tickMillis} or {@code wheelSize} is not positive
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public TimerWheel(long tickMillis, int wheelSize, long startTime) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("tickMillis must be positive.");
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("wheelSize must be between 1 and 2^30.");
+        }
+        int normalizedSize = Integer.highestOneBit(wheelSize);
+        if (normalizedSize < wheelSize) {
+            normalizedSize <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.startTime = startTime;
+        mask = normalizedSize - 1;
+        buckets = (Timeout<T>[]) new Timeout[normalizedSize];
+    }
+
+    /**
+     * Schedules the item to expire at the given deadline, deadlines in the past expire on the next
+     * tick.
+     *
+     * @param item The item
+     * @param deadline The deadline in milliseconds
+     * @return The timeout that could be used to cancel the item.
+     */
+    @NonNull
+    public Timeout<T> schedule(@NonNull T item, long deadline) {
+        Timeout<T> timeout = new Timeout<>(item, deadline);
+        // The first tick that is due at or after the deadline, but never an already processed one.
+        long deadlineTick = Math.max(ceilDiv(deadline - startTime, tickMillis), tick + 1);
+        timeout.rounds = (deadlineTick - tick - 1) / buckets.length;
+        timeout.bucket = (int) (deadlineTick & mask);
+        link(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels the scheduled timeout.
+     *
+     * @param timeout The timeout
+     * @return {@code true} if the timeout was still scheduled.
+     */
+    public boolean cancel(@NonNull Timeout<T> timeout) {
+        if (!timeout.scheduled) {
+            return false;
+        }
+        unlink(timeout);
+        timeout.item = null;
+        size--;
+        return true;
+    }
+
+    /**
+     * Expires every timeout whose tick is due at the given time.
+     *
+     * @param now The current time in milliseconds
+     * @param listener Notified about every expired item, in tick order
+     * @return The number of expired items.
+     */
+    public int advance(long now, @NonNull Listener<T> listener) {
+        long targetTick = (now - startTime) / tickMillis;
+        int expired = 0;
+        while (tick < targetTick) {
+            if (size == 0) {
+                // Nothing to visit, jump straight to the target tick.
+                tick = targetTick;
+                break;
+            }
+            tick++;
+            Timeout<T> timeout = buckets[(int) (tick & mask)];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                if (timeout.rounds <= 0) {
+                    T item = timeout.item;
+                    unlink(timeout);
+                    timeout.item = null;
+                    size--;
+                    expired++;
+                    listener.onExpired(item);
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Returns the time (in milliseconds) at which the next tick is due.
+     *
+     * @return The next tick time.
+     */
+    public long nextTickTime() {
+        return startTime + (tick + 1) * tickMillis;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Cancels all the scheduled timeouts.
+     */
+    public void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            Timeout<T> timeout = buckets[i];
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                timeout.item = null;
+                timeout.scheduled = false;
+                timeout = next;
+            }
+            buckets[i] = null;
+        }
+        size = 0;
+    }
+
+    private void link(Timeout<T> timeout) {
+        Timeout<T> head = buckets[timeout.bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        buckets[timeout.bucket] = timeout;
+        timeout.scheduled = true;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.scheduled = false;
+    }
+
+    private static long ceilDiv(long x, long y) {
+        long quotient = x / y;
+        return (x % y > 0) ? quotient + 1 : quotient;
+    }
+}
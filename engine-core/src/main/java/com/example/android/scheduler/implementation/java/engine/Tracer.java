@@ -0,0 +1,20 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Writes trace sections, to a system trace on Android, see {@link EngineTrace}.
+ *
+ * <p>The section names are at most 127 characters long. A synchronous section ends on the thread
+ * it began on, an asynchronous section is matched by its name and cookie and may end on any
+ * thread.</p>
+ */
+public interface Tracer {
+    void beginSection(@NonNull String name);
+
+    void endSection();
+
+    void beginAsyncSection(@NonNull String name, int cookie);
+
+    void endAsyncSection(@NonNull String name, int cookie);
+}
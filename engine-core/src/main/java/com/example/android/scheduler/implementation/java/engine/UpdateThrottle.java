@@ -0,0 +1,89 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+/**
+ * Limits an update, like the one of a notification, to a max rate: the first change is shown at
+ * once, the changes made within the interval that follows are coalesced into a single deferred
+ * update, so the last update always shows the latest state.
+ *
+ * <p>The caller owns the timer of the deferred update, {@link #onChanged(long)} returns when it is
+ * due and {@link #onDeferredUpdate(long)} must be called then. Times are in milliseconds on any
+ * monotonic clock. Not thread safe.</p>
+ */
+public final class UpdateThrottle {
+    /** Returned by {@link #onChanged(long)} when the update has to be made now. */
+    public static final long UPDATE_NOW = 0;
+    /** Returned by {@link #onChanged(long)} when the change joins the deferred update. */
+    public static final long UPDATE_DEFERRED = -1;
+
+    private final long minInterval;
+    private boolean updated;
+    private long lastUpdateTime;
+    private boolean deferred;
+    private long suppressedCount;
+
+    /**
+     * Creates a throttle that allows the given number of updates per second.
+     *
+     * @param maxUpdatesPerSecond The max number of updates per second, at least one
+     */
+    public UpdateThrottle(int maxUpdatesPerSecond) {
+        if (maxUpdatesPerSecond < 1) {
+            throw new IllegalArgumentException(
+                    "The max update rate must be positive: " + maxUpdatesPerSecond);
+        }
+        minInterval = (1000 + maxUpdatesPerSecond - 1) / maxUpdatesPerSecond;
+    }
+
+    /**
+     * Records a change.
+     *
+     * @param now The current time
+     * @return {@link #UPDATE_NOW} if the update has to be made now, {@link #UPDATE_DEFERRED} if
+     * the update is already deferred, otherwise the delay after which the deferred update is due.
+     */
+    public long onChanged(long now) {
+        if (deferred) {
+            suppressedCount++;
+            return UPDATE_DEFERRED;
+        }
+        long elapsed = now - lastUpdateTime;
+        if (!updated || elapsed >= minInterval) {
+            updated = true;
+            lastUpdateTime = now;
+            return UPDATE_NOW;
+        }
+        deferred = true;
+        return minInterval - elapsed;
+    }
+
+    /**
+     * Records that the deferred update has been made.
+     *
+     * @param now The current time
+     */
+    public void onDeferredUpdate(long now) {
+        deferred = false;
+        lastUpdateTime = now;
+    }
+
+    /**
+     * Forgets the deferred update, after its timer has been cancelled.
+     */
+    public void cancel() {
+        deferred = false;
+    }
+
+    public boolean isUpdateDeferred() {
+        return deferred;
+    }
+
+    /**
+     * Returns the number of changes that didn't get an update of their own, they were shown by a
+     * later update.
+     *
+     * @return The suppressed update count.
+     */
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+}
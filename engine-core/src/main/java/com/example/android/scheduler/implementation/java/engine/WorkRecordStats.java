@@ -0,0 +1,93 @@
+package com.example.android.scheduler.implementation.java.engine;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the cost of the work records kept by the durable scheduler backend: how long an enqueue
+ * takes to be committed, and how large the database is after each prune.
+ *
+ * <p>This class is thread safe, values could be recorded and read from any thread.</p>
+ */
+public final class WorkRecordStats {
+    private final AtomicLong enqueueCount = new AtomicLong();
+    private final AtomicLong enqueuedRequestCount = new AtomicLong();
+    private final AtomicLong totalEnqueueNanos = new AtomicLong();
+    private final AtomicLong maxEnqueueNanos = new AtomicLong();
+
+    private final AtomicLong pruneCount = new AtomicLong();
+    private final AtomicLong databaseBytes = new AtomicLong();
+
+    /**
+     * Records one enqueue transaction.
+     *
+     * @param nanos The time until the requests were committed, in nanoseconds
+     * @param requestCount The number of work requests in the transaction
+     */
+    public void recordEnqueue(long nanos, int requestCount) {
+        enqueueCount.incrementAndGet();
+        enqueuedRequestCount.addAndGet(requestCount);
+        totalEnqueueNanos.addAndGet(nanos);
+        long current = maxEnqueueNanos.get();
+        while (nanos > current && !maxEnqueueNanos.compareAndSet(current, nanos)) {
+            current = maxEnqueueNanos.get();
+        }
+    }
+
+    /**
+     * Records one prune of the finished work records.
+     *
+     * @param databaseBytes The size of the database after the prune, in bytes
+     */
+    public void recordPrune(long databaseBytes) {
+        pruneCount.incrementAndGet();
+        this.databaseBytes.set(databaseBytes);
+    }
+
+    public long getEnqueueCount() {
+        return enqueueCount.get();
+    }
+
+    public long getEnqueuedRequestCount() {
+        return enqueuedRequestCount.get();
+    }
+
+    /**
+     * Returns the average time until an enqueue transaction was committed.
+     *
+     * @return The average duration in nanoseconds, or zero if nothing was enqueued.
+     */
+    public long getAverageEnqueueNanos() {
+        long count = enqueueCount.get();
+        return count > 0 ? totalEnqueueNanos.get() / count : 0;
+    }
+
+    public long getMaxEnqueueNanos() {
+        return maxEnqueueNanos.get();
+    }
+
+    public long getPruneCount() {
+        return pruneCount.get();
+    }
+
+    /**
+     * Returns the size of the database measured after the last prune.
+     *
+     * @return The size in bytes, or zero if it was never pruned.
+     */
+    public long getDatabaseBytes() {
+        return databaseBytes.get();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "work records: enqueued=%d in %d transactions (avg %dns, max %dns), "
+                        + "pruned=%d times, database=%d bytes",
+                getEnqueuedRequestCount(), getEnqueueCount(), getAverageEnqueueNanos(),
+                getMaxEnqueueNanos(), getPruneCount(), getDatabaseBytes());
+    }
+}
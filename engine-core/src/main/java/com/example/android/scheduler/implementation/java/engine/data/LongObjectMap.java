@@ -0,0 +1,205 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from {@code long} keys to objects, with open addressing and linear probing over
+ * parallel arrays, so that neither the keys nor the entries are boxed.
+ *
+ * <p>Zero marks a free slot, the value of the key zero is kept aside. Removals shift the following
+ * entries back instead of leaving tombstones, so lookups never slow down. The table doubles when
+ * it's more than half full.</p>
+ *
+ * <p>This class is <strong>not thread safe</strong>.</p>
+ *
+ * @param <V> The type of the values
+ */
+public final class LongObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    private boolean hasZeroKey;
+    @Nullable
+    private Object zeroValue;
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    /**
+     * Creates a map that holds the given number of entries without growing.
+     *
+     * @param expectedSize The expected number of entries
+     */
+    public LongObjectMap(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : keys[find(key)] != 0;
+    }
+
+    /**
+     * Returns the value of the given key.
+     *
+     * @param key The key
+     * @return The value or {@code null} if the map doesn't contain the key.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return (V) zeroValue;
+        }
+        return (V) values[find(key)];
+    }
+
+    /**
+     * Associates the value with the key.
+     *
+     * @param key The key
+     * @param value The value
+     * @return The previous value or {@code null} if the map didn't contain the key.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V put(long key, @NonNull V value) {
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int slot = find(key);
+        if (keys[slot] != 0) {
+            V previous = (V) values[slot];
+            values[slot] = value;
+            return previous;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) >> 1) {
+            rehash((mask + 1) << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the key.
+     *
+     * @param key The key
+     * @return The removed value or {@code null} if the map didn't contain the key.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+        int slot = find(key);
+        if (keys[slot] == 0) {
+            return null;
+        }
+        V previous = (V) values[slot];
+        shiftBack(slot);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    // Returns the slot of the key, or the free slot where it would be inserted.
+    private int find(long key) {
+        int slot = hash(key) & mask;
+        long current;
+        while ((current = keys[slot]) != 0 && current != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Frees the slot and moves back the following entries that would no longer be found.
+    private void shiftBack(int free) {
+        int slot = free;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == 0) {
+                break;
+            }
+            int home = hash(key) & mask;
+            // Move the entry unless its home is cyclically in (free, slot].
+            if (free <= slot ? (home <= free || home > slot) : (home <= free && home > slot)) {
+                keys[free] = key;
+                values[free] = values[slot];
+                free = slot;
+            }
+        }
+        keys[free] = 0;
+        values[free] = null;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = find(key);
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int tableSize(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity >> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // Spreads the sequential ids over the table (the 64-bit golden ratio multiplier).
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
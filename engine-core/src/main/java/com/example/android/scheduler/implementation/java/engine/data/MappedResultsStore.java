@@ -0,0 +1,375 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A results store backed by a memory-mapped file of fixed-size records, the results live in the
+ * page cache instead of the heap, so the heap usage doesn't grow with the number of results, and
+ * they survive the process for free.
+ *
+ * <p>A record holds the operands, the result, the end time and the answered time of the operation
+ * and its operator. The file is mapped in chunks of {@link #RECORDS_PER_CHUNK} records, a chunk is
+ * mapped when the first record is appended to it.</p>
+ *
+ * <p>{@link #add} is lock-free and could be called from any thread: a slot is reserved with an
+ * atomic increment, the record is written and marked complete in a bitmap of its chunk, and then
+ * the size is advanced over every record that is complete, by whichever producer finds it complete
+ * first. A producer never waits for another one: a stalled producer only holds back the size, the
+ * records reserved after its own are written meanwhile. Readers see a result once the size covers
+ * it. The last byte of a record is written last and marks it complete, so records written
+ * before the process died are found again when the file is reopened.</p>
+ *
+ * <p>A snapshot reads the records of the file, it is not affected by later appends, and once the
+ * store is cleared its results are read as placeholders, see {@link Results#isRetained(int)}. The
+ * snapshots and {@link #clear()} are guarded by the store lock, so a snapshot can be read on
+ * another thread. {@link #clear()} and {@link #close()} must not be called concurrently with
+ * {@link #add}.</p>
+ */
+public final class MappedResultsStore implements MutableResults {
+    @VisibleForTesting
+    static final int RECORDS_PER_CHUNK = 1 << 14;
+    private static final int RECORD_SIZE = 48;
+    private static final long CHUNK_SIZE = (long) RECORDS_PER_CHUNK * RECORD_SIZE;
+    private static final int MAX_CHUNKS = 1 << 15;
+
+    private static final int FIRST_OPERAND_OFFSET = 0;
+    private static final int SECOND_OPERAND_OFFSET = 8;
+    private static final int RESULT_OFFSET = 16;
+    private static final int END_TIME_OFFSET = 24;
+    private static final int ANSWERED_TIME_OFFSET = 32;
+    // The operator ordinal + 1, zero until the record is complete.
+    private static final int COMMIT_OFFSET = RECORD_SIZE - 1;
+
+    // The magic number and the record size, followed by the last known size.
+    private static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x52534c54;
+    private static final int SIZE_OFFSET = 8;
+
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final AtomicReferenceArray<MappedByteBuffer> chunks =
+            new AtomicReferenceArray<>(MAX_CHUNKS);
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger size = new AtomicInteger();
+    // A bit per record of a chunk, set once the record is complete. Dropped once the size has
+    // passed the chunk, as nothing reads them any more.
+    private final AtomicReferenceArray<AtomicIntegerArray> completed =
+            new AtomicReferenceArray<>(MAX_CHUNKS);
+    // Incremented by every clear, the snapshots of an older generation are stale.
+    private int generation;
+
+    /**
+     * Opens (or creates) the store, the results already in the file are kept.
+     *
+     * @param file The file
+     * @throws IOException If the file cannot be mapped or isn't a results store
+     */
+    public MappedResultsStore(@NonNull File file) throws IOException {
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        try {
+            boolean created = channel.size() == 0;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (created) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, RECORD_SIZE);
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != RECORD_SIZE) {
+                throw new IOException(file + " is not a results store");
+            }
+            int count = Math.max(0, header.getInt(SIZE_OFFSET));
+            // The header is updated after the records, complete records may follow it.
+            long capacity = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            while (count < capacity && isComplete(count)) {
+                count++;
+            }
+            reserved.set(count);
+            size.set(count);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void add(double firstOperand, @NonNull Operator operator, double secondOperand,
+                    double result, long endTime, long answeredTime) {
+        write(reserve(), firstOperand, operator, secondOperand, result, endTime, answeredTime);
+    }
+
+    // Reserves the slot of the next record.
+    @VisibleForTesting
+    int reserve() {
+        int index = reserved.getAndIncrement();
+        if (index < 0 || index >= RECORDS_PER_CHUNK * MAX_CHUNKS) {
+            throw new IllegalStateException("The results store is full.");
+        }
+        return index;
+    }
+
+    // Writes a reserved record, then publishes it along with the complete records after it.
+    @VisibleForTesting
+    void write(int index, double firstOperand, @NonNull Operator operator, double secondOperand,
+               double result, long endTime, long answeredTime) {
+        MappedByteBuffer chunk = chunk(index);
+        int offset = offset(index);
+        chunk.putDouble(offset + FIRST_OPERAND_OFFSET, firstOperand);
+        chunk.putDouble(offset + SECOND_OPERAND_OFFSET, secondOperand);
+        chunk.putDouble(offset + RESULT_OFFSET, result);
+        chunk.putLong(offset + END_TIME_OFFSET, endTime);
+        chunk.putLong(offset + ANSWERED_TIME_OFFSET, answeredTime);
+        chunk.put(offset + COMMIT_OFFSET, (byte) (operator.ordinal() + 1));
+        markComplete(index);
+        publish();
+    }
+
+    /**
+     * Removes all the results, snapshots taken before read them as placeholders.
+     */
+    @Override
+    public synchronized void clear() {
+        generation++;
+        int count = reserved.get();
+        for (int i = 0; i < count; i++) {
+            chunk(i).put(offset(i) + COMMIT_OFFSET, (byte) 0);
+        }
+        for (int i = 0; i < MAX_CHUNKS; i++) {
+            completed.set(i, null);
+        }
+        header.putInt(SIZE_OFFSET, 0);
+        reserved.set(0);
+        size.set(0);
+    }
+
+    @NonNull
+    @Override
+    public synchronized Results snapshot() {
+        return new Snapshot(this, generation, size.get());
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    /**
+     * Writes the mapped records to the file and closes it.
+     */
+    @Override
+    public void close() {
+        header.putInt(SIZE_OFFSET, size.get());
+        header.force();
+        for (int i = 0; i < MAX_CHUNKS; i++) {
+            MappedByteBuffer chunk = chunks.get(i);
+            if (chunk == null) {
+                break;
+            }
+            chunk.force();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // The mappings stay valid, the records reach the file anyway.
+        }
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public double getFirstOperand(int index) {
+        return getDouble(checkIndex(index, size.get()), FIRST_OPERAND_OFFSET);
+    }
+
+    @Override
+    public double getSecondOperand(int index) {
+        return getDouble(checkIndex(index, size.get()), SECOND_OPERAND_OFFSET);
+    }
+
+    @NonNull
+    @Override
+    public Operator getOperator(int index) {
+        checkIndex(index, size.get());
+        return OPERATORS[chunk(index).get(offset(index) + COMMIT_OFFSET) - 1];
+    }
+
+    @Override
+    public double getResult(int index) {
+        return getDouble(checkIndex(index, size.get()), RESULT_OFFSET);
+    }
+
+    /**
+     * Returns the end time of the operation of the result at the given index.
+     *
+     * @param index The index
+     * @return The end time in milliseconds.
+     */
+    public long getEndTime(int index) {
+        checkIndex(index, size.get());
+        return chunk(index).getLong(offset(index) + END_TIME_OFFSET);
+    }
+
+    /**
+     * Returns the time the operation of the result at the given index was answered.
+     *
+     * @param index The index
+     * @return The answered time in milliseconds.
+     */
+    public long getAnsweredTime(int index) {
+        checkIndex(index, size.get());
+        return chunk(index).getLong(offset(index) + ANSWERED_TIME_OFFSET);
+    }
+
+    // Advances the size over the complete records, as far as they are contiguous.
+    private void publish() {
+        while (true) {
+            int current = size.get();
+            if (!isMarkedComplete(current)) {
+                return;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                header.putInt(SIZE_OFFSET, current + 1);
+                if ((current + 1) % RECORDS_PER_CHUNK == 0) {
+                    completed.set(current / RECORDS_PER_CHUNK, null);
+                }
+            }
+        }
+    }
+
+    private void markComplete(int index) {
+        int chunkIndex = index / RECORDS_PER_CHUNK;
+        AtomicIntegerArray bits = completed.get(chunkIndex);
+        if (bits == null) {
+            bits = new AtomicIntegerArray(RECORDS_PER_CHUNK / Integer.SIZE);
+            // Another producer may have created the bitmap meanwhile, keep the first one.
+            if (!completed.compareAndSet(chunkIndex, null, bits)) {
+                bits = completed.get(chunkIndex);
+            }
+        }
+        int word = (index % RECORDS_PER_CHUNK) / Integer.SIZE;
+        int bit = 1 << (index % Integer.SIZE);
+        int current = bits.get(word);
+        while (!bits.compareAndSet(word, current, current | bit)) {
+            current = bits.get(word);
+        }
+    }
+
+    private boolean isMarkedComplete(int index) {
+        if (index >= RECORDS_PER_CHUNK * MAX_CHUNKS) {
+            return false;
+        }
+        AtomicIntegerArray bits = completed.get(index / RECORDS_PER_CHUNK);
+        return bits != null && (bits.get((index % RECORDS_PER_CHUNK) / Integer.SIZE)
+                & (1 << (index % Integer.SIZE))) != 0;
+    }
+
+    private double getDouble(int index, int field) {
+        return chunk(index).getDouble(offset(index) + field);
+    }
+
+    private boolean isComplete(int index) {
+        return chunk(index).get(offset(index) + COMMIT_OFFSET) != 0;
+    }
+
+    private MappedByteBuffer chunk(int index) {
+        int chunkIndex = index / RECORDS_PER_CHUNK;
+        MappedByteBuffer chunk = chunks.get(chunkIndex);
+        if (chunk == null) {
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_WRITE,
+                        HEADER_SIZE + chunkIndex * CHUNK_SIZE, CHUNK_SIZE);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map the results store", e);
+            }
+            // Another thread may have mapped the same chunk meanwhile, keep the first mapping.
+            if (!chunks.compareAndSet(chunkIndex, null, chunk)) {
+                chunk = chunks.get(chunkIndex);
+            }
+        }
+        return chunk;
+    }
+
+    private static int offset(int index) {
+        return (index % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private static final class Snapshot implements Results {
+        private final MappedResultsStore store;
+        private final int generation;
+        private final int size;
+
+        Snapshot(MappedResultsStore store, int generation, int size) {
+            this.store = store;
+            this.generation = generation;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double getFirstOperand(int index) {
+            return getDouble(index, FIRST_OPERAND_OFFSET);
+        }
+
+        @Override
+        public double getSecondOperand(int index) {
+            return getDouble(index, SECOND_OPERAND_OFFSET);
+        }
+
+        @NonNull
+        @Override
+        public Operator getOperator(int index) {
+            checkIndex(index, size);
+            synchronized (store) {
+                if (store.generation != generation) {
+                    return Operator.ADD;
+                }
+                return OPERATORS[store.chunk(index).get(offset(index) + COMMIT_OFFSET) - 1];
+            }
+        }
+
+        @Override
+        public double getResult(int index) {
+            return getDouble(index, RESULT_OFFSET);
+        }
+
+        @Override
+        public boolean isRetained(int index) {
+            checkIndex(index, size);
+            synchronized (store) {
+                return store.generation == generation;
+            }
+        }
+
+        private double getDouble(int index, int field) {
+            checkIndex(index, size);
+            synchronized (store) {
+                return store.generation == generation ? store.getDouble(index, field) : Double.NaN;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import java.io.Closeable;
+
+/**
+ * The operations results as kept by the engine, results are only ever appended.
+ */
+public interface MutableResults extends Results, Closeable {
+    /** A timestamp lost on the way, for instance by a result replayed from the journal. */
+    long UNKNOWN_TIME = -1;
+
+    /**
+     * Appends a new result with its timestamps, stores that don't keep timestamps ignore them. The
+     * timestamps are read from the engine clock by the caller, the store never reads a clock.
+     *
+     * @param firstOperand The first operand
+     * @param operator The operator
+     * @param secondOperand The second operand
+     * @param result The result
+     * @param endTime The end time of the operation in milliseconds, or {@link #UNKNOWN_TIME}
+     * @param answeredTime The time the operation was answered in milliseconds, or
+     *                     {@link #UNKNOWN_TIME}
+     */
+    void add(double firstOperand, @NonNull Operator operator, double secondOperand, double result,
+             long endTime, long answeredTime);
+
+    /**
+     * Removes all the results.
+     */
+    void clear();
+
+    /**
+     * Returns an immutable view of the current results, that is not affected by later appends.
+     * The view can be read on another thread while the store keeps being changed: the results
+     * dropped or cleared afterwards are read as placeholders, see {@link Results#isRetained(int)}.
+     *
+     * @return The results
+     */
+    @NonNull
+    Results snapshot();
+
+    /**
+     * Returns whether the results outlive the process, in that case they don't have to be
+     * journaled.
+     *
+     * @return {@code true} if the results are persistent.
+     */
+    default boolean isPersistent() {
+        return false;
+    }
+
+    /**
+     * Releases memory by keeping at most the given number of results in memory, stores that don't
+     * hold a bounded number of results in memory ignore it.
+     *
+     * @param maxInMemory The max number of results held in memory
+     */
+    default void trimMemory(int maxInMemory) { }
+
+    /**
+     * Returns the number of results dropped from the head of the results since the store was
+     * created, the indexes of the remaining results are shifted down by that number.
+     *
+     * @return The dropped count.
+     */
+    default long getDroppedCount() {
+        return 0;
+    }
+
+    /**
+     * Returns an estimate of the heap memory that holds the results, the results kept in a file are
+     * not counted.
+     *
+     * @return The memory in bytes.
+     */
+    default long getMemoryUsage() {
+        return 0;
+    }
+
+    /**
+     * Releases the resources held by the store, it can't be used afterwards.
+     */
+    @Override
+    default void close() { }
+}
@@ -0,0 +1,708 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+/**
+ * A crash-safe, append-only journal of the operations events (submitted, completed and all
+ * cancelled), from which the pending operations and the results are rebuilt after the process has
+ * been killed. It also maps the pending operations to the durable work that evaluates them (a
+ * WorkManager request for instance), see {@link #recordWork(UUID, List, int, int)}.
+ *
+ * <p>Every record is prefixed with its length and the CRC32 of its content. The append methods
+ * only encode the record into a buffer, the records are written sequentially through a
+ * {@link FileChannel} by the given executor: records appended while a write is in flight are
+ * written and forced to disk together by the next one, so a burst of events costs one write and
+ * one fsync (group commit). A record is durable shortly after it's appended, {@link #sync()} waits
+ * for it.</p>
+ *
+ * <p>{@link #recover(Visitor)} streams the journal once, oldest record first. A torn or corrupt
+ * record (the process died in the middle of a write) ends the recovery and is truncated, with
+ * everything after it.</p>
+ *
+ * <p>{@link #scheduleCompaction(Collection, Results)} rewrites the journal in the background, on
+ * the same executor, while records keep being appended: the records appended after the state was
+ * taken are copied after it.</p>
+ *
+ * <p>The append methods must be called from a single thread, the same one that calls
+ * {@link #recover(Visitor)}, {@link #compact(Collection, Results)},
+ * {@link #scheduleCompaction(Collection, Results)} and {@link #close()}.</p>
+ */
+public final class OperationJournal implements Closeable {
+    // Types 1 and 2 were the submitted and completed records with string ids, they end the
+    // recovery like a corrupt record.
+    private static final byte TYPE_CANCELLED_ALL = 3;
+    // A result whose operation has been compacted away.
+    private static final byte TYPE_RESULT = 4;
+    private static final byte TYPE_SUBMITTED = 5;
+    private static final byte TYPE_COMPLETED = 6;
+    private static final byte TYPE_WORK = 7;
+
+    // The payload length and its CRC32.
+    private static final int HEADER_SIZE = 8;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_PAYLOAD_SIZE = READ_BUFFER_SIZE - HEADER_SIZE;
+    private static final int SUBMITTED_SIZE = 1 + 6 * 8 + 1;
+    private static final int COMPLETED_SIZE = 1 + 2 * 8;
+    // The work id and the operations count, followed by the operation ids.
+    private static final int WORK_HEADER_SIZE = 1 + 2 * 8 + 4;
+    private static final int MAX_WORK_OPERATIONS = 1024;
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+    // The journal is compacted once it holds this many records (at least) more than the live state.
+    private static final int MIN_COMPACTION_GARBAGE = 4 * 1024;
+
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private final File file;
+    private final Executor executor;
+    // Used by the appending thread only, the compactions have their own.
+    private final CRC32 crc = new CRC32();
+    private final Object lock = new Object();
+    private FileChannel channel;
+    // The work of the pending operations, by operation id. Only used by the appending thread.
+    private final LongObjectMap<UUID> work = new LongObjectMap<>();
+
+    // Guarded by lock.
+    private int recordCount;
+    private boolean compacting;
+    private boolean closed;
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private boolean writeScheduled;
+    private long appendedBytes;
+    private long writtenBytes;
+    @Nullable
+    private IOException failure;
+
+    /**
+     * Visits the recovered records, oldest first.
+     */
+    public interface Visitor {
+        void onSubmitted(@NonNull Operation operation);
+
+        void onCompleted(long operationId, double result);
+
+        void onCancelledAll();
+
+        /**
+         * Invoked for a result whose operation has been compacted away.
+         */
+        void onResult(double firstOperand, @NonNull Operator operator, double secondOperand,
+                      double result);
+
+        /**
+         * Invoked for the work that evaluates the given operations, some of them may be answered
+         * already. An operation is evaluated by the latest work it has been recorded for.
+         */
+        default void onWork(@NonNull UUID workId, @NonNull long[] operationIds) { }
+    }
+
+    /**
+     * Opens (or creates) the journal, new records are appended after the existing ones.
+     *
+     * @param file The journal file
+     * @param executor Writes the records to the file and compacts it, one task at a time
+     * @throws IOException If the file cannot be opened
+     */
+    public OperationJournal(@NonNull File file, @NonNull Executor executor) throws IOException {
+        this.file = file;
+        this.executor = executor;
+        channel = open(file);
+    }
+
+    /**
+     * Streams the journal to the visitor, a torn or corrupt record ends the recovery and is
+     * truncated.
+     *
+     * @param visitor The visitor
+     * @return The number of records recovered.
+     * @throws IOException If the journal cannot be read
+     */
+    public int recover(@NonNull Visitor visitor) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        long validSize = 0;
+        int records = 0;
+        boolean corrupt = false;
+        channel.position(0);
+        while (!corrupt) {
+            int read = channel.read(in);
+            in.flip();
+            while (in.remaining() >= HEADER_SIZE) {
+                int start = in.position();
+                int length = in.getInt(start);
+                if (length <= 0 || length > MAX_PAYLOAD_SIZE) {
+                    corrupt = true;
+                    break;
+                }
+                if (in.remaining() < HEADER_SIZE + length) {
+                    break;
+                }
+                crc.reset();
+                crc.update(in.array(), in.arrayOffset() + start + HEADER_SIZE, length);
+                if ((int) crc.getValue() != in.getInt(start + 4)) {
+                    corrupt = true;
+                    break;
+                }
+                in.position(start + HEADER_SIZE);
+                if (!decode(in, length, visitor)) {
+                    corrupt = true;
+                    break;
+                }
+                in.position(start + HEADER_SIZE + length);
+                validSize += HEADER_SIZE + length;
+                records++;
+            }
+            in.compact();
+            if (read < 0) {
+                break;
+            }
+        }
+        if (channel.size() > validSize) {
+            channel.truncate(validSize);
+        }
+        channel.position(validSize);
+        synchronized (lock) {
+            recordCount = records;
+        }
+        return records;
+    }
+
+    /**
+     * Records a new pending operation.
+     *
+     * @param operation The operation
+     */
+    public void submit(@NonNull Operation operation) {
+        synchronized (lock) {
+            if (failure != null) {
+                return;
+            }
+            int start = beginRecord(SUBMITTED_SIZE);
+            putSubmitted(pending, operation);
+            endRecord(start);
+        }
+        scheduleWrite();
+    }
+
+    /**
+     * Records the result of a pending operation.
+     *
+     * @param operationId The operation id
+     * @param result The result
+     */
+    public void complete(long operationId, double result) {
+        synchronized (lock) {
+            if (failure != null) {
+                return;
+            }
+            int start = beginRecord(COMPLETED_SIZE);
+            pending.put(TYPE_COMPLETED);
+            pending.putLong(operationId);
+            pending.putDouble(result);
+            endRecord(start);
+        }
+        work.remove(operationId);
+        scheduleWrite();
+    }
+
+    /**
+     * Records the durable work that evaluates the given pending operations, it replaces the work
+     * recorded for them before.
+     *
+     * @param workId The work id
+     * @param operations The operations
+     * @param from The index of the first operation
+     * @param to The index after the last operation
+     */
+    public void recordWork(@NonNull UUID workId, @NonNull List<Operation> operations, int from,
+                           int to) {
+        synchronized (lock) {
+            if (failure != null) {
+                return;
+            }
+            for (int first = from; first < to; first += MAX_WORK_OPERATIONS) {
+                int last = Math.min(to, first + MAX_WORK_OPERATIONS);
+                int start = beginRecord(WORK_HEADER_SIZE + (last - first) * 8);
+                putWork(pending, workId, operations, first, last);
+                endRecord(start);
+            }
+        }
+        for (int i = from; i < to; i++) {
+            work.put(operations.get(i).getId(), workId);
+        }
+        scheduleWrite();
+    }
+
+    /**
+     * Records that all the pending operations have been cancelled.
+     */
+    public void cancelAll() {
+        synchronized (lock) {
+            if (failure != null) {
+                return;
+            }
+            int start = beginRecord(1);
+            pending.put(TYPE_CANCELLED_ALL);
+            endRecord(start);
+        }
+        work.clear();
+        scheduleWrite();
+    }
+
+    /**
+     * Returns whether most of the journal is made of records that no longer affect the state, see
+     * {@link #compact(Collection, Results)}. Always {@code false} while a compaction is in
+     * progress.
+     *
+     * @param liveRecords The number of pending operations and results
+     * @return {@code true} if the journal should be compacted.
+     */
+    public boolean needsCompaction(int liveRecords) {
+        synchronized (lock) {
+            return !compacting
+                    && recordCount - liveRecords > Math.max(liveRecords, MIN_COMPACTION_GARBAGE);
+        }
+    }
+
+    /**
+     * Replaces the journal with the given state, one record per result, per pending operation and
+     * per work of the pending operations. The new journal is written next to the old one and
+     * renamed over it, so a crash leaves either the old or the new journal.
+     *
+     * @param operations The pending operations
+     * @param results The results
+     * @throws IOException If the journal cannot be written
+     */
+    public void compact(@NonNull Collection<Operation> operations, @NonNull Results results)
+            throws IOException {
+        awaitCompaction();
+        sync();
+        Map<UUID, List<Operation>> operationsWork = groupByWork(operations);
+        File compacted = new File(file.getPath() + ".compact");
+        FileChannel out = new RandomAccessFile(compacted, "rw").getChannel();
+        int records;
+        try {
+            records = writeState(out, operations, operationsWork, results);
+            out.force(false);
+        } finally {
+            out.close();
+        }
+        synchronized (lock) {
+            replaceWith(compacted);
+            recordCount = records;
+        }
+    }
+
+    /**
+     * Like {@link #compact(Collection, Results)}, but the journal is rewritten by the executor, in
+     * the background. The records appended meanwhile are kept, after the given state. Does nothing
+     * if a compaction is already in progress. If the compaction fails, the journal is left as it
+     * was and a later call tries again.
+     *
+     * @param operations The pending operations, a copy that is not modified afterwards
+     * @param results The results, a snapshot that is not modified afterwards
+     */
+    public void scheduleCompaction(@NonNull final Collection<Operation> operations,
+                                   @NonNull final Results results) {
+        final long stateBytes;
+        final int stateRecords;
+        synchronized (lock) {
+            if (compacting || closed || failure != null) {
+                return;
+            }
+            compacting = true;
+            stateBytes = appendedBytes;
+            stateRecords = recordCount;
+        }
+        final Map<UUID, List<Operation>> operationsWork = groupByWork(operations);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                compactInBackground(operations, operationsWork, results, stateBytes,
+                        stateRecords);
+            }
+        });
+    }
+
+    // Runs on the executor, between the writes. The records appended after the state was taken are
+    // either written already, at the end of the journal, and copied, or still pending and written
+    // to the new journal by the next write.
+    private void compactInBackground(Collection<Operation> operations,
+                                     Map<UUID, List<Operation>> operationsWork, Results results,
+                                     long stateBytes, int stateRecords) {
+        File compacted = new File(file.getPath() + ".compact");
+        try {
+            long appendedSince;
+            synchronized (lock) {
+                if (closed || failure != null) {
+                    return;
+                }
+                appendedSince = writtenBytes - stateBytes;
+            }
+            FileChannel out = new RandomAccessFile(compacted, "rw").getChannel();
+            int records;
+            try {
+                records = writeState(out, operations, operationsWork, results);
+                long end = channel.size();
+                long position = end - appendedSince;
+                while (position < end) {
+                    position += channel.transferTo(position, end - position, out);
+                }
+                out.force(false);
+            } finally {
+                out.close();
+            }
+            synchronized (lock) {
+                if (closed) {
+                    return;
+                }
+                replaceWith(compacted);
+                recordCount = records + recordCount - stateRecords;
+            }
+        } catch (IOException e) {
+            // The journal is still complete, the next call tries again.
+        } finally {
+            //noinspection ResultOfMethodCallIgnored
+            compacted.delete();
+            synchronized (lock) {
+                compacting = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // Groups the given pending operations by the work that evaluates them, in scheduling order.
+    private Map<UUID, List<Operation>> groupByWork(Collection<Operation> operations) {
+        Map<UUID, List<Operation>> operationsWork = new LinkedHashMap<>();
+        for (Operation operation : operations) {
+            UUID workId = work.get(operation.getId());
+            if (workId == null) {
+                continue;
+            }
+            List<Operation> group = operationsWork.get(workId);
+            if (group == null) {
+                group = new ArrayList<>();
+                operationsWork.put(workId, group);
+            }
+            group.add(operation);
+        }
+        return operationsWork;
+    }
+
+    // Writes one record per result, per pending operation and per work of the pending operations,
+    // returns the number of records.
+    private int writeState(FileChannel out, Collection<Operation> operations,
+                           Map<UUID, List<Operation>> operationsWork, Results results)
+            throws IOException {
+        int records = 0;
+        out.truncate(0);
+        ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        // Runs on the executor while records are appended and sealed with the shared checksum.
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < results.size(); i++) {
+            if (!results.isRetained(i)) {
+                // Dropped from a ring since the snapshot was taken.
+                continue;
+            }
+            if (buffer.remaining() < HEADER_SIZE + 1 + 4 * 8) {
+                writeFully(out, buffer);
+            }
+            int start = buffer.position();
+            buffer.position(start + HEADER_SIZE);
+            buffer.put(TYPE_RESULT);
+            buffer.putDouble(results.getFirstOperand(i));
+            buffer.put((byte) results.getOperator(i).ordinal());
+            buffer.putDouble(results.getSecondOperand(i));
+            buffer.putDouble(results.getResult(i));
+            sealRecord(buffer, start, crc);
+            records++;
+        }
+        for (Operation operation : operations) {
+            if (buffer.remaining() < HEADER_SIZE + SUBMITTED_SIZE) {
+                writeFully(out, buffer);
+            }
+            int start = buffer.position();
+            buffer.position(start + HEADER_SIZE);
+            putSubmitted(buffer, operation);
+            sealRecord(buffer, start, crc);
+            records++;
+        }
+        for (Map.Entry<UUID, List<Operation>> entry : operationsWork.entrySet()) {
+            List<Operation> group = entry.getValue();
+            for (int first = 0; first < group.size(); first += MAX_WORK_OPERATIONS) {
+                int last = Math.min(group.size(), first + MAX_WORK_OPERATIONS);
+                if (buffer.remaining() < HEADER_SIZE + WORK_HEADER_SIZE + (last - first) * 8) {
+                    writeFully(out, buffer);
+                }
+                int start = buffer.position();
+                buffer.position(start + HEADER_SIZE);
+                putWork(buffer, entry.getKey(), group, first, last);
+                sealRecord(buffer, start, crc);
+                records++;
+            }
+        }
+        writeFully(out, buffer);
+        return records;
+    }
+
+    // Renames the compacted journal over the current one, which stays open until then so that a
+    // failed rename leaves it usable. Guarded by lock.
+    private void replaceWith(File compacted) throws IOException {
+        if (!compacted.renameTo(file)) {
+            throw new IOException("Cannot rename " + compacted + " to " + file);
+        }
+        channel.close();
+        channel = open(file);
+    }
+
+    private void awaitCompaction() throws IOException {
+        synchronized (lock) {
+            while (compacting) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocks until all the records appended so far are durable.
+     *
+     * @throws IOException If the records cannot be written
+     */
+    public void sync() throws IOException {
+        synchronized (lock) {
+            long target = appendedBytes;
+            while (writtenBytes < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Waits for the compaction in progress, if any, and for the appended records to be durable,
+     * then closes the journal.
+     *
+     * @throws IOException If the records cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            awaitCompaction();
+            sync();
+        } finally {
+            synchronized (lock) {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+
+    private static void putSubmitted(ByteBuffer out, Operation operation) {
+        MathQuestion question = operation.getMathQuestion();
+        out.put(TYPE_SUBMITTED);
+        out.putLong(operation.getId());
+        out.putLong(operation.getStartTime());
+        out.putLong(operation.getEndTime());
+        out.putLong(question.getDelayTime());
+        out.putDouble(question.getFirstOperand());
+        out.putDouble(question.getSecondOperand());
+        out.put((byte) question.getOperator().ordinal());
+    }
+
+    private static void putWork(ByteBuffer out, UUID workId, List<Operation> operations, int from,
+                                int to) {
+        out.put(TYPE_WORK);
+        out.putLong(workId.getMostSignificantBits());
+        out.putLong(workId.getLeastSignificantBits());
+        out.putInt(to - from);
+        for (int i = from; i < to; i++) {
+            out.putLong(operations.get(i).getId());
+        }
+    }
+
+    // Returns false if the record cannot be decoded.
+    private boolean decode(ByteBuffer in, int length, Visitor visitor) {
+        byte type = in.get();
+        switch (type) {
+            case TYPE_SUBMITTED: {
+                long id = in.getLong();
+                long startTime = in.getLong();
+                long endTime = in.getLong();
+                long delayTime = in.getLong();
+                double first = in.getDouble();
+                double second = in.getDouble();
+                int operator = in.get();
+                if (operator < 0 || operator >= OPERATORS.length) {
+                    return false;
+                }
+                MathQuestion question =
+                        new MathQuestion(first, second, OPERATORS[operator], delayTime);
+                visitor.onSubmitted(new Operation(id, startTime, endTime, question));
+                return true;
+            }
+            case TYPE_COMPLETED: {
+                long id = in.getLong();
+                work.remove(id);
+                visitor.onCompleted(id, in.getDouble());
+                return true;
+            }
+            case TYPE_CANCELLED_ALL:
+                work.clear();
+                visitor.onCancelledAll();
+                return true;
+            case TYPE_RESULT: {
+                double first = in.getDouble();
+                int operator = in.get();
+                double second = in.getDouble();
+                double result = in.getDouble();
+                if (operator < 0 || operator >= OPERATORS.length) {
+                    return false;
+                }
+                visitor.onResult(first, OPERATORS[operator], second, result);
+                return true;
+            }
+            case TYPE_WORK: {
+                if (length < WORK_HEADER_SIZE) {
+                    return false;
+                }
+                UUID workId = new UUID(in.getLong(), in.getLong());
+                int count = in.getInt();
+                if (count < 0 || count > MAX_WORK_OPERATIONS
+                        || length != WORK_HEADER_SIZE + count * 8) {
+                    return false;
+                }
+                long[] operationIds = new long[count];
+                for (int i = 0; i < count; i++) {
+                    operationIds[i] = in.getLong();
+                    work.put(operationIds[i], workId);
+                }
+                visitor.onWork(workId, operationIds);
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+
+    // Makes room for the record and skips its header, which is filled by endRecord().
+    private int beginRecord(int payloadSize) {
+        if (pending.remaining() < HEADER_SIZE + payloadSize) {
+            int capacity = Math.max(pending.capacity() * 2, pending.position() + HEADER_SIZE
+                    + payloadSize);
+            ByteBuffer grown = ByteBuffer.allocate(capacity);
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        int start = pending.position();
+        pending.position(start + HEADER_SIZE);
+        return start;
+    }
+
+    private void endRecord(int start) {
+        appendedBytes += sealRecord(pending, start, crc);
+        recordCount++;
+    }
+
+    // Fills the header of the record that starts at the given position, returns the record size.
+    private static int sealRecord(ByteBuffer buffer, int start, CRC32 crc) {
+        int length = buffer.position() - start - HEADER_SIZE;
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + start + HEADER_SIZE, length);
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        return HEADER_SIZE + length;
+    }
+
+    private void scheduleWrite() {
+        synchronized (lock) {
+            if (writeScheduled || failure != null) {
+                return;
+            }
+            writeScheduled = true;
+        }
+        executor.execute(writeTask);
+    }
+
+    // Writes whatever has been appended until there is nothing left, then stops.
+    private final Runnable writeTask = new Runnable() {
+        @Override
+        public void run() {
+            while (true) {
+                ByteBuffer records;
+                synchronized (lock) {
+                    if (pending.position() == 0 || failure != null) {
+                        writeScheduled = false;
+                        return;
+                    }
+                    records = pending;
+                    pending = spare;
+                    spare = null;
+                }
+                int size = records.position();
+                IOException error = null;
+                try {
+                    writeFully(channel, records);
+                    channel.force(false);
+                } catch (IOException e) {
+                    error = e;
+                }
+                records.clear();
+                synchronized (lock) {
+                    spare = records;
+                    writtenBytes += size;
+                    if (error != null) {
+                        failure = error;
+                    }
+                    lock.notifyAll();
+                }
+            }
+        }
+    };
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static FileChannel open(File file) throws IOException {
+        FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+        channel.position(channel.size());
+        return channel;
+    }
+}
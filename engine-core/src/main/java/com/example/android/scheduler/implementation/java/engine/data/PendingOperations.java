@@ -0,0 +1,210 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Holds the operations that are scheduled but not answered yet.
+ *
+ * <p>Operations are indexed by id in a {@link LongObjectMap} (O(1) lookup, no boxing) and kept
+ * in a binary min-heap ordered by {@link Operation#getEndTime()}, every heap node knows its own
+ * position so that an operation can be removed from the middle of the heap in O(log n). The order
+ * is {@link Operation#END_TIME_ORDER}.</p>
+ *
+ * <p>This class is <strong>not thread safe</strong>.</p>
+ */
+public final class PendingOperations {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private static final Comparator<Node> ORDER = new Comparator<Node>() {
+        @Override
+        public int compare(Node a, Node b) {
+            return a.compareTo(b);
+        }
+    };
+
+    private final LongObjectMap<Node> index = new LongObjectMap<>();
+    private Node[] heap = new Node[INITIAL_CAPACITY];
+    private int size;
+
+    // Cached result of snapshot(), dropped on every change.
+    @Nullable
+    private List<Operation> snapshot;
+
+    /**
+     * Adds a new pending operation, adding an operation that is already pending has no effect.
+     *
+     * @param operation The operation
+     */
+    public void add(@NonNull Operation operation) {
+        if (index.containsKey(operation.getId())) {
+            return;
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size + (size >> 1));
+        }
+        Node node = new Node(operation);
+        index.put(operation.getId(), node);
+        heap[size] = node;
+        node.position = size;
+        siftUp(size++);
+        snapshot = null;
+    }
+
+    /**
+     * Returns the pending operation with the given id.
+     *
+     * @param operationId The operation id
+     * @return The operation or {@code null} if there is no pending operation with that id.
+     */
+    @Nullable
+    public Operation find(long operationId) {
+        Node node = index.get(operationId);
+        return node != null ? node.operation : null;
+    }
+
+    /**
+     * Removes the pending operation.
+     *
+     * @param operation The operation
+     * @return {@code true} if the operation was pending.
+     */
+    public boolean remove(@NonNull Operation operation) {
+        return remove(operation.getId()) != null;
+    }
+
+    /**
+     * Removes the pending operation with the given id.
+     *
+     * @param operationId The operation id
+     * @return The removed operation or {@code null} if there is no pending operation with that id.
+     */
+    @Nullable
+    public Operation remove(long operationId) {
+        Node node = index.remove(operationId);
+        if (node == null) {
+            return null;
+        }
+        removeAt(node.position);
+        snapshot = null;
+        return node.operation;
+    }
+
+    /**
+     * Returns the pending operation with the earliest end time.
+     *
+     * @return The operation or {@code null} if there are no pending operations.
+     */
+    @Nullable
+    public Operation peek() {
+        return size > 0 ? heap[0].operation : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        index.clear();
+        heap = new Node[INITIAL_CAPACITY];
+        size = 0;
+        snapshot = null;
+    }
+
+    /**
+     * Returns the pending operations ordered by {@link Operation#END_TIME_ORDER}. The returned list
+     * is immutable and is shared between calls until the pending operations change.
+     *
+     * @return The pending operations.
+     */
+    @NonNull
+    public List<Operation> snapshot() {
+        if (snapshot == null) {
+            Node[] nodes = Arrays.copyOf(heap, size);
+            Arrays.sort(nodes, ORDER);
+            List<Operation> operations = new ArrayList<>(size);
+            for (Node node : nodes) {
+                operations.add(node.operation);
+            }
+            snapshot = Collections.unmodifiableList(operations);
+        }
+        return snapshot;
+    }
+
+    private void removeAt(int position) {
+        int last = --size;
+        Node moved = heap[last];
+        heap[last] = null;
+        if (position == last) {
+            return;
+        }
+        heap[position] = moved;
+        moved.position = position;
+        siftDown(position);
+        if (heap[position] == moved) {
+            siftUp(position);
+        }
+    }
+
+    private void siftUp(int position) {
+        Node node = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            Node parentNode = heap[parent];
+            if (node.compareTo(parentNode) >= 0) {
+                break;
+            }
+            heap[position] = parentNode;
+            parentNode.position = position;
+            position = parent;
+        }
+        heap[position] = node;
+        node.position = position;
+    }
+
+    private void siftDown(int position) {
+        Node node = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = (position << 1) + 1;
+            int right = child + 1;
+            if (right < size && heap[right].compareTo(heap[child]) < 0) {
+                child = right;
+            }
+            Node childNode = heap[child];
+            if (node.compareTo(childNode) <= 0) {
+                break;
+            }
+            heap[position] = childNode;
+            childNode.position = position;
+            position = child;
+        }
+        heap[position] = node;
+        node.position = position;
+    }
+
+    private static final class Node {
+        final Operation operation;
+        int position;
+
+        Node(Operation operation) {
+            this.operation = operation;
+        }
+
+        int compareTo(Node other) {
+            return Operation.END_TIME_ORDER.compare(operation, other.operation);
+        }
+    }
+}
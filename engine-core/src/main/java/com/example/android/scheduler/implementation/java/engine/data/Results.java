@@ -0,0 +1,62 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathAnswer;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+/**
+ * A read only, index based view of the operations results, oldest result first.
+ *
+ * <p>Results are exposed as primitives so that no text (or object) has to be kept per result,
+ * callers render a row only when they need it, see
+ * {@link com.example.android.scheduler.implementation.java.engine.ResultFormatter}.</p>
+ */
+public interface Results {
+    int size();
+
+    double getFirstOperand(int index);
+
+    double getSecondOperand(int index);
+
+    @NonNull
+    Operator getOperator(int index);
+
+    double getResult(int index);
+
+    /**
+     * Returns an id of the result at the given index that doesn't change when older results are
+     * dropped, the ids of consecutive results are consecutive.
+     *
+     * @param index The index
+     * @return The row id, the number of results appended to the store before this one.
+     */
+    default long getRowId(int index) {
+        return index;
+    }
+
+    /**
+     * Returns whether the result at the given index can still be read. A snapshot outlives the
+     * results its store drops or clears afterwards, their row is then read as a placeholder:
+     * {@code NaN} operands and result and the {@link Operator#ADD} operator.
+     *
+     * @param index The index
+     * @return {@code false} if the result is gone from the store.
+     */
+    default boolean isRetained(int index) {
+        return true;
+    }
+
+    /**
+     * Returns the result at the given index as a model object (allocates a new object).
+     *
+     * @param index The index
+     * @return The math answer
+     */
+    @NonNull
+    default MathAnswer get(int index) {
+        return new MathAnswer(
+                getFirstOperand(index), getSecondOperand(index), getOperator(index), getResult(index)
+        );
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * An append only file of results, 25 bytes per result, that holds the results evicted from a
+ * {@link RingResultsStore}. The file is emptied when the segment is opened.
+ *
+ * <p>Appends are buffered and written {@link #BUFFERED_RECORDS} at a time, reads go through a small
+ * window of consecutive records, as the rows are read by index in order when they are shown.</p>
+ */
+final class ResultsSegment implements Closeable {
+    private static final int RECORD_SIZE = 25;
+    private static final int BUFFERED_RECORDS = 1024;
+    private static final int WINDOW_RECORDS = 128;
+
+    private final File file;
+    private final FileChannel channel;
+    private final ByteBuffer writeBuffer = ByteBuffer.allocate(BUFFERED_RECORDS * RECORD_SIZE);
+    private final ByteBuffer window = ByteBuffer.allocate(WINDOW_RECORDS * RECORD_SIZE);
+    private int windowStart;
+    private int windowSize;
+    // The number of records in the file, the buffered ones follow.
+    private int written;
+
+    ResultsSegment(@NonNull File file) throws IOException {
+        this.file = file;
+        channel = new RandomAccessFile(file, "rw").getChannel();
+        channel.truncate(0);
+    }
+
+    int size() {
+        return written + writeBuffer.position() / RECORD_SIZE;
+    }
+
+    void append(double firstOperand, byte operator, double secondOperand, double result)
+            throws IOException {
+        if (!writeBuffer.hasRemaining()) {
+            flush();
+        }
+        writeBuffer.putDouble(firstOperand)
+                .putDouble(secondOperand)
+                .putDouble(result)
+                .put(operator);
+    }
+
+    double getFirstOperand(int index) throws IOException {
+        return record(index).getDouble(offset(index));
+    }
+
+    double getSecondOperand(int index) throws IOException {
+        return record(index).getDouble(offset(index) + 8);
+    }
+
+    double getResult(int index) throws IOException {
+        return record(index).getDouble(offset(index) + 16);
+    }
+
+    byte getOperator(int index) throws IOException {
+        return record(index).get(offset(index) + 24);
+    }
+
+    /**
+     * Closes the segment and deletes its file.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+        long position = (long) written * RECORD_SIZE;
+        while (writeBuffer.hasRemaining()) {
+            position += channel.write(writeBuffer, position);
+        }
+        written += writeBuffer.limit() / RECORD_SIZE;
+        writeBuffer.clear();
+    }
+
+    // Returns the buffer holding the record, either the write buffer or the read window.
+    private ByteBuffer record(int index) throws IOException {
+        if (index >= written) {
+            return writeBuffer;
+        }
+        if (index < windowStart || index >= windowStart + windowSize) {
+            windowStart = index;
+            windowSize = Math.min(WINDOW_RECORDS, written - index);
+            window.clear();
+            window.limit(windowSize * RECORD_SIZE);
+            long position = (long) index * RECORD_SIZE;
+            while (window.hasRemaining()) {
+                int read = channel.read(window, position + window.position());
+                if (read < 0) {
+                    throw new IOException("Unexpected end of " + file);
+                }
+            }
+        }
+        return window;
+    }
+
+    private int offset(int index) {
+        return (index >= written ? index - written : index - windowStart) * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import java.util.Arrays;
+
+/**
+ * An append only store of operations results, packed column by column into primitive arrays.
+ *
+ * <p>A result costs 25 bytes (three doubles and the operator ordinal) instead of a formatted string
+ * plus its wrapper object.</p>
+ *
+ * <p>{@link #snapshot()} is O(1): rows are never modified once appended and the arrays are copied
+ * (not modified) when they grow, so a snapshot can keep reading the arrays it was created with.</p>
+ */
+public final class ResultsStore implements MutableResults {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private double[] firstOperands;
+    private double[] secondOperands;
+    private byte[] operators;
+    private double[] results;
+    private int size;
+
+    public ResultsStore() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Appends a new result, the timestamps are not kept.
+     */
+    @Override
+    public void add(double firstOperand, @NonNull Operator operator, double secondOperand,
+                    double result, long endTime, long answeredTime) {
+        if (size == results.length) {
+            grow();
+        }
+        firstOperands[size] = firstOperand;
+        secondOperands[size] = secondOperand;
+        operators[size] = (byte) operator.ordinal();
+        results[size] = result;
+        size++;
+    }
+
+    /**
+     * Removes all the results, snapshots taken before are not affected.
+     */
+    @Override
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+        size = 0;
+    }
+
+    /**
+     * Returns an immutable view of the current results, that is not affected by later changes.
+     *
+     * @return The results
+     */
+    @NonNull
+    @Override
+    public Results snapshot() {
+        return new Snapshot(firstOperands, secondOperands, operators, results, size);
+    }
+
+    @Override
+    public long getMemoryUsage() {
+        return (long) results.length * RingResultsStore.RESULT_SIZE;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double getFirstOperand(int index) {
+        return firstOperands[checkIndex(index, size)];
+    }
+
+    @Override
+    public double getSecondOperand(int index) {
+        return secondOperands[checkIndex(index, size)];
+    }
+
+    @NonNull
+    @Override
+    public Operator getOperator(int index) {
+        return OPERATORS[operators[checkIndex(index, size)]];
+    }
+
+    @Override
+    public double getResult(int index) {
+        return results[checkIndex(index, size)];
+    }
+
+    private void allocate(int capacity) {
+        firstOperands = new double[capacity];
+        secondOperands = new double[capacity];
+        operators = new byte[capacity];
+        results = new double[capacity];
+    }
+
+    private void grow() {
+        int capacity = results.length + (results.length >> 1);
+        firstOperands = Arrays.copyOf(firstOperands, capacity);
+        secondOperands = Arrays.copyOf(secondOperands, capacity);
+        operators = Arrays.copyOf(operators, capacity);
+        results = Arrays.copyOf(results, capacity);
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private static final class Snapshot implements Results {
+        private final double[] firstOperands;
+        private final double[] secondOperands;
+        private final byte[] operators;
+        private final double[] results;
+        private final int size;
+
+        Snapshot(double[] firstOperands, double[] secondOperands, byte[] operators,
+                 double[] results, int size) {
+            this.firstOperands = firstOperands;
+            this.secondOperands = secondOperands;
+            this.operators = operators;
+            this.results = results;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double getFirstOperand(int index) {
+            return firstOperands[checkIndex(index, size)];
+        }
+
+        @Override
+        public double getSecondOperand(int index) {
+            return secondOperands[checkIndex(index, size)];
+        }
+
+        @NonNull
+        @Override
+        public Operator getOperator(int index) {
+            return OPERATORS[operators[checkIndex(index, size)]];
+        }
+
+        @Override
+        public double getResult(int index) {
+            return results[checkIndex(index, size)];
+        }
+    }
+}
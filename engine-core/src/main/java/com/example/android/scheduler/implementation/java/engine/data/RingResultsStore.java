@@ -0,0 +1,357 @@
+package com.example.android.scheduler.implementation.java.engine.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A store that keeps only the newest results in memory, in a ring of primitive arrays (25 bytes per
+ * result, see {@link ResultsStore}), so a long session doesn't grow the heap.
+ *
+ * <p>When the ring is full, the oldest result is either spilled to a file and stays readable, or
+ * dropped, in which case the remaining results are shifted down by one index and
+ * {@link #getDroppedCount()} is incremented. The ring can be shrunk with
+ * {@link #trimMemory(int)}, if spilling fails the spilled results are dropped as well.</p>
+ *
+ * <p>A snapshot reads the results through the store, by position since the store was created: it
+ * is not affected by later appends, and a result dropped or cleared afterwards is read as a
+ * placeholder, see {@link Results#isRetained(int)}. The store is guarded by its own lock, so a
+ * snapshot can be read on another thread than the one that appends the results.</p>
+ */
+public final class RingResultsStore implements MutableResults {
+    /** The memory used by a result held in the ring. */
+    public static final int RESULT_SIZE = 25;
+
+    private static final Operator[] OPERATORS = Operator.values();
+
+    @Nullable
+    private final File spillFile;
+    @Nullable
+    private ResultsSegment segment;
+
+    private double[] firstOperands;
+    private double[] secondOperands;
+    private byte[] operators;
+    private double[] results;
+
+    // Positions of results since the store was created, the ring holds [head, tail) at
+    // position % capacity, the segment holds [first, head), the results before first are dropped.
+    private long first;
+    private long head;
+    private long tail;
+    private long dropped;
+
+    /**
+     * Creates a store that keeps at most {@code capacity} results in memory.
+     *
+     * @param capacity The capacity of the ring, at least one
+     * @param spillFile The file the evicted results are spilled to, or {@code null} to drop them
+     * @throws IOException If the spill file can't be created
+     */
+    public RingResultsStore(int capacity, @Nullable File spillFile) throws IOException {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        this.spillFile = spillFile;
+        if (spillFile != null) {
+            segment = new ResultsSegment(spillFile);
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Appends a new result, the timestamps are not kept.
+     */
+    @Override
+    public synchronized void add(double firstOperand, @NonNull Operator operator,
+                                 double secondOperand, double result, long endTime,
+                                 long answeredTime) {
+        if (tail - head == results.length) {
+            evict(1);
+        }
+        int slot = slot(tail);
+        firstOperands[slot] = firstOperand;
+        secondOperands[slot] = secondOperand;
+        operators[slot] = (byte) operator.ordinal();
+        results[slot] = result;
+        tail++;
+    }
+
+    /**
+     * Removes all the results, they can't be read from the snapshots taken before any more.
+     */
+    @Override
+    public synchronized void clear() {
+        first = head = tail;
+        if (segment != null) {
+            closeSegment();
+            openSegment();
+        }
+    }
+
+    @NonNull
+    @Override
+    public synchronized Results snapshot() {
+        return new Snapshot(this, first, size());
+    }
+
+    /**
+     * Shrinks the ring to hold at most the given number of results, the evicted ones are spilled or
+     * dropped. The ring never grows back.
+     *
+     * @param maxInMemory The max number of results held in memory, at least one is kept
+     */
+    @Override
+    public synchronized void trimMemory(int maxInMemory) {
+        int capacity = Math.max(1, maxInMemory);
+        if (capacity >= results.length) {
+            return;
+        }
+        if (tail - head > capacity) {
+            evict((int) (tail - head - capacity));
+        }
+        double[] oldFirstOperands = firstOperands;
+        double[] oldSecondOperands = secondOperands;
+        byte[] oldOperators = operators;
+        double[] oldResults = results;
+        int oldCapacity = oldResults.length;
+        allocate(capacity);
+        for (long position = head; position < tail; position++) {
+            int from = (int) (position % oldCapacity);
+            int to = slot(position);
+            firstOperands[to] = oldFirstOperands[from];
+            secondOperands[to] = oldSecondOperands[from];
+            operators[to] = oldOperators[from];
+            results[to] = oldResults[from];
+        }
+    }
+
+    @Override
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * Returns the number of results the ring can hold.
+     *
+     * @return The capacity.
+     */
+    public synchronized int getCapacity() {
+        return results.length;
+    }
+
+    @Override
+    public synchronized long getMemoryUsage() {
+        return (long) results.length * RESULT_SIZE;
+    }
+
+    /**
+     * Closes and deletes the spill file.
+     */
+    @Override
+    public synchronized void close() {
+        closeSegment();
+    }
+
+    @Override
+    public synchronized int size() {
+        return (int) (tail - first);
+    }
+
+    @Override
+    public synchronized double getFirstOperand(int index) {
+        long position = first + checkIndex(index, size());
+        if (position >= head) {
+            return firstOperands[slot(position)];
+        }
+        try {
+            return segment().getFirstOperand((int) (position - first));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the spilled results", e);
+        }
+    }
+
+    @Override
+    public synchronized double getSecondOperand(int index) {
+        long position = first + checkIndex(index, size());
+        if (position >= head) {
+            return secondOperands[slot(position)];
+        }
+        try {
+            return segment().getSecondOperand((int) (position - first));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the spilled results", e);
+        }
+    }
+
+    @NonNull
+    @Override
+    public synchronized Operator getOperator(int index) {
+        long position = first + checkIndex(index, size());
+        if (position >= head) {
+            return OPERATORS[operators[slot(position)]];
+        }
+        try {
+            return OPERATORS[segment().getOperator((int) (position - first))];
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the spilled results", e);
+        }
+    }
+
+    @Override
+    public synchronized double getResult(int index) {
+        long position = first + checkIndex(index, size());
+        if (position >= head) {
+            return results[slot(position)];
+        }
+        try {
+            return segment().getResult((int) (position - first));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read the spilled results", e);
+        }
+    }
+
+    @Override
+    public synchronized long getRowId(int index) {
+        return first + checkIndex(index, size());
+    }
+
+    // Moves the oldest results out of the ring.
+    private void evict(int count) {
+        long end = head + count;
+        if (segment != null) {
+            try {
+                for (; head < end; head++) {
+                    int slot = slot(head);
+                    segment.append(firstOperands[slot], operators[slot], secondOperands[slot],
+                            results[slot]);
+                }
+                return;
+            } catch (IOException e) {
+                // The spilled results are lost with the file, drop them as well.
+                closeSegment();
+            }
+        }
+        head = end;
+        dropped += head - first;
+        first = head;
+    }
+
+
+    private ResultsSegment segment() {
+        // Positions before head are only kept while the segment is open.
+        //noinspection ConstantConditions
+        return segment;
+    }
+
+    private void openSegment() {
+        try {
+            //noinspection ConstantConditions
+            segment = new ResultsSegment(spillFile);
+        } catch (IOException e) {
+            segment = null;
+        }
+    }
+
+    private void closeSegment() {
+        if (segment == null) {
+            return;
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            // The file is recreated when the segment is opened again.
+        }
+        segment = null;
+    }
+
+    private void allocate(int capacity) {
+        firstOperands = new double[capacity];
+        secondOperands = new double[capacity];
+        operators = new byte[capacity];
+        results = new double[capacity];
+    }
+
+    private int slot(long position) {
+        return (int) (position % results.length);
+    }
+
+    private static int checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+
+    private static final class Snapshot implements Results {
+        private final RingResultsStore store;
+        private final long first;
+        private final int size;
+
+        Snapshot(RingResultsStore store, long first, int size) {
+            this.store = store;
+            this.first = first;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double getFirstOperand(int index) {
+            synchronized (store) {
+                int current = currentIndex(index);
+                return current >= 0 ? store.getFirstOperand(current) : Double.NaN;
+            }
+        }
+
+        @Override
+        public double getSecondOperand(int index) {
+            synchronized (store) {
+                int current = currentIndex(index);
+                return current >= 0 ? store.getSecondOperand(current) : Double.NaN;
+            }
+        }
+
+        @NonNull
+        @Override
+        public Operator getOperator(int index) {
+            synchronized (store) {
+                int current = currentIndex(index);
+                return current >= 0 ? store.getOperator(current) : Operator.ADD;
+            }
+        }
+
+        @Override
+        public double getResult(int index) {
+            synchronized (store) {
+                int current = currentIndex(index);
+                return current >= 0 ? store.getResult(current) : Double.NaN;
+            }
+        }
+
+        @Override
+        public boolean isRetained(int index) {
+            synchronized (store) {
+                return currentIndex(index) >= 0;
+            }
+        }
+
+        @Override
+        public long getRowId(int index) {
+            return first + checkIndex(index, size);
+        }
+
+        // The index of a result in the store now, or -1 if it was dropped or cleared since.
+        private int currentIndex(int index) {
+            long position = first + checkIndex(index, size);
+            return position >= store.first ? (int) (position - store.first) : -1;
+        }
+    }
+}
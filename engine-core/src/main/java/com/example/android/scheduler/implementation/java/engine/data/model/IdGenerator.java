@@ -0,0 +1,69 @@
+package com.example.android.scheduler.implementation.java.engine.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates increasing, positive 64-bit operation ids, one atomic increment per id.
+ *
+ * <p>The ids of a process start at its start time (in milliseconds) shifted left by
+ * {@link #SEED_SHIFT}, above the ids of the previous processes unless one of them took more than
+ * 2^{@value #SEED_SHIFT} ids per millisecond on average. The ids restored from the journal are
+ * passed to {@link #advancePast(long)}, so even then the new ids don't collide with the
+ * operations that are still pending.</p>
+ */
+public final class IdGenerator {
+    private static final int SEED_SHIFT = 10;
+
+    private static final IdGenerator DEFAULT =
+            new IdGenerator(System.currentTimeMillis() << SEED_SHIFT);
+
+    private final AtomicLong last;
+
+    /**
+     * Creates a generator whose first id is the given seed.
+     *
+     * @param seed The first id, positive
+     */
+    public IdGenerator(long seed) {
+        if (seed <= 0) {
+            throw new IllegalArgumentException("The seed must be positive: " + seed);
+        }
+        last = new AtomicLong(seed - 1);
+    }
+
+    /**
+     * Returns the generator used for the operations created without an id.
+     *
+     * @return The default generator.
+     */
+    @NonNull
+    public static IdGenerator getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns a new id, greater than all the ids returned or passed to {@link #advancePast(long)}
+     * before.
+     *
+     * @return The id.
+     */
+    public long next() {
+        return last.incrementAndGet();
+    }
+
+    /**
+     * Makes sure the next ids are greater than the given one.
+     *
+     * @param id An id in use
+     */
+    public void advancePast(long id) {
+        long current;
+        while ((current = last.get()) < id) {
+            if (last.compareAndSet(current, id)) {
+                return;
+            }
+        }
+    }
+}
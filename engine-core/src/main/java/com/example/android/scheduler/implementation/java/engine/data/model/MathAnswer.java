@@ -0,0 +1,60 @@
+package com.example.android.scheduler.implementation.java.engine.data.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * An Immutable model that represents an arithmetic result.
+ *
+ * <p>The result is kept as a number, it is rendered as text only when it is displayed.</p>
+ */
+public final class MathAnswer {
+    private final double firstOperand;
+    private final double secondOperand;
+    @NonNull
+    private final Operator operator;
+    private final double result;
+
+    /**
+     * Constructor for MathAnswer.
+     *
+     * @param firstOperand The first operand of the math equation.
+     * @param secondOperand The second operand of the math equation.
+     * @param operator The operator.
+     * @param result The result of the math equation.
+     */
+    public MathAnswer(double firstOperand, double secondOperand, @NonNull Operator operator,
+                      double result) {
+        this.firstOperand = firstOperand;
+        this.secondOperand = secondOperand;
+        this.operator = operator;
+        this.result = result;
+    }
+
+    public double getFirstOperand() {
+        return firstOperand;
+    }
+
+    public double getSecondOperand() {
+        return secondOperand;
+    }
+
+    @NonNull
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public double getResult() {
+        return result;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "MathAnswer(" +
+                "firstOperand=" + firstOperand + ", " +
+                "secondOperand=" + secondOperand + ", " +
+                "operator=" + operator.name() + ", " +
+                "result=" + result +
+                ")";
+    }
+}
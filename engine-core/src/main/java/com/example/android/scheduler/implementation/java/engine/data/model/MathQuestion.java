@@ -1,14 +1,11 @@
 package com.example.android.scheduler.implementation.java.engine.data.model;
 
-import android.os.Parcel;
-import android.os.Parcelable;
-
 import androidx.annotation.NonNull;
 
 /**
  * An Immutable model that represents a basic mathematical question.
  */
-public final class MathQuestion implements Parcelable {
+public final class MathQuestion {
 
     private final double firstOperand;
     private final double secondOperand;
@@ -31,13 +28,6 @@ public final class MathQuestion implements Parcelable {
         this.delayTime = delayTime;
     }
 
-    private MathQuestion(Parcel in) {
-        firstOperand = in.readDouble();
-        secondOperand = in.readDouble();
-        operator = Operator.values()[in.readInt()];
-        delayTime = in.readLong();
-    }
-
     /**
      * The first operand of the math equation.
      *
@@ -84,29 +74,4 @@ public final class MathQuestion implements Parcelable {
                 "delayTime=" + delayTime +
                 ")";
     }
-
-    @Override
-    public int describeContents() {
-        return 0;
-    }
-
-    @Override
-    public void writeToParcel(Parcel dest, int flags) {
-        dest.writeDouble(firstOperand);
-        dest.writeDouble(secondOperand);
-        dest.writeInt(operator.ordinal());
-        dest.writeLong(delayTime);
-    }
-
-    public static final Parcelable.Creator<MathQuestion> CREATOR = new Parcelable.Creator<MathQuestion>() {
-        @Override
-        public MathQuestion createFromParcel(Parcel source) {
-            return new MathQuestion(source);
-        }
-
-        @Override
-        public MathQuestion[] newArray(int size) {
-            return new MathQuestion[size];
-        }
-    };
 }
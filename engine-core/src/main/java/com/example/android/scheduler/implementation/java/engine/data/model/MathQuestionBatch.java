@@ -0,0 +1,108 @@
+package com.example.android.scheduler.implementation.java.engine.data.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * An Immutable batch of math questions packed into primitive arrays, one array per field, which is
+ * far more compact to ship across processes than one object per question.
+ */
+public final class MathQuestionBatch {
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private final double[] firstOperands;
+    private final double[] secondOperands;
+    private final byte[] operators;
+    private final long[] delayTimes;
+
+    /**
+     * Constructor for MathQuestionBatch, the arrays are not copied.
+     *
+     * @param firstOperands The first operands
+     * @param secondOperands The second operands
+     * @param operators The operators ordinals
+     * @param delayTimes The delay times (in seconds)
+     * @throws IllegalArgumentException if the arrays don't have the same length or an operator
+     * ordinal is not valid
+     */
+    public MathQuestionBatch(@NonNull double[] firstOperands, @NonNull double[] secondOperands,
+                             @NonNull byte[] operators, @NonNull long[] delayTimes) {
+        int size = firstOperands.length;
+        if (secondOperands.length != size || operators.length != size
+                || delayTimes.length != size) {
+            throw new IllegalArgumentException("All the arrays must have the same length.");
+        }
+        for (byte operator : operators) {
+            if (operator < 0 || operator >= OPERATORS.length) {
+                throw new IllegalArgumentException("Invalid operator ordinal: " + operator);
+            }
+        }
+        this.firstOperands = firstOperands;
+        this.secondOperands = secondOperands;
+        this.operators = operators;
+        this.delayTimes = delayTimes;
+    }
+
+    /**
+     * Packs a range of the math questions.
+     *
+     * @param mathQuestions The math questions
+     * @param from The index of the first question (inclusive)
+     * @param to The index of the last question (exclusive)
+     * @return The batch.
+     */
+    @NonNull
+    public static MathQuestionBatch of(@NonNull List<MathQuestion> mathQuestions, int from,
+                                       int to) {
+        int size = to - from;
+        double[] firstOperands = new double[size];
+        double[] secondOperands = new double[size];
+        byte[] operators = new byte[size];
+        long[] delayTimes = new long[size];
+        for (int i = 0; i < size; i++) {
+            MathQuestion mathQuestion = mathQuestions.get(from + i);
+            firstOperands[i] = mathQuestion.getFirstOperand();
+            secondOperands[i] = mathQuestion.getSecondOperand();
+            operators[i] = (byte) mathQuestion.getOperator().ordinal();
+            delayTimes[i] = mathQuestion.getDelayTime();
+        }
+        return new MathQuestionBatch(firstOperands, secondOperands, operators, delayTimes);
+    }
+
+    public int size() {
+        return firstOperands.length;
+    }
+
+    /**
+     * Unpacks the math question at the given index.
+     *
+     * @param index The index
+     * @return The math question.
+     */
+    @NonNull
+    public MathQuestion get(int index) {
+        return new MathQuestion(firstOperands[index], secondOperands[index],
+                OPERATORS[operators[index]], delayTimes[index]);
+    }
+
+    @NonNull
+    public double[] getFirstOperands() {
+        return firstOperands;
+    }
+
+    @NonNull
+    public double[] getSecondOperands() {
+        return secondOperands;
+    }
+
+    @NonNull
+    public byte[] getOperators() {
+        return operators;
+    }
+
+    @NonNull
+    public long[] getDelayTimes() {
+        return delayTimes;
+    }
+}
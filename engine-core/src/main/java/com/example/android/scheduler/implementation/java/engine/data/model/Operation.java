@@ -2,14 +2,35 @@ package com.example.android.scheduler.implementation.java.engine.data.model;
 
 import androidx.annotation.NonNull;
 
-import java.util.UUID;
+import java.util.Comparator;
 
 /**
  * A model that represents an operation.
  */
 public final class Operation {
-    @NonNull
-    private final String id;
+    /**
+     * A value that is never the id of an operation, ids are positive.
+     */
+    public static final long NO_ID = 0;
+
+    /**
+     * Orders operations by end time, ties are broken by start time and then by id, so the order is
+     * total and every list of pending operations (engine or UI) agrees on the position of each one.
+     */
+    public static final Comparator<Operation> END_TIME_ORDER = new Comparator<Operation>() {
+        @Override
+        public int compare(Operation a, Operation b) {
+            if (a.endTime != b.endTime) {
+                return a.endTime < b.endTime ? -1 : 1;
+            }
+            if (a.startTime != b.startTime) {
+                return a.startTime < b.startTime ? -1 : 1;
+            }
+            return a.id < b.id ? -1 : (a.id == b.id ? 0 : 1);
+        }
+    };
+
+    private final long id;
 
     private final long startTime;
     private final long endTime;
@@ -25,19 +46,32 @@ public final class Operation {
      * @param mathQuestion The math question
      */
     public Operation(long startTime, long endTime, @NonNull MathQuestion mathQuestion) {
-        id = UUID.randomUUID().toString();
+        this(IdGenerator.getDefault().next(), startTime, endTime, mathQuestion);
+    }
+
+    /**
+     * Constructor for an operation that already has an id, e.g. one restored from the journal.
+     *
+     * @param id The operation id
+     * @param startTime The operation's start time in milliseconds
+     * @param endTime The operation's end time in milliseconds
+     * @param mathQuestion The math question
+     */
+    public Operation(long id, long startTime, long endTime,
+                     @NonNull MathQuestion mathQuestion) {
+        this.id = id;
         this.startTime = startTime;
         this.endTime = endTime;
         this.mathQuestion = mathQuestion;
     }
 
     /**
-     * ID that uniquely identifies the operation (Generated automatically at construction time).
+     * ID that uniquely identifies the operation (Generated automatically at construction time,
+     * unless given, see {@link IdGenerator}).
      *
      * @return The operation id.
      */
-    @NonNull
-    public String getId() {
+    public long getId() {
         return id;
     }
 
@@ -92,11 +126,11 @@ public final class Operation {
         if (o.getClass() != this.getClass()) return false;
 
         Operation other = (Operation) o;
-        return other.id.equals(id);
+        return other.id == id;
     }
 
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return (int) (id ^ (id >>> 32));
     }
 }
@@ -0,0 +1,90 @@
+package com.example.android.scheduler.implementation.java.engine.simulation;
+
+import androidx.annotation.NonNull;
+
+import java.util.Random;
+
+/**
+ * The delays of the simulated math questions, in seconds like
+ * {@link com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion#getDelayTime()}.
+ */
+public abstract class DelayDistribution {
+    // Nobody asks for a result more than a day ahead.
+    private static final long MAX_DELAY = 24 * 60 * 60;
+
+    /**
+     * Draws the next delay.
+     *
+     * @param random The source of randomness
+     * @return The delay in seconds, at least one.
+     */
+    public abstract long nextDelay(@NonNull Random random);
+
+    /**
+     * Returns delays spread evenly over a range.
+     *
+     * @param min The min delay in seconds, at least one
+     * @param max The max delay in seconds
+     * @return The distribution.
+     */
+    @NonNull
+    public static DelayDistribution uniform(final long min, final long max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Invalid range: [" + min + ", " + max + "]");
+        }
+        return new DelayDistribution() {
+            @Override
+            public long nextDelay(@NonNull Random random) {
+                return min + (long) (random.nextDouble() * (max - min + 1));
+            }
+        };
+    }
+
+    /**
+     * Returns log-normal delays: most of them are close to the median, with a long tail of much
+     * longer ones.
+     *
+     * @param median The median delay in seconds
+     * @param sigma The standard deviation of the logarithm of the delays
+     * @return The distribution.
+     */
+    @NonNull
+    public static DelayDistribution logNormal(final double median, final double sigma) {
+        if (median < 1 || sigma < 0) {
+            throw new IllegalArgumentException("Invalid parameters: " + median + ", " + sigma);
+        }
+        final double mu = Math.log(median);
+        return new DelayDistribution() {
+            @Override
+            public long nextDelay(@NonNull Random random) {
+                double delay = Math.exp(mu + sigma * random.nextGaussian());
+                return Math.max(1, Math.min(MAX_DELAY, Math.round(delay)));
+            }
+        };
+    }
+
+    /**
+     * Returns the delays the app typically sees: 60% of the questions are answered within a
+     * minute, 30% after a few minutes and 10% after half an hour or more, past the in-memory
+     * horizon, see
+     * {@link com.example.android.scheduler.implementation.java.engine.EngineConfig#getMaxInMemoryDelay()}.
+     *
+     * @return The distribution.
+     */
+    @NonNull
+    public static DelayDistribution typical() {
+        final DelayDistribution seconds = uniform(1, 60);
+        final DelayDistribution minutes = logNormal(180, 0.6);
+        final DelayDistribution hours = logNormal(1800, 0.8);
+        return new DelayDistribution() {
+            @Override
+            public long nextDelay(@NonNull Random random) {
+                double p = random.nextDouble();
+                if (p < 0.6) {
+                    return seconds.nextDelay(random);
+                }
+                return p < 0.9 ? minutes.nextDelay(random) : hours.nextDelay(random);
+            }
+        };
+    }
+}
@@ -0,0 +1,558 @@
+package com.example.android.scheduler.implementation.java.engine.simulation;
+
+import androidx.annotation.NonNull;
+
+import com.example.android.scheduler.implementation.java.engine.EngineConfig;
+import com.example.android.scheduler.implementation.java.engine.EngineMetrics;
+import com.example.android.scheduler.implementation.java.engine.Histogram;
+import com.example.android.scheduler.implementation.java.engine.InMemoryScheduler;
+import com.example.android.scheduler.implementation.java.engine.OperationLifecycle;
+import com.example.android.scheduler.implementation.java.engine.Scheduler;
+import com.example.android.scheduler.implementation.java.engine.SchedulerStats;
+import com.example.android.scheduler.implementation.java.engine.TimerWheel;
+import com.example.android.scheduler.implementation.java.engine.data.MutableResults;
+import com.example.android.scheduler.implementation.java.engine.data.PendingOperations;
+import com.example.android.scheduler.implementation.java.engine.data.ResultsStore;
+import com.example.android.scheduler.implementation.java.engine.data.RingResultsStore;
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation;
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A discrete-event simulation of the engine scheduling and completion logic against a
+ * {@link VirtualClock}, to see how a schedule of hours behaves in seconds.
+ *
+ * <p>Questions arrive as a Poisson process, alone or in bursts like
+ * {@code MathEngine.calculateAll()}, with delays drawn from a {@link DelayDistribution}. They are
+ * run through the {@link OperationLifecycle} of {@code MathEngineService}: an operation is added to
+ * the {@link PendingOperations}, held by an {@link InMemoryScheduler} up to
+ * {@link EngineConfig#getMaxInMemoryDelay()} or handed to the backend otherwise, and its result is
+ * appended to the results store of {@link EngineConfig#getResultsStorage()} (the mapped file is
+ * simulated by the heap store). The backend, WorkManager on a device, is modeled as a one second
+ * timer that delivers every result late by an exponentially distributed delay. The clock jumps
+ * from one event (an arrival or a timer tick) to the next, so nothing waits.</p>
+ *
+ * <p>The {@link Report} has the throughput, the lateness and the memory high-water marks. The
+ * virtual figures only depend on the parameters and the seed. Run it with
+ * {@code ./gradlew :engine-core:simulate}, see {@link #main(String[])}.</p>
+ */
+public final class SchedulerSimulation {
+    // Any fixed time, the operations only see durations.
+    private static final long START_TIME = 1_600_000_000_000L;
+    private static final long BACKEND_TICK = 1000;
+    private static final int BACKEND_WHEEL_SIZE = 4096;
+    // The JVM heap is sampled every that many events, reading it is not free.
+    private static final int HEAP_SAMPLE_INTERVAL = 4096;
+    private static final Operator[] OPERATORS = Operator.values();
+
+    private final EngineConfig engineConfig;
+    private final int operationCount;
+    private final double arrivalRate;
+    private final double burstProbability;
+    private final int burstSize;
+    private final DelayDistribution delays;
+    private final long backendMeanLateness;
+    private final long seed;
+
+    private SchedulerSimulation(@NonNull Builder builder) {
+        engineConfig = builder.engineConfig;
+        operationCount = builder.operationCount;
+        arrivalRate = builder.arrivalRate;
+        burstProbability = builder.burstProbability;
+        burstSize = builder.burstSize;
+        delays = builder.delays;
+        backendMeanLateness = builder.backendMeanLateness;
+        seed = builder.seed;
+    }
+
+    /**
+     * Runs the simulation until every operation is answered.
+     *
+     * @return The report.
+     */
+    @NonNull
+    public Report run() {
+        return new Run().execute();
+    }
+
+    /**
+     * Runs the simulation and prints its report, the optional arguments are
+     * {@code --operations <count>}, {@code --rate <questions per second>} and
+     * {@code --seed <seed>}.
+     *
+     * @param args The arguments
+     */
+    public static void main(String[] args) {
+        Builder builder = new Builder();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--operations":
+                    builder.setOperationCount(Integer.parseInt(args[i + 1]));
+                    break;
+                case "--rate":
+                    builder.setArrivalRate(Double.parseDouble(args[i + 1]));
+                    break;
+                case "--seed":
+                    builder.setSeed(Long.parseLong(args[i + 1]));
+                    break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(1);
+            }
+        }
+        System.out.println(builder.build().run());
+    }
+
+    // The state of one run.
+    private final class Run {
+        private final Random random = new Random(seed);
+        private final VirtualClock clock = new VirtualClock(START_TIME);
+        private final PendingOperations pending = new PendingOperations();
+        private final MutableResults results = createResults();
+        private final EngineMetrics metrics = new EngineMetrics();
+        private final Histogram inMemoryLateness = new Histogram();
+        private final Histogram backendLateness = new Histogram();
+        private final InMemoryScheduler inMemoryScheduler;
+        private final SimulatedBackend backend = new SimulatedBackend();
+        private final OperationLifecycle lifecycle;
+
+        private long nextId = 1;
+        private int submitted;
+        private long events;
+        private int maxPending;
+        private int maxInMemory;
+        private long maxResultsMemory;
+        private long maxHeap;
+
+        private final TimerWheel.Listener<Operation> inMemoryListener =
+                new TimerWheel.Listener<Operation>() {
+            @Override
+            public void onExpired(@NonNull Operation operation) {
+                lifecycle.evaluate(operation);
+            }
+        };
+
+        private final OperationLifecycle.Listener answeredListener =
+                new OperationLifecycle.Listener() {
+            @Override
+            public void onAnswered(@NonNull Operation operation, double result,
+                                   long answeredTime) {
+                Histogram lateness = lifecycle.isScheduledInMemory(operation)
+                        ? inMemoryLateness : backendLateness;
+                lateness.record(answeredTime - operation.getEndTime());
+                maxResultsMemory = Math.max(maxResultsMemory, results.getMemoryUsage());
+            }
+        };
+
+        Run() {
+            inMemoryScheduler = new InMemoryScheduler(engineConfig.getTimerTick(),
+                    engineConfig.getTimerWheelSize(), START_TIME, inMemoryListener);
+            lifecycle = new OperationLifecycle(engineConfig, clock, pending, results,
+                    inMemoryScheduler, backend, metrics, answeredListener);
+        }
+
+        @NonNull
+        Report execute() {
+            long wallStart = System.nanoTime();
+            double nextArrival = START_TIME;
+            while (submitted < operationCount || !pending.isEmpty()) {
+                long next = Long.MAX_VALUE;
+                if (submitted < operationCount) {
+                    next = (long) nextArrival;
+                }
+                if (!inMemoryScheduler.isEmpty()) {
+                    next = Math.min(next, inMemoryScheduler.nextTickTime());
+                }
+                if (!backend.isEmpty()) {
+                    next = Math.min(next, backend.nextTickTime());
+                }
+                long now = Math.max(clock.currentTimeMillis(), next);
+                clock.advanceTo(now);
+                if (submitted < operationCount && (long) nextArrival <= now) {
+                    int count = random.nextDouble() < burstProbability ? burstSize : 1;
+                    submit(Math.min(count, operationCount - submitted), now);
+                    nextArrival += -Math.log(1 - random.nextDouble()) * 1000 / arrivalRate;
+                }
+                if (!inMemoryScheduler.isEmpty() && inMemoryScheduler.nextTickTime() <= now) {
+                    inMemoryScheduler.advance(now);
+                }
+                if (!backend.isEmpty() && backend.nextTickTime() <= now) {
+                    backend.advance(now);
+                }
+                if (++events % HEAP_SAMPLE_INTERVAL == 0) {
+                    sampleHeap();
+                }
+            }
+            sampleHeap();
+            long wallNanos = System.nanoTime() - wallStart;
+            long virtualMillis = clock.currentTimeMillis() - START_TIME;
+            EngineMetrics.Snapshot snapshot = metrics.snapshot(clock.currentTimeMillis());
+            results.close();
+            return new Report(operationCount, events, virtualMillis, wallNanos, snapshot,
+                    inMemoryLateness.snapshot(), backendLateness.snapshot(), maxPending,
+                    maxInMemory, maxResultsMemory, maxHeap);
+        }
+
+        private void submit(int count, long now) {
+            for (int i = 0; i < count; i++) {
+                long delay = delays.nextDelay(random);
+                MathQuestion question = new MathQuestion(random.nextInt(100), random.nextInt(100),
+                        OPERATORS[random.nextInt(OPERATORS.length)], delay);
+                lifecycle.submit(nextId++, question, now);
+            }
+            submitted += count;
+            maxPending = Math.max(maxPending, pending.size());
+            maxInMemory = Math.max(maxInMemory, inMemoryScheduler.size());
+        }
+
+        private void sampleHeap() {
+            Runtime runtime = Runtime.getRuntime();
+            maxHeap = Math.max(maxHeap, runtime.totalMemory() - runtime.freeMemory());
+        }
+
+        @NonNull
+        private MutableResults createResults() {
+            if (engineConfig.getResultsStorage() == EngineConfig.ResultsStorage.RING) {
+                try {
+                    return new RingResultsStore((int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                            engineConfig.getResultsMemoryBudget() / RingResultsStore.RESULT_SIZE)),
+                            null);
+                } catch (IOException e) {
+                    // Never thrown without a spill file.
+                    throw new IllegalStateException(e);
+                }
+            }
+            return new ResultsStore();
+        }
+
+        // The backend delivers the results it computed, late by a random delay.
+        private final class SimulatedBackend implements Scheduler {
+            private final TimerWheel<Operation> wheel =
+                    new TimerWheel<>(BACKEND_TICK, BACKEND_WHEEL_SIZE, START_TIME);
+            private final SchedulerStats stats = new SchedulerStats("simulated");
+
+            private final TimerWheel.Listener<Operation> deliveryListener =
+                    new TimerWheel.Listener<Operation>() {
+                @Override
+                public void onExpired(@NonNull Operation operation) {
+                    MathQuestion question = operation.getMathQuestion();
+                    lifecycle.deliver(operation.getId(), question.getOperator().compute(
+                            question.getFirstOperand(), question.getSecondOperand()),
+                            clock.currentTimeMillis());
+                }
+            };
+
+            @Override
+            public void schedule(@NonNull Operation operation) {
+                long lateness = (long) (-Math.log(1 - random.nextDouble()) * backendMeanLateness);
+                wheel.schedule(operation, operation.getEndTime() + lateness);
+            }
+
+            @Override
+            public void cancelAll(@NonNull Collection<Operation> operations) {
+                wheel.clear();
+            }
+
+            @NonNull
+            @Override
+            public SchedulerStats getStats() {
+                return stats;
+            }
+
+            boolean isEmpty() {
+                return wheel.isEmpty();
+            }
+
+            long nextTickTime() {
+                return wheel.nextTickTime();
+            }
+
+            void advance(long now) {
+                wheel.advance(now, deliveryListener);
+            }
+        }
+    }
+
+    /**
+     * The outcome of a simulation, immutable.
+     */
+    public static final class Report {
+        private final int operationCount;
+        private final long eventCount;
+        private final long virtualMillis;
+        private final long wallNanos;
+        @NonNull
+        private final EngineMetrics.Snapshot metrics;
+        @NonNull
+        private final Histogram.Snapshot inMemoryLateness;
+        @NonNull
+        private final Histogram.Snapshot backendLateness;
+        private final int maxPendingCount;
+        private final int maxInMemoryCount;
+        private final long maxResultsMemory;
+        private final long maxHeap;
+
+        Report(int operationCount, long eventCount, long virtualMillis, long wallNanos,
+               @NonNull EngineMetrics.Snapshot metrics,
+               @NonNull Histogram.Snapshot inMemoryLateness,
+               @NonNull Histogram.Snapshot backendLateness, int maxPendingCount,
+               int maxInMemoryCount, long maxResultsMemory, long maxHeap) {
+            this.operationCount = operationCount;
+            this.eventCount = eventCount;
+            this.virtualMillis = virtualMillis;
+            this.wallNanos = wallNanos;
+            this.metrics = metrics;
+            this.inMemoryLateness = inMemoryLateness;
+            this.backendLateness = backendLateness;
+            this.maxPendingCount = maxPendingCount;
+            this.maxInMemoryCount = maxInMemoryCount;
+            this.maxResultsMemory = maxResultsMemory;
+            this.maxHeap = maxHeap;
+        }
+
+        public int getOperationCount() {
+            return operationCount;
+        }
+
+        /**
+         * Returns the number of times the virtual clock moved: arrivals and timer ticks.
+         *
+         * @return The event count.
+         */
+        public long getEventCount() {
+            return eventCount;
+        }
+
+        /**
+         * Returns the simulated duration, from the first arrival to the last result.
+         *
+         * @return The duration in milliseconds.
+         */
+        public long getVirtualMillis() {
+            return virtualMillis;
+        }
+
+        /**
+         * Returns the time the simulation took to run.
+         *
+         * @return The duration in nanoseconds.
+         */
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * Returns the number of operations simulated per second of real time.
+         *
+         * @return The throughput.
+         */
+        public double getThroughput() {
+            return wallNanos > 0 ? operationCount * 1e9 / wallNanos : 0;
+        }
+
+        /**
+         * Returns the engine metrics recorded over the simulation, the results rate is the one of
+         * the last virtual seconds.
+         *
+         * @return The metrics.
+         */
+        @NonNull
+        public EngineMetrics.Snapshot getMetrics() {
+            return metrics;
+        }
+
+        /**
+         * Returns the lateness of the results answered by the in-memory scheduler.
+         *
+         * @return The lateness histogram (in milliseconds).
+         */
+        @NonNull
+        public Histogram.Snapshot getInMemoryLateness() {
+            return inMemoryLateness;
+        }
+
+        /**
+         * Returns the lateness of the results answered by the backend.
+         *
+         * @return The lateness histogram (in milliseconds).
+         */
+        @NonNull
+        public Histogram.Snapshot getBackendLateness() {
+            return backendLateness;
+        }
+
+        public int getMaxPendingCount() {
+            return maxPendingCount;
+        }
+
+        public int getMaxInMemoryCount() {
+            return maxInMemoryCount;
+        }
+
+        /**
+         * Returns the most memory the results store held, see
+         * {@link MutableResults#getMemoryUsage()}.
+         *
+         * @return The memory in bytes.
+         */
+        public long getMaxResultsMemory() {
+            return maxResultsMemory;
+        }
+
+        /**
+         * Returns the most JVM heap in use, sampled, it includes the garbage not collected yet.
+         *
+         * @return The memory in bytes.
+         */
+        public long getMaxHeap() {
+            return maxHeap;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "operations=%d, events=%d, simulated %ds in %dms (%.0f operations/s)%n"
+                            + "latency (ms): %s%nlateness (ms): %s%n"
+                            + "  in-memory: %s%n  backend: %s%n"
+                            + "max pending=%d (in memory %d), max results memory=%d bytes, "
+                            + "max heap=%d bytes",
+                    operationCount, eventCount, TimeUnit.MILLISECONDS.toSeconds(virtualMillis),
+                    TimeUnit.NANOSECONDS.toMillis(wallNanos), getThroughput(),
+                    metrics.getLatency(), metrics.getLateness(), inMemoryLateness,
+                    backendLateness, maxPendingCount, maxInMemoryCount, maxResultsMemory, maxHeap);
+        }
+    }
+
+    /**
+     * Builder for the {@link SchedulerSimulation}.
+     */
+    public static final class Builder {
+        static final int DEFAULT_OPERATION_COUNT = 1_000_000;
+        static final double DEFAULT_ARRIVAL_RATE = 200;
+        static final double DEFAULT_BURST_PROBABILITY = 0.01;
+        static final int DEFAULT_BURST_SIZE = 100;
+        static final long DEFAULT_BACKEND_MEAN_LATENESS = 2000;
+        static final long DEFAULT_SEED = 42;
+
+        private EngineConfig engineConfig = new EngineConfig.Builder().build();
+        private int operationCount = DEFAULT_OPERATION_COUNT;
+        private double arrivalRate = DEFAULT_ARRIVAL_RATE;
+        private double burstProbability = DEFAULT_BURST_PROBABILITY;
+        private int burstSize = DEFAULT_BURST_SIZE;
+        private DelayDistribution delays = DelayDistribution.typical();
+        private long backendMeanLateness = DEFAULT_BACKEND_MEAN_LATENESS;
+        private long seed = DEFAULT_SEED;
+
+        /**
+         * Sets the engine configuration: the timer, the in-memory horizon and the results storage.
+         *
+         * @param engineConfig The engine configuration
+         * @return The builder instance.
+         */
+        @NonNull
+        public Builder setEngineConfig(@NonNull EngineConfig engineConfig) {
+            this.engineConfig = engineConfig;
+            return this;
+        }
+
+        /**
+         * Sets the number of operations.
+         *
+         * @param operationCount The number of operations, at least one
+         * @return The builder instance.
+         */
+        @NonNull
+        public Builder setOperationCount(int operationCount) {
+            if (operationCount < 1) {
+                throw new IllegalArgumentException("Invalid operation count: " + operationCount);
+            }
+            this.operationCount = operationCount;
+            return this;
+        }
+
+        /**
+         * Sets the mean number of arrivals (single questions or bursts) per second.
+         *
+         * @param arrivalRate The arrival rate, positive
+         * @return The builder instance.
+         */
+        @NonNull
+        public Builder setArrivalRate(double arrivalRate) {
+            if (!(arrivalRate > 0)) {
+                throw new IllegalArgumentException("Invalid arrival rate: " + arrivalRate);
+            }
+            this.arrivalRate = arrivalRate;
+            return this;
+        }
+
+        /**
+         * Sets how often an arrival is a burst of questions instead of a single one.
+         *
+         * @param burstProbability The probability of a burst, between 0 and 1
+         * @param burstSize The number of questions in a burst, at least one
+         * @return The builder instance.
+         */
+        @NonNull
+        public Builder setBursts(double burstProbability, int burstSize) {
+            if (burstProbability < 0 || burstProbability > 1 || burstSize < 1) {
+                throw new IllegalArgumentException(
+                        "Invalid bursts: " + burstProbability + ", " + burstSize);
+            }
+            this.burstProbability = burstProbability;
+            this.burstSize = burstSize;
+            return this;
+        }
+
+        /**
+         * Sets the distribution of the question delays.
+         *
+         * @param delays The delay distribution
+         * @return The builder instance.
+         */
+        @NonNull
+        public Builder setDelays(@NonNull DelayDistribution delays) {
+            this.delays = delays;
+            return this;
+        }
+
+        /**
+         * Sets the mean lateness of the results answered by the backend.
+         *
+         * @param backendMeanLateness The mean lateness in milliseconds
+         * @return The builder instance.
+         */
+        @NonNull
+        public Builder setBackendMeanLateness(long backendMeanLateness) {
+            if (backendMeanLateness < 0) {
+                throw new IllegalArgumentException(
+                        "Invalid backend lateness: " + backendMeanLateness);
+            }
+            this.backendMeanLateness = backendMeanLateness;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random arrivals, delays and lateness.
+         *
+         * @param seed The seed
+         * @return The builder instance.
+         */
+        @NonNull
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        @NonNull
+        public SchedulerSimulation build() {
+            return new SchedulerSimulation(this);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.android.scheduler.implementation.java.engine.simulation;
+
+import com.example.android.scheduler.implementation.java.engine.Clock;
+
+/**
+ * A {@link Clock} that only moves when it is told to.
+ *
+ * <p>This class is <strong>not thread safe</strong>.</p>
+ */
+public final class VirtualClock implements Clock {
+    private long now;
+
+    /**
+     * Constructor for the VirtualClock.
+     *
+     * @param startTime The initial time in milliseconds
+     */
+    public VirtualClock(long startTime) {
+        now = startTime;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param time The new time in milliseconds, not before the current time
+     */
+    public void advanceTo(long time) {
+        if (time < now) {
+            throw new IllegalArgumentException(
+                    "The time can't go backwards: " + time + " < " + now);
+        }
+        now = time;
+    }
+
+    /**
+     * Moves the clock forward by the given duration.
+     *
+     * @param millis The duration in milliseconds
+     */
+    public void advanceBy(long millis) {
+        advanceTo(now + millis);
+    }
+}
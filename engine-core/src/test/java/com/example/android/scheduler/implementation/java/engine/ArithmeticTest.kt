@@ -0,0 +1,29 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+class ArithmeticTest {
+
+    @Test
+    fun evaluate_mathQuestion() {
+        val result = Arithmetic.evaluate(MathQuestion(1.0, 2.0, Operator.ADD, 0L))
+        assertThat(result, `is`(equalTo("1.00 + 2.00 = 3.00")))
+    }
+
+    @Test
+    fun evaluate_roundsToTwoDecimals() {
+        val result = Arithmetic.evaluate(10.0, Operator.DIVIDE, 3.0)
+        assertThat(result, `is`(equalTo("10.00 / 3.00 = 3.33")))
+    }
+
+    @Test
+    fun format_divisionByZero() {
+        val result = Arithmetic.format(1.0, Operator.DIVIDE, 0.0, Operator.DIVIDE.compute(1.0, 0.0))
+        assertThat(result, `is`(equalTo("1.00 / 0.00 = Infinity")))
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+class EngineConfigTest {
+
+    companion object {
+        private const val TIMER_TICK = 10L
+        private const val TIMER_WHEEL_SIZE = 64
+        private const val MAX_IN_MEMORY_DELAY = 60_000L
+        private const val COALESCING_WINDOW = 500L
+        private const val RESULTS_MEMORY_BUDGET = 64 * 1024L
+        private const val MAX_NOTIFICATION_UPDATE_RATE = 10
+        private const val UNKNOWN_CONSTANT = 42
+    }
+
+    @Test
+    fun builder_withDefaultValues() {
+        val config = EngineConfig.Builder().build()
+
+        assertEquals(config.schedulerBackend, EngineConfig.Builder.DEFAULT_SCHEDULER_BACKEND)
+        assertEquals(config.timerTick, EngineConfig.Builder.DEFAULT_TIMER_TICK)
+        assertEquals(config.timerWheelSize, EngineConfig.Builder.DEFAULT_TIMER_WHEEL_SIZE)
+        assertEquals(config.maxInMemoryDelay, EngineConfig.Builder.DEFAULT_MAX_IN_MEMORY_DELAY)
+        assertEquals(config.coalescingWindow, EngineConfig.Builder.DEFAULT_COALESCING_WINDOW)
+        assertEquals(config.resultsStorage, EngineConfig.Builder.DEFAULT_RESULTS_STORAGE)
+        assertEquals(config.resultsMemoryBudget, EngineConfig.Builder.DEFAULT_RESULTS_MEMORY_BUDGET)
+        assertEquals(config.resultsEviction, EngineConfig.Builder.DEFAULT_RESULTS_EVICTION)
+        assertEquals(config.maxNotificationUpdateRate,
+                EngineConfig.Builder.DEFAULT_MAX_NOTIFICATION_UPDATE_RATE)
+    }
+
+    @Test
+    fun builder_constructsObjects_correctly() {
+        val config = EngineConfig.Builder()
+            .setSchedulerBackend(EngineConfig.SchedulerBackend.ALARM_MANAGER)
+            .setTimerTick(TIMER_TICK)
+            .setTimerWheelSize(TIMER_WHEEL_SIZE)
+            .setMaxInMemoryDelay(MAX_IN_MEMORY_DELAY)
+            .setCoalescingWindow(COALESCING_WINDOW)
+            .setResultsStorage(EngineConfig.ResultsStorage.RING)
+            .setResultsMemoryBudget(RESULTS_MEMORY_BUDGET)
+            .setResultsEviction(EngineConfig.ResultsEviction.DROP)
+            .setMaxNotificationUpdateRate(MAX_NOTIFICATION_UPDATE_RATE)
+            .build()
+
+        assertThat(config.schedulerBackend, `is`(equalTo(EngineConfig.SchedulerBackend.ALARM_MANAGER)))
+        assertThat(config.timerTick, `is`(equalTo(TIMER_TICK)))
+        assertThat(config.timerWheelSize, `is`(equalTo(TIMER_WHEEL_SIZE)))
+        assertThat(config.maxInMemoryDelay, `is`(equalTo(MAX_IN_MEMORY_DELAY)))
+        assertThat(config.coalescingWindow, `is`(equalTo(COALESCING_WINDOW)))
+        assertThat(config.resultsStorage, `is`(equalTo(EngineConfig.ResultsStorage.RING)))
+        assertThat(config.resultsMemoryBudget, `is`(equalTo(RESULTS_MEMORY_BUDGET)))
+        assertThat(config.resultsEviction, `is`(equalTo(EngineConfig.ResultsEviction.DROP)))
+        assertThat(config.maxNotificationUpdateRate, `is`(equalTo(MAX_NOTIFICATION_UPDATE_RATE)))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun build_nonPositiveTimerTick_throws() {
+        EngineConfig.Builder().setTimerTick(0).build()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun build_timerWheelSizeNotPowerOfTwo_throws() {
+        EngineConfig.Builder().setTimerWheelSize(100).build()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun build_negativeCoalescingWindow_throws() {
+        EngineConfig.Builder().setCoalescingWindow(-1).build()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun build_nonPositiveResultsMemoryBudget_throws() {
+        EngineConfig.Builder().setResultsMemoryBudget(0).build()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun build_zeroNotificationUpdateRate_throws() {
+        EngineConfig.Builder().setMaxNotificationUpdateRate(0).build()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun build_unknownSchedulerBackend_throws() {
+        EngineConfig.Builder().setSchedulerBackend(UNKNOWN_CONSTANT).build()
+    }
+
+    @Test
+    fun build_negativeMaxInMemoryDelay_isAllowed() {
+        val config = EngineConfig.Builder().setMaxInMemoryDelay(-1).build()
+
+        assertThat(config.maxInMemoryDelay, `is`(equalTo(-1L)))
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.After
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class EngineLoopTest {
+
+    companion object {
+        private const val TIMEOUT = 5_000L
+    }
+
+    private val idleCount = AtomicInteger()
+    private val loop = EngineLoop("engine-test") { idleCount.incrementAndGet() }
+
+    @After
+    fun tearDown() {
+        loop.quit()
+        assertTrue(loop.awaitTermination(TIMEOUT))
+    }
+
+    @Test
+    fun post_runsCommandsInOrder_onLoopThread() {
+        val executed = mutableListOf<Int>()
+        val done = CountDownLatch(1)
+        loop.start()
+
+        for (i in 0 until 100) {
+            loop.post {
+                assertTrue(loop.isLoopThread())
+                executed.add(i)
+            }
+        }
+        loop.post { done.countDown() }
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS))
+        assertThat(executed, `is`(equalTo((0 until 100).toList())))
+        assertFalse(loop.isLoopThread())
+    }
+
+    @Test
+    fun burst_runsIdleHandlerOncePerDrain() {
+        val done = CountDownLatch(1)
+        val release = CountDownLatch(1)
+        loop.start()
+        // Holds the loop while the burst is posted.
+        loop.post { release.await() }
+        repeat(1_000) { loop.post { } }
+        loop.post { done.countDown() }
+        val idleBefore = idleCount.get()
+
+        release.countDown()
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS))
+        loop.quit()
+        assertTrue(loop.awaitTermination(TIMEOUT))
+        assertTrue(idleCount.get() - idleBefore <= 1)
+    }
+
+    @Test
+    fun concurrentProducers_runEveryCommand() {
+        val producers = 4
+        val perProducer = 50_000
+        val counts = IntArray(producers)
+        val done = CountDownLatch(producers)
+        loop.start()
+
+        val threads = (0 until producers).map { p ->
+            thread {
+                for (i in 0 until perProducer) {
+                    // Only the loop thread touches the counts.
+                    loop.post { counts[p]++ }
+                }
+                loop.post { done.countDown() }
+            }
+        }
+        threads.forEach { it.join() }
+
+        assertTrue(done.await(TIMEOUT, TimeUnit.MILLISECONDS))
+        loop.post { }
+        loop.quit()
+        assertTrue(loop.awaitTermination(TIMEOUT))
+        assertThat(counts.toList(), `is`(equalTo(List(producers) { perProducer })))
+    }
+
+    @Test
+    fun setTimer_runsTaskAfterDelay_andLastTimerWins() {
+        val fired = CountDownLatch(1)
+        val first = AtomicInteger()
+        val start = System.nanoTime()
+        loop.start()
+
+        loop.post {
+            loop.setTimer({ first.incrementAndGet() }, 10)
+            loop.setTimer({ fired.countDown() }, 50)
+        }
+
+        assertTrue(fired.await(TIMEOUT, TimeUnit.MILLISECONDS))
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50)
+        assertThat(first.get(), `is`(equalTo(0)))
+    }
+
+    @Test
+    fun quit_runsPostedCommands_andRejectsLaterOnes() {
+        val executed = AtomicInteger()
+        loop.post { executed.incrementAndGet() }
+        loop.post { loop.setTimer({ executed.incrementAndGet() }, TIMEOUT) }
+
+        loop.quit()
+        loop.start()
+
+        assertFalse(loop.post { executed.incrementAndGet() })
+        assertTrue(loop.awaitTermination(TIMEOUT))
+        assertThat(executed.get(), `is`(equalTo(1)))
+    }
+}
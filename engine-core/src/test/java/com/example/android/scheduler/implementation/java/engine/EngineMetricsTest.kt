@@ -0,0 +1,34 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+class EngineMetricsTest {
+
+    @Test
+    fun recordResult_tracksLatencyAndLateness() {
+        val metrics = EngineMetrics()
+        metrics.recordResult(1_000L, 3_000L, 3_010L)
+        // Early results are not late.
+        metrics.recordResult(1_000L, 3_000L, 2_990L)
+
+        val snapshot = metrics.snapshot(4_000L)
+        assertThat(snapshot.latency.max, `is`(equalTo(2_010L)))
+        assertThat(snapshot.lateness.max, `is`(equalTo(10L)))
+        assertThat(snapshot.lateness.getValueAtPercentile(50.0), `is`(equalTo(0L)))
+        assertThat(snapshot.resultCount, `is`(equalTo(2L)))
+    }
+
+    @Test
+    fun pendingDepth_keepsMaximum() {
+        val metrics = EngineMetrics()
+        metrics.recordPendingDepth(7)
+        metrics.recordPendingDepth(3)
+
+        val snapshot = metrics.snapshot(0L)
+        assertThat(snapshot.pendingDepth, `is`(equalTo(3L)))
+        assertThat(snapshot.maxPendingDepth, `is`(equalTo(7L)))
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.not
+import org.hamcrest.CoreMatchers.nullValue
+import org.junit.After
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+class EngineTraceTest {
+
+    companion object {
+        private const val SECTION = "Section"
+    }
+
+    private val sections = mutableListOf<String>()
+
+    private val tracer = object : Tracer {
+        override fun beginSection(name: String) {
+            sections.add("begin $name")
+        }
+
+        override fun endSection() {
+            sections.add("end")
+        }
+
+        override fun beginAsyncSection(name: String, cookie: Int) {
+            sections.add("begin $name $cookie")
+        }
+
+        override fun endAsyncSection(name: String, cookie: Int) {
+            sections.add("end $name $cookie")
+        }
+    }
+
+    @After
+    fun tearDown() {
+        EngineTrace.setTracer(null)
+    }
+
+    @Test
+    fun disabled_tracesNothing() {
+        val begun = EngineTrace.beginSection(SECTION)
+        EngineTrace.endSection(begun)
+        EngineTrace.beginAsyncSection(EngineTrace.OPERATION, 1L)
+
+        assertFalse(EngineTrace.isEnabled())
+        assertThat(begun, `is`(nullValue()))
+        assertThat(sections.isEmpty(), `is`(true))
+    }
+
+    @Test
+    fun enabled_tracesSections() {
+        EngineTrace.setTracer(tracer)
+
+        val begun = EngineTrace.beginSection(SECTION)
+        EngineTrace.beginAsyncSection(EngineTrace.OPERATION, 7L)
+        EngineTrace.endSection(begun)
+        EngineTrace.endAsyncSection(EngineTrace.OPERATION, 7L)
+
+        assertThat(sections, `is`(equalTo(listOf("begin Section", "begin Operation 7", "end",
+                "end Operation 7"))))
+    }
+
+    @Test
+    fun sectionBegunBeforeDisabling_isEnded() {
+        EngineTrace.setTracer(tracer)
+        val begun = EngineTrace.beginSection(SECTION)
+        EngineTrace.setTracer(null)
+
+        EngineTrace.endSection(begun)
+
+        assertThat(sections, `is`(equalTo(listOf("begin Section", "end"))))
+    }
+
+    @Test
+    fun cookies_differForLargeIds() {
+        val id = 1L shl 32
+
+        assertThat(EngineTrace.cookie(id), `is`(not(equalTo(EngineTrace.cookie(0L)))))
+        assertThat(EngineTrace.cookie(id + 1), `is`(not(equalTo(EngineTrace.cookie(id)))))
+    }
+}
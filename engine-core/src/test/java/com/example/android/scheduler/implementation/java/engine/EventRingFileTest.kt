@@ -0,0 +1,52 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+
+class EventRingFileTest {
+
+    companion object {
+        private const val CAPACITY = 1024
+    }
+
+    @Test
+    fun exportedEvents_areDecoded() {
+        val ring = EventRing(CAPACITY)
+        // More events than the ring holds, with negative deltas and arguments.
+        for (i in 0L until 1_500L) {
+            ring.record(EventRing.SUBMIT + (i % 7).toInt(), 1_000_000L - i * 3, (i - 700).toInt(),
+                    1_600_000_000_000L + i * 17)
+        }
+        ring.record(EventRing.CANCEL, -1L, Int.MIN_VALUE, Long.MAX_VALUE)
+        val out = ByteArrayOutputStream()
+
+        val exported = EventRingFile.export(ring, out)
+        val decoded = EventRingFile.decode(ByteArrayInputStream(out.toByteArray()))
+
+        assertThat(exported, `is`(equalTo(CAPACITY)))
+        assertThat(decoded.map { it.toString() },
+                `is`(equalTo(ring.getLatestEvents(CAPACITY).map { it.toString() })))
+        // About a quarter of the 32 bytes an event takes in the ring.
+        assertTrue(out.size() < CAPACITY * 10)
+    }
+
+    @Test
+    fun emptyRing_isExported() {
+        val out = ByteArrayOutputStream()
+
+        EventRingFile.export(EventRing(CAPACITY), out)
+
+        assertTrue(EventRingFile.decode(ByteArrayInputStream(out.toByteArray())).isEmpty())
+    }
+
+    @Test(expected = IOException::class)
+    fun otherFile_isRejected() {
+        EventRingFile.decode(ByteArrayInputStream("results".toByteArray()))
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+class EventRingTest {
+
+    companion object {
+        private const val CAPACITY = 8
+    }
+
+    @Test
+    fun latestEvents_areReadOldestFirst() {
+        val ring = EventRing(CAPACITY)
+        ring.record(EventRing.SUBMIT, 1L, 60, 1_000L)
+        ring.record(EventRing.RESULT, 1L, -5, 61_000L)
+
+        val events = ring.getLatestEvents(10)
+        assertThat(events.size, `is`(equalTo(2)))
+        assertThat(events[0].type, `is`(equalTo(EventRing.SUBMIT)))
+        assertThat(events[0].argument, `is`(equalTo(60)))
+        assertThat(events[1].time, `is`(equalTo(61_000L)))
+        assertThat(events[1].operationId, `is`(equalTo(1L)))
+        assertThat(events[1].argument, `is`(equalTo(-5)))
+    }
+
+    @Test
+    fun oldestEvents_areOverwritten() {
+        val ring = EventRing(CAPACITY - 1)
+        for (id in 0L until 20L) {
+            ring.record(EventRing.SCHEDULE, id, 0, id)
+        }
+
+        val events = ring.getLatestEvents(100)
+        assertThat(ring.capacity, `is`(equalTo(CAPACITY)))
+        assertThat(ring.recordedCount, `is`(equalTo(20L)))
+        assertThat(events.map { it.operationId }, `is`(equalTo((12L until 20L).toList())))
+        assertThat(ring.getLatestEvents(3).map { it.sequence },
+                `is`(equalTo(listOf(17L, 18L, 19L))))
+    }
+
+    @Test
+    fun concurrentWriters_neverProduceTornEvents() {
+        val ring = EventRing(CAPACITY)
+        val start = CountDownLatch(1)
+        val writers = (1..4).map { writer ->
+            thread {
+                start.await()
+                for (i in 0 until 100_000) {
+                    // The operation id and the argument of an event always match.
+                    ring.record(EventRing.RESULT, writer * 1_000_000L + i, writer, i.toLong())
+                }
+            }
+        }
+        start.countDown()
+        while (writers.any { it.isAlive }) {
+            for (event in ring.getLatestEvents(CAPACITY)) {
+                assertThat(event.operationId / 1_000_000L, `is`(equalTo(event.argument.toLong())))
+                assertThat(event.operationId % 1_000_000L, `is`(equalTo(event.time)))
+            }
+        }
+        assertTrue(ring.getLatestEvents(CAPACITY).size <= CAPACITY)
+        assertThat(ring.recordedCount, `is`(equalTo(400_000L)))
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class HistogramTest {
+
+    @Test
+    fun smallValues_areExact() {
+        val histogram = Histogram()
+        for (value in 1L..20L) {
+            histogram.record(value)
+        }
+
+        val snapshot = histogram.snapshot()
+        assertThat(snapshot.count, `is`(equalTo(20L)))
+        assertThat(snapshot.max, `is`(equalTo(20L)))
+        assertThat(snapshot.mean, `is`(equalTo(10.5)))
+        assertThat(snapshot.getValueAtPercentile(50.0), `is`(equalTo(10L)))
+        assertThat(snapshot.getValueAtPercentile(100.0), `is`(equalTo(20L)))
+    }
+
+    @Test
+    fun largeValues_areWithinBucketPrecision() {
+        val histogram = Histogram()
+        for (value in 1L..100_000L) {
+            histogram.record(value * 1_000L)
+        }
+
+        val snapshot = histogram.snapshot()
+        val p99 = snapshot.getValueAtPercentile(99.0)
+        assertTrue(p99 >= 99_000_000L)
+        assertTrue(p99 <= 99_000_000L * 33 / 32)
+        assertThat(snapshot.getValueAtPercentile(100.0), `is`(equalTo(100_000_000L)))
+    }
+
+    @Test
+    fun buckets_coverValues() {
+        var value = 0L
+        while (value in 0L until Long.MAX_VALUE / 3) {
+            val index = Histogram.bucketIndex(value)
+            assertTrue(Histogram.bucketUpperBound(index) >= value)
+            if (index > 0) {
+                assertTrue(Histogram.bucketUpperBound(index - 1) < value)
+            }
+            value = value * 3 + 1
+        }
+        assertTrue(Histogram.bucketUpperBound(Histogram.bucketIndex(Long.MAX_VALUE)) >= 0)
+    }
+
+    @Test
+    fun negativeValues_areRecordedAsZero() {
+        val histogram = Histogram()
+        histogram.record(-5L)
+
+        val snapshot = histogram.snapshot()
+        assertThat(snapshot.count, `is`(equalTo(1L)))
+        assertThat(snapshot.getValueAtPercentile(50.0), `is`(equalTo(0L)))
+    }
+
+    @Test
+    fun emptySnapshot_reportsZero() {
+        val snapshot = Histogram().snapshot()
+
+        assertThat(snapshot.getValueAtPercentile(99.0), `is`(equalTo(0L)))
+        assertThat(snapshot.mean, `is`(equalTo(0.0)))
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+class InMemorySchedulerTest {
+
+    companion object {
+        private const val START_TIME = 1_000_000L
+        private const val TICK = 100L
+        private val MATH_QUESTION = MathQuestion(1.0, 1.0, Operator.ADD, 1L)
+    }
+
+    private lateinit var scheduler: InMemoryScheduler
+    private val delivered = mutableListOf<Operation>()
+
+    @Before
+    fun setup() {
+        scheduler = InMemoryScheduler(TICK, 16, START_TIME) { delivered.add(it) }
+    }
+
+    @Test
+    fun advance_deliversDueOperations() {
+        val first = Operation(START_TIME, START_TIME + 1000, MATH_QUESTION)
+        val second = Operation(START_TIME, START_TIME + 2000, MATH_QUESTION)
+        scheduler.schedule(second)
+        scheduler.schedule(first)
+
+        assertThat(scheduler.advance(START_TIME + 1500), `is`(equalTo(1)))
+        assertThat(delivered, `is`(equalTo(listOf(first))))
+        assertThat(scheduler.size(), `is`(equalTo(1)))
+    }
+
+    @Test
+    fun stats_recordScheduleAndLateness() {
+        scheduler.schedule(Operation(START_TIME, START_TIME + 1000, MATH_QUESTION))
+        scheduler.schedule(Operation(START_TIME, START_TIME + 1200, MATH_QUESTION))
+
+        scheduler.advance(START_TIME + 1300)
+
+        val stats = scheduler.stats
+        assertThat(stats.scheduledCount, `is`(equalTo(2L)))
+        assertThat(stats.deliveredCount, `is`(equalTo(2L)))
+        assertThat(stats.averageLatenessMillis, `is`(equalTo(200L)))
+        assertThat(stats.maxLatenessMillis, `is`(equalTo(300L)))
+        assertTrue(stats.maxScheduleNanos >= stats.averageScheduleNanos)
+    }
+
+    @Test
+    fun cancelAll_dropsScheduledOperations() {
+        scheduler.schedule(Operation(START_TIME, START_TIME + 1000, MATH_QUESTION))
+
+        scheduler.cancelAll(emptyList())
+        scheduler.advance(START_TIME + 5000)
+
+        assertTrue(delivered.isEmpty())
+        assertTrue(scheduler.isEmpty)
+        assertThat(scheduler.stats.deliveredCount, `is`(equalTo(0L)))
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import com.example.android.scheduler.implementation.java.engine.data.PendingOperations
+import com.example.android.scheduler.implementation.java.engine.data.ResultsStore
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import com.example.android.scheduler.implementation.java.engine.simulation.VirtualClock
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+class OperationLifecycleTest {
+
+    companion object {
+        private const val START_TIME = 1_000_000L
+        private const val MAX_IN_MEMORY_DELAY = 10_000L
+    }
+
+    private val clock = VirtualClock(START_TIME)
+    private val pending = PendingOperations()
+    private val results = ResultsStore()
+    private val metrics = EngineMetrics()
+    private val expired = mutableListOf<Operation>()
+    private val inMemoryScheduler = InMemoryScheduler(100, 16, START_TIME) { expired.add(it) }
+    private val backend = RecordingScheduler()
+    private val answered = mutableListOf<Operation>()
+    private val answeredTimes = mutableListOf<Long>()
+    private lateinit var lifecycle: OperationLifecycle
+
+    @Before
+    fun setup() {
+        val config = EngineConfig.Builder().setMaxInMemoryDelay(MAX_IN_MEMORY_DELAY).build()
+        lifecycle = OperationLifecycle(config, clock, pending, results, inMemoryScheduler,
+            backend, metrics, OperationLifecycle.Listener { operation, _, answeredTime ->
+                answered.add(operation)
+                answeredTimes.add(answeredTime)
+            })
+    }
+
+    @Test
+    fun submit_picksTheSchedulerByDelay() {
+        val short = lifecycle.submit(1, MathQuestion(1.0, 2.0, Operator.ADD, 10), START_TIME)
+        val long = lifecycle.submit(2, MathQuestion(1.0, 2.0, Operator.ADD, 11), START_TIME)
+
+        assertThat(short.endTime, `is`(equalTo(START_TIME + 10_000)))
+        assertThat(pending.size(), `is`(equalTo(2)))
+        assertThat(inMemoryScheduler.size(), `is`(equalTo(1)))
+        assertThat(backend.scheduled, `is`(equalTo(listOf(long))))
+        assertTrue(lifecycle.isScheduledInMemory(short))
+        assertFalse(lifecycle.isScheduledInMemory(long))
+    }
+
+    @Test
+    fun evaluate_appendsTheComputedResult() {
+        val operation = lifecycle.submit(1, MathQuestion(6.0, 3.0, Operator.DIVIDE, 1), START_TIME)
+        clock.advanceTo(START_TIME + 1_200)
+        inMemoryScheduler.advance(clock.currentTimeMillis())
+
+        assertTrue(lifecycle.evaluate(expired.single()))
+        assertThat(results.size(), `is`(equalTo(1)))
+        assertThat(results.getResult(0), `is`(equalTo(2.0)))
+        assertThat(answered, `is`(equalTo(listOf(operation))))
+        assertThat(answeredTimes, `is`(equalTo(listOf(START_TIME + 1_200))))
+        assertThat(metrics.snapshot(clock.currentTimeMillis()).resultCount, `is`(equalTo(1L)))
+        assertTrue(pending.isEmpty)
+    }
+
+    @Test
+    fun deliver_answersOnce() {
+        val operation = lifecycle.submit(1, MathQuestion(2.0, 3.0, Operator.ADD, 60), START_TIME)
+        clock.advanceTo(operation.endTime + 500)
+
+        assertTrue(lifecycle.deliver(operation.id, 5.0, clock.currentTimeMillis()))
+        assertFalse(lifecycle.deliver(operation.id, 5.0, clock.currentTimeMillis()))
+        assertFalse(lifecycle.evaluate(operation))
+
+        assertThat(results.size(), `is`(equalTo(1)))
+        assertThat(results.getResult(0), `is`(equalTo(5.0)))
+        assertThat(answered.size, `is`(equalTo(1)))
+        assertThat(backend.stats.deliveredCount, `is`(equalTo(1L)))
+        assertThat(backend.stats.maxLatenessMillis, `is`(equalTo(500L)))
+    }
+
+    private class RecordingScheduler : Scheduler {
+        val scheduled = mutableListOf<Operation>()
+        private val stats = SchedulerStats("recording")
+
+        override fun schedule(operation: Operation) {
+            scheduled.add(operation)
+        }
+
+        override fun cancelAll(operations: Collection<Operation>) {
+            scheduled.clear()
+        }
+
+        override fun getStats() = stats
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+class RateCounterTest {
+
+    @Test
+    fun rate_isAveragedOverCompleteSeconds() {
+        val counter = RateCounter()
+        for (second in 0L until 10L) {
+            counter.record(5, second * 1_000L + 500L)
+        }
+        // The current second is not complete yet.
+        counter.record(100, 10_100L)
+
+        assertThat(counter.getRate(10_200L, 10), `is`(equalTo(5.0)))
+        assertThat(counter.total, `is`(equalTo(150L)))
+    }
+
+    @Test
+    fun oldSeconds_areForgotten() {
+        val counter = RateCounter()
+        counter.record(50, 1_000L)
+        counter.record(1, 1_000L + RateCounter.WINDOW_SECONDS * 1_000L)
+
+        assertThat(counter.getRate(2_000L + RateCounter.WINDOW_SECONDS * 1_000L, 4),
+                `is`(equalTo(0.25)))
+        assertThat(counter.total, `is`(equalTo(51L)))
+    }
+}
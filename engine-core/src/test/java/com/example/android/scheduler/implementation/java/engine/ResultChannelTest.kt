@@ -0,0 +1,94 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.Semaphore
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class ResultChannelTest {
+
+    private lateinit var channel: ResultChannel
+    private val wakeUps = AtomicInteger()
+    private val received = mutableListOf<Pair<Long, Double>>()
+    private val consumer = ResultChannel.Consumer { id, result -> received.add(id to result) }
+
+    @Before
+    fun setup() {
+        channel = ResultChannel()
+    }
+
+    @Test
+    fun offer_withoutConsumer_isRejected() {
+        assertFalse(channel.offer(1L, 1.0))
+        assertThat(channel.drain(consumer), `is`(equalTo(0)))
+    }
+
+    @Test
+    fun offer_burst_wakesUpOnce() {
+        channel.attach { wakeUps.incrementAndGet() }
+        channel.drain(consumer)
+        wakeUps.set(0)
+
+        assertTrue(channel.offer(1L, 1.0))
+        assertTrue(channel.offer(longArrayOf(2L, 3L), doubleArrayOf(2.0, 3.0)))
+        assertTrue(channel.offer(4L, 4.0))
+
+        assertThat(wakeUps.get(), `is`(equalTo(1)))
+        assertThat(channel.drain(consumer), `is`(equalTo(4)))
+        assertThat(received, `is`(equalTo(listOf(1L to 1.0, 2L to 2.0, 3L to 3.0, 4L to 4.0))))
+
+        assertTrue(channel.offer(5L, 5.0))
+        assertThat(wakeUps.get(), `is`(equalTo(2)))
+    }
+
+    @Test
+    fun detach_rejectsLaterOffers_andAttachDrainsLeftovers() {
+        channel.attach { wakeUps.incrementAndGet() }
+        channel.offer(1L, 1.0)
+        channel.detach()
+
+        assertFalse(channel.offer(2L, 2.0))
+
+        channel.attach { wakeUps.incrementAndGet() }
+        channel.drain(consumer)
+        assertThat(received, `is`(equalTo(listOf(1L to 1.0))))
+    }
+
+    @Test
+    fun concurrentProducers_deliverEveryResult() {
+        val producers = 4
+        val perProducer = 100_000
+        val wakeUp = Semaphore(0)
+        channel.attach { wakeUp.release() }
+
+        val threads = (0 until producers).map { p ->
+            thread {
+                for (i in 0 until perProducer) {
+                    assertTrue(channel.offer(p.toLong(), i.toDouble()))
+                }
+            }
+        }
+        val next = IntArray(producers)
+        var count = 0
+        while (count < producers * perProducer) {
+            assertTrue(wakeUp.tryAcquire(10, TimeUnit.SECONDS))
+            count += channel.drain { id, result ->
+                // Results of one producer come out in order.
+                val p = id.toInt()
+                assertThat(result, `is`(equalTo(next[p].toDouble())))
+                next[p]++
+            }
+        }
+        threads.forEach { it.join() }
+
+        assertThat(channel.drain(consumer), `is`(equalTo(0)))
+        next.forEach { assertThat(it, `is`(equalTo(perProducer))) }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertThat
+import org.junit.Test
+import java.util.*
+
+/**
+ * Differential tests of [ResultFormatter] against [String.format].
+ */
+class ResultFormatterTest {
+
+    companion object {
+        private const val RANDOM_INPUTS = 3_000_000
+        private const val SEED = 20210224L
+    }
+
+    private val builder = StringBuilder()
+
+    private fun fixed2(value: Double): String {
+        builder.setLength(0)
+        return ResultFormatter.appendFixed2(builder, value).toString()
+    }
+
+    private fun assertSameAsStringFormat(value: Double) {
+        assertEquals("value=$value", String.format(Locale.US, "%.2f", value), fixed2(value))
+    }
+
+    @Test
+    fun specialValues() {
+        val values = doubleArrayOf(
+            0.0, -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+            Double.MIN_VALUE, -Double.MIN_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE,
+            Long.MAX_VALUE.toDouble(), 1e12, -1e12, Math.nextDown(1e12), 1e20, 1e300
+        )
+        values.forEach { assertSameAsStringFormat(it) }
+    }
+
+    @Test
+    fun halfUpOnShortestRepresentation() {
+        assertThat(fixed2(0.125), `is`(equalTo("0.13")))
+        assertThat(fixed2(1.005), `is`(equalTo("1.01")))
+        assertThat(fixed2(2.675), `is`(equalTo("2.68")))
+        assertThat(fixed2(9.995), `is`(equalTo("10.00")))
+        assertThat(fixed2(-0.005), `is`(equalTo("-0.01")))
+        assertThat(fixed2(-0.001), `is`(equalTo("-0.00")))
+    }
+
+    @Test
+    fun divisionResults() {
+        assertThat(fixed2(Operator.DIVIDE.compute(1.0, 0.0)), `is`(equalTo("Infinity")))
+        assertThat(fixed2(Operator.DIVIDE.compute(-1.0, 0.0)), `is`(equalTo("-Infinity")))
+        assertThat(fixed2(Operator.DIVIDE.compute(0.0, 0.0)), `is`(equalTo("NaN")))
+    }
+
+    @Test
+    fun randomValues_sameAsStringFormat() {
+        val random = Random(SEED)
+        for (i in 0 until RANDOM_INPUTS) {
+            val value = when (i % 6) {
+                // Typical operands and results
+                0 -> (random.nextDouble() - 0.5) * 2e4
+                1 -> random.nextDouble() - 0.5
+                // Any bit pattern, including huge, tiny, NaN and infinite values
+                2 -> java.lang.Double.longBitsToDouble(random.nextLong())
+                // Exact ties between two cents
+                3 -> ((random.nextInt(2_000_000) - 1_000_000) * 2 + 1) / 200.0
+                // Decimal literals with three decimals, up to the end of the fast path
+                4 -> "${random.nextLong() % 1_000_000_000_000L}.${random.nextInt(1000)}".toDouble()
+                // Every magnitude between 1e-10 and 1e20
+                else -> (random.nextDouble() - 0.5) * Math.pow(10.0, random.nextInt(30) - 10.0)
+            }
+            assertSameAsStringFormat(value)
+        }
+    }
+
+    @Test
+    fun appendResult_sameAsStringFormat() {
+        val random = Random(SEED)
+        val formatter = ResultFormatter()
+        for (i in 0 until 100_000) {
+            val first = (random.nextDouble() - 0.5) * 2e3
+            val second = (random.nextDouble() - 0.5) * 2e3
+            val operator = Operator.values()[i % Operator.values().size]
+            val result = operator.compute(first, second)
+
+            val expected = String.format(
+                Locale.US, "%.2f %s %.2f = %.2f", first, operator.symbol(), second, result
+            )
+            assertEquals(expected, formatter.format(first, operator, second, result))
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.util.*
+
+class TimerWheelTest {
+
+    companion object {
+        private const val START_TIME = 1_000_000L
+        private const val TICK = 100L
+        private const val WHEEL_SIZE = 8
+    }
+
+    private lateinit var wheel: TimerWheel<Long>
+    private val expired = mutableListOf<Long>()
+    private val listener = TimerWheel.Listener<Long> { expired.add(it) }
+
+    @Before
+    fun setup() {
+        wheel = TimerWheel(TICK, WHEEL_SIZE, START_TIME)
+    }
+
+    @Test
+    fun advance_neverExpiresBeforeDeadline() {
+        wheel.schedule(1L, START_TIME + 250)
+
+        wheel.advance(START_TIME + 249, listener)
+        assertTrue(expired.isEmpty())
+
+        wheel.advance(START_TIME + 300, listener)
+        assertThat(expired, `is`(equalTo(listOf(1L))))
+        assertTrue(wheel.isEmpty)
+    }
+
+    @Test
+    fun advance_expiresAllDueBucketsInOnePass() {
+        wheel.schedule(3L, START_TIME + 300)
+        wheel.schedule(1L, START_TIME + 100)
+        wheel.schedule(2L, START_TIME + 200)
+        wheel.schedule(4L, START_TIME + 400)
+
+        val count = wheel.advance(START_TIME + 350, listener)
+
+        assertThat(count, `is`(equalTo(3)))
+        assertThat(expired, `is`(equalTo(listOf(1L, 2L, 3L))))
+        assertThat(wheel.size(), `is`(equalTo(1)))
+    }
+
+    @Test
+    fun schedule_pastDeadline_expiresOnNextTick() {
+        wheel.advance(START_TIME + 1000, listener)
+        wheel.schedule(1L, START_TIME)
+
+        assertThat(wheel.nextTickTime(), `is`(equalTo(START_TIME + 1100)))
+        wheel.advance(START_TIME + 1100, listener)
+        assertThat(expired, `is`(equalTo(listOf(1L))))
+    }
+
+    @Test
+    fun schedule_beyondOneRevolution_waitsForItsRound() {
+        val revolution = TICK * WHEEL_SIZE
+        wheel.schedule(1L, START_TIME + 3 * revolution + 100)
+
+        wheel.advance(START_TIME + 3 * revolution, listener)
+        assertTrue(expired.isEmpty())
+
+        wheel.advance(START_TIME + 3 * revolution + 100, listener)
+        assertThat(expired, `is`(equalTo(listOf(1L))))
+    }
+
+    @Test
+    fun cancel_removesTimeout() {
+        val timeout = wheel.schedule(1L, START_TIME + 100)
+        wheel.schedule(2L, START_TIME + 100)
+
+        assertTrue(wheel.cancel(timeout))
+        assertFalse(wheel.cancel(timeout))
+        assertThat(timeout.item, `is`(nullValue()))
+
+        wheel.advance(START_TIME + 100, listener)
+        assertThat(expired, `is`(equalTo(listOf(2L))))
+    }
+
+    @Test
+    fun clear_cancelsAllTimeouts() {
+        val timeout = wheel.schedule(1L, START_TIME + 100)
+        wheel.schedule(2L, START_TIME + 5000)
+
+        wheel.clear()
+        wheel.advance(START_TIME + 10_000, listener)
+
+        assertTrue(expired.isEmpty())
+        assertFalse(timeout.isScheduled)
+        assertTrue(wheel.isEmpty)
+    }
+
+    @Test
+    fun randomDeadlines_expireWithinOneTick() {
+        val random = Random(42)
+        val wheel = TimerWheel<Long>(TICK, 512, START_TIME)
+        var now = START_TIME
+        val count = 100_000
+        for (i in 0 until count) {
+            val deadline = now + random.nextInt(600_000)
+            wheel.schedule(deadline, deadline)
+        }
+        while (!wheel.isEmpty) {
+            now += random.nextInt(5000)
+            wheel.advance(now) { deadline ->
+                assertTrue(deadline <= now)
+                assertTrue(deadline > now - 5000 - TICK)
+                expired.add(deadline)
+            }
+        }
+
+        assertThat(expired.size, `is`(equalTo(count)))
+    }
+}
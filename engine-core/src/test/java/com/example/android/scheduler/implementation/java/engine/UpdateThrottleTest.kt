@@ -0,0 +1,80 @@
+package com.example.android.scheduler.implementation.java.engine
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class UpdateThrottleTest {
+
+    @Test
+    fun firstChange_isShownAtOnce() {
+        val throttle = UpdateThrottle(4)
+
+        assertThat(throttle.onChanged(1_000L), `is`(equalTo(UpdateThrottle.UPDATE_NOW)))
+        assertThat(throttle.suppressedCount, `is`(equalTo(0L)))
+    }
+
+    @Test
+    fun burst_isCoalescedIntoOneDeferredUpdate() {
+        val throttle = UpdateThrottle(4)
+        throttle.onChanged(1_000L)
+
+        assertThat(throttle.onChanged(1_100L), `is`(equalTo(150L)))
+        for (time in 1_101L until 1_250L) {
+            assertThat(throttle.onChanged(time), `is`(equalTo(UpdateThrottle.UPDATE_DEFERRED)))
+        }
+        assertTrue(throttle.isUpdateDeferred)
+        throttle.onDeferredUpdate(1_250L)
+
+        assertFalse(throttle.isUpdateDeferred)
+        assertThat(throttle.suppressedCount, `is`(equalTo(149L)))
+        // The interval starts again with the deferred update.
+        assertThat(throttle.onChanged(1_300L), `is`(equalTo(200L)))
+    }
+
+    @Test
+    fun steadyStream_staysWithinRate() {
+        val rate = 10
+        val throttle = UpdateThrottle(rate)
+        var dueTime = -1L
+        var updates = 0
+        // One change every millisecond for ten seconds.
+        for (time in 0L until 10_000L) {
+            if (time == dueTime) {
+                throttle.onDeferredUpdate(time)
+                updates++
+                dueTime = -1L
+            }
+            val delay = throttle.onChanged(time)
+            if (delay == UpdateThrottle.UPDATE_NOW) {
+                updates++
+            } else if (delay != UpdateThrottle.UPDATE_DEFERRED) {
+                dueTime = time + delay
+            }
+        }
+
+        assertTrue(updates <= rate * 10 + 1)
+        assertThat(throttle.suppressedCount + updates + (if (dueTime >= 0) 1 else 0),
+                `is`(equalTo(10_000L)))
+    }
+
+    @Test
+    fun cancel_forgetsDeferredUpdate() {
+        val throttle = UpdateThrottle(1)
+        throttle.onChanged(0L)
+        throttle.onChanged(10L)
+
+        throttle.cancel()
+
+        assertFalse(throttle.isUpdateDeferred)
+        assertThat(throttle.onChanged(20L), `is`(equalTo(980L)))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun zeroRate_isRejected() {
+        UpdateThrottle(0)
+    }
+}
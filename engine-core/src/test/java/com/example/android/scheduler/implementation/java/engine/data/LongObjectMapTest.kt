@@ -0,0 +1,69 @@
+package com.example.android.scheduler.implementation.java.engine.data
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import kotlin.random.Random
+
+class LongObjectMapTest {
+
+    private lateinit var map: LongObjectMap<String>
+
+    @Before
+    fun setup() {
+        map = LongObjectMap()
+    }
+
+    @Test
+    fun put_get_remove() {
+        assertThat(map.put(42L, "a"), `is`(nullValue()))
+        assertThat(map.put(42L, "b"), `is`(equalTo("a")))
+
+        assertThat(map.get(42L), `is`(equalTo("b")))
+        assertThat(map.get(43L), `is`(nullValue()))
+        assertThat(map.size(), `is`(equalTo(1)))
+        assertThat(map.remove(42L), `is`(equalTo("b")))
+        assertThat(map.remove(42L), `is`(nullValue()))
+        assertTrue(map.isEmpty)
+    }
+
+    @Test
+    fun zeroAndNegativeKeys_areRegularKeys() {
+        map.put(0L, "zero")
+        map.put(-1L, "minus one")
+
+        assertTrue(map.containsKey(0L))
+        assertThat(map.get(-1L), `is`(equalTo("minus one")))
+        assertThat(map.size(), `is`(equalTo(2)))
+        assertThat(map.remove(0L), `is`(equalTo("zero")))
+        assertFalse(map.containsKey(0L))
+    }
+
+    @Test
+    fun randomOperations_matchHashMap() {
+        val expected = HashMap<Long, String>()
+        val random = Random(7)
+        repeat(200_000) {
+            // A small key range so that removals and colliding probes are frequent.
+            val key = random.nextLong(-64, 4096)
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key), `is`(equalTo(expected.remove(key))))
+            } else {
+                assertThat(map.put(key, "$it"), `is`(equalTo(expected.put(key, "$it"))))
+            }
+        }
+
+        assertThat(map.size(), `is`(equalTo(expected.size)))
+        for (key in -64L until 4096L) {
+            assertThat(map.get(key), `is`(equalTo(expected[key])))
+        }
+        map.clear()
+        assertTrue(map.isEmpty)
+        assertThat(map.get(expected.keys.first()), `is`(nullValue()))
+    }
+}
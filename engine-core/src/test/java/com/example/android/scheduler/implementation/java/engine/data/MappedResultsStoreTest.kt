@@ -0,0 +1,172 @@
+package com.example.android.scheduler.implementation.java.engine.data
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.RandomAccessFile
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+class MappedResultsStoreTest {
+
+    companion object {
+        private const val TIME = 1_000L
+    }
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var file: File
+
+    @Before
+    fun setup() {
+        file = File(folder.root, "results.store")
+    }
+
+    @Test
+    fun add_readsBackEveryField() {
+        MappedResultsStore(file).use { store ->
+            store.add(3.0, Operator.DIVIDE, 2.0, 1.5, 1000L, 1010L)
+
+            assertThat(store.size(), `is`(equalTo(1)))
+            assertThat(store.getFirstOperand(0), `is`(equalTo(3.0)))
+            assertThat(store.getOperator(0), `is`(equalTo(Operator.DIVIDE)))
+            assertThat(store.getSecondOperand(0), `is`(equalTo(2.0)))
+            assertThat(store.getResult(0), `is`(equalTo(1.5)))
+            assertThat(store.getEndTime(0), `is`(equalTo(1000L)))
+            assertThat(store.getAnsweredTime(0), `is`(equalTo(1010L)))
+        }
+    }
+
+    @Test
+    fun reopen_keepsResults() {
+        val count = MappedResultsStore.RECORDS_PER_CHUNK + 10
+        MappedResultsStore(file).use { store ->
+            for (i in 0 until count) {
+                store.add(i.toDouble(), Operator.ADD, 1.0, i + 1.0, TIME, TIME)
+            }
+        }
+
+        MappedResultsStore(file).use { store ->
+            assertThat(store.size(), `is`(equalTo(count)))
+            assertThat(store.getResult(count - 1), `is`(equalTo(count.toDouble())))
+            store.add(0.0, Operator.SUBTRACT, 1.0, -1.0, TIME, TIME)
+            assertThat(store.size(), `is`(equalTo(count + 1)))
+        }
+    }
+
+    @Test
+    fun reopen_findsRecordsWrittenAfterTheHeader_skipsIncompleteOnes() {
+        MappedResultsStore(file).use { store ->
+            repeat(3) { store.add(1.0, Operator.MULTIPLY, 2.0, 2.0, TIME, TIME) }
+        }
+        // As if the process died before the header was updated, in the middle of the third record
+        RandomAccessFile(file, "rw").use {
+            it.seek(8)
+            it.writeInt(1)
+            it.seek(16 + 3 * 48L - 1)
+            it.write(0)
+        }
+
+        MappedResultsStore(file).use { store ->
+            assertThat(store.size(), `is`(equalTo(2)))
+        }
+    }
+
+    @Test
+    fun add_concurrently_publishesEveryResult() {
+        val threads = 4
+        val perThread = 20_000
+        val start = CountDownLatch(1)
+        MappedResultsStore(file).use { store ->
+            List(threads) { t ->
+                thread {
+                    start.await()
+                    repeat(perThread) {
+                        store.add(t.toDouble(), Operator.ADD, it.toDouble(), 0.0, TIME, TIME)
+                    }
+                }
+            }.also { start.countDown() }.forEach { it.join() }
+
+            assertThat(store.size(), `is`(equalTo(threads * perThread)))
+            val sums = DoubleArray(threads)
+            for (i in 0 until store.size()) {
+                sums[store.getFirstOperand(i).toInt()] += store.getSecondOperand(i)
+            }
+            val expected = perThread * (perThread - 1) / 2.0
+            sums.forEach { assertThat(it, `is`(equalTo(expected))) }
+        }
+    }
+
+    @Test
+    fun add_stalledProducer_doesNotBlockLaterOnes() {
+        val later = MappedResultsStore.RECORDS_PER_CHUNK + 10
+        MappedResultsStore(file).use { store ->
+            val stalled = store.reserve()
+
+            // Would never finish if the later producers waited for the stalled one.
+            thread {
+                repeat(later) { store.add(1.0, Operator.ADD, 1.0, 2.0, TIME, TIME) }
+            }.join()
+            assertThat(store.size(), `is`(equalTo(0)))
+
+            store.write(stalled, 2.0, Operator.MULTIPLY, 3.0, 6.0, TIME, TIME)
+            assertThat(store.size(), `is`(equalTo(later + 1)))
+            assertThat(store.getResult(0), `is`(equalTo(6.0)))
+            assertThat(store.getResult(later), `is`(equalTo(2.0)))
+        }
+    }
+
+    @Test
+    fun snapshot_isNotAffectedByLaterAppends() {
+        MappedResultsStore(file).use { store ->
+            store.add(1.0, Operator.ADD, 1.0, 2.0, TIME, TIME)
+            val snapshot = store.snapshot()
+            store.add(2.0, Operator.ADD, 2.0, 4.0, TIME, TIME)
+
+            assertThat(snapshot.size(), `is`(equalTo(1)))
+            assertThat(store.size(), `is`(equalTo(2)))
+        }
+    }
+
+    @Test
+    fun staleSnapshot_afterClear_readsPlaceholders() {
+        MappedResultsStore(file).use { store ->
+            store.add(1.0, Operator.MULTIPLY, 3.0, 3.0, TIME, TIME)
+            val snapshot = store.snapshot()
+            store.clear()
+
+            assertFalse(snapshot.isRetained(0))
+            assertThat(snapshot.getOperator(0), `is`(equalTo(Operator.ADD)))
+            assertThat(snapshot.getResult(0).isNaN(), `is`(true))
+
+            // The record written in the same slot afterwards is not read through the old snapshot.
+            store.add(2.0, Operator.DIVIDE, 2.0, 1.0, TIME, TIME)
+            assertThat(snapshot.getFirstOperand(0).isNaN(), `is`(true))
+            assertTrue(store.snapshot().isRetained(0))
+            assertThat(store.snapshot().getOperator(0), `is`(equalTo(Operator.DIVIDE)))
+        }
+    }
+
+    @Test
+    fun clear_removesResults_evenAfterReopen() {
+        MappedResultsStore(file).use { store ->
+            repeat(5) { store.add(1.0, Operator.ADD, 1.0, 2.0, TIME, TIME) }
+            store.clear()
+            store.add(3.0, Operator.SUBTRACT, 1.0, 2.0, TIME, TIME)
+        }
+
+        MappedResultsStore(file).use { store ->
+            assertThat(store.size(), `is`(equalTo(1)))
+            assertThat(store.getOperator(0), `is`(equalTo(Operator.SUBTRACT)))
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.android.scheduler.implementation.java.engine.data
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.After
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.io.RandomAccessFile
+import java.util.UUID
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+class OperationJournalTest {
+
+    companion object {
+        private val MATH_QUESTION = MathQuestion(3.0, 2.0, Operator.DIVIDE, 10L)
+    }
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    private lateinit var file: File
+    private lateinit var executor: ExecutorService
+
+    @Before
+    fun setup() {
+        file = File(folder.root, "operations.journal")
+        executor = Executors.newSingleThreadExecutor()
+    }
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun recover_rebuildsPendingOperationsAndResults() {
+        val operations = List(3) { Operation(it.toLong(), 10_000L + it, MATH_QUESTION) }
+        OperationJournal(file, executor).use { journal ->
+            operations.forEach { journal.submit(it) }
+            journal.complete(operations[1].id, 1.5)
+        }
+
+        val state = State()
+        val records = OperationJournal(file, executor).use { it.recover(state) }
+
+        assertThat(records, `is`(equalTo(4)))
+        assertThat(state.pending.snapshot(), `is`(equalTo(listOf(operations[0], operations[2]))))
+        val restored = state.pending.find(operations[0].id)!!
+        assertThat(restored.startTime, `is`(equalTo(0L)))
+        assertThat(restored.endTime, `is`(equalTo(10_000L)))
+        assertThat(restored.mathQuestion.delayTime, `is`(equalTo(MATH_QUESTION.delayTime)))
+        assertThat(state.results.size(), `is`(equalTo(1)))
+        assertThat(state.results.getResult(0), `is`(equalTo(1.5)))
+        assertThat(state.results.getOperator(0), `is`(equalTo(Operator.DIVIDE)))
+    }
+
+    @Test
+    fun recover_afterCancelAll_hasNoPendingOperations() {
+        OperationJournal(file, executor).use { journal ->
+            repeat(3) { journal.submit(Operation(0, 1000, MATH_QUESTION)) }
+            journal.cancelAll()
+            journal.submit(Operation(0, 1000, MATH_QUESTION))
+        }
+
+        val state = State()
+        OperationJournal(file, executor).use { it.recover(state) }
+
+        assertThat(state.pending.size(), `is`(equalTo(1)))
+    }
+
+    @Test
+    fun recover_truncatesTornRecord() {
+        val operation = Operation(0, 1000, MATH_QUESTION)
+        OperationJournal(file, executor).use { it.submit(operation) }
+        val validSize = file.length()
+        // Half of a record, as if the process died in the middle of a write
+        RandomAccessFile(file, "rw").use {
+            it.seek(validSize)
+            it.writeInt(100)
+            it.writeInt(0)
+            it.write(ByteArray(10))
+        }
+
+        OperationJournal(file, executor).use { journal ->
+            assertThat(journal.recover(State()), `is`(equalTo(1)))
+            assertThat(file.length(), `is`(equalTo(validSize)))
+            journal.complete(operation.id, 2.0)
+        }
+
+        val state = State()
+        OperationJournal(file, executor).use { it.recover(state) }
+        assertTrue(state.pending.isEmpty)
+        assertThat(state.results.size(), `is`(equalTo(1)))
+    }
+
+    @Test
+    fun recover_stopsAtCorruptRecord() {
+        OperationJournal(file, executor).use { journal ->
+            repeat(2) { journal.submit(Operation(0, 1000, MATH_QUESTION)) }
+        }
+        // Flip the last byte (the operator of the second record)
+        RandomAccessFile(file, "rw").use {
+            it.seek(it.length() - 1)
+            it.write(0x7F)
+        }
+
+        val state = State()
+        val records = OperationJournal(file, executor).use { it.recover(state) }
+
+        assertThat(records, `is`(equalTo(1)))
+        assertThat(state.pending.size(), `is`(equalTo(1)))
+    }
+
+    @Test
+    fun groupCommit_writesAllRecordsFromManyAppends() {
+        val operations = List(10_000) { Operation(it.toLong(), 1000L + it, MATH_QUESTION) }
+        OperationJournal(file, executor).use { journal ->
+            operations.forEach { journal.submit(it) }
+            for (i in 0 until operations.size step 2) {
+                journal.complete(operations[i].id, i.toDouble())
+            }
+        }
+
+        val state = State()
+        OperationJournal(file, executor).use { it.recover(state) }
+
+        assertThat(state.pending.size(), `is`(equalTo(5_000)))
+        assertThat(state.results.size(), `is`(equalTo(5_000)))
+        assertThat(state.results.getResult(4_999), `is`(equalTo(9_998.0)))
+    }
+
+    @Test
+    fun compact_keepsLiveStateOnly() {
+        val direct = Executor { it.run() }
+        val answered = Operation(0, 1000, MATH_QUESTION)
+        val survivor = Operation(0, 1000, MATH_QUESTION)
+        OperationJournal(file, direct).use { journal ->
+            repeat(10_000) { journal.submit(Operation(0, 1000, MATH_QUESTION)) }
+            journal.cancelAll()
+            journal.submit(answered)
+            journal.submit(survivor)
+            journal.complete(answered.id, 1.5)
+        }
+        val sizeBefore = file.length()
+
+        val state = State()
+        OperationJournal(file, direct).use { journal ->
+            journal.recover(state)
+            val live = state.pending.size() + state.results.size()
+            assertTrue(journal.needsCompaction(live))
+            journal.compact(state.pending.snapshot(), state.results)
+            assertFalse(journal.needsCompaction(live))
+            journal.complete(survivor.id, -1.0)
+        }
+
+        assertTrue(file.length() < sizeBefore / 100)
+        val compacted = State()
+        OperationJournal(file, direct).use { it.recover(compacted) }
+        assertTrue(compacted.pending.isEmpty)
+        assertThat(compacted.results.size(), `is`(equalTo(2)))
+        assertThat(compacted.results.getResult(0), `is`(equalTo(1.5)))
+        assertThat(compacted.results.getResult(1), `is`(equalTo(-1.0)))
+    }
+
+    @Test
+    fun scheduleCompaction_keepsRecordsAppendedMeanwhile() {
+        val answered = Operation(0, 1000, MATH_QUESTION)
+        val survivor = Operation(0, 1000, MATH_QUESTION)
+        val gate = CountDownLatch(1)
+        OperationJournal(file, executor).use { journal ->
+            repeat(10_000) { journal.submit(Operation(0, 1000, MATH_QUESTION)) }
+            journal.cancelAll()
+            journal.sync()
+            executor.execute { gate.await() }
+            journal.submit(answered)
+            journal.submit(survivor)
+            assertTrue(journal.needsCompaction(2))
+
+            journal.scheduleCompaction(listOf(answered, survivor), ResultsStore())
+            // Written to the old journal by the write queued before the compaction.
+            journal.complete(answered.id, 1.5)
+            assertFalse(journal.needsCompaction(2))
+            gate.countDown()
+            journal.complete(survivor.id, -1.0)
+        }
+
+        assertTrue(file.length() < 1024)
+        val compacted = State()
+        val records = OperationJournal(file, executor).use { it.recover(compacted) }
+        assertThat(records, `is`(equalTo(4)))
+        assertTrue(compacted.pending.isEmpty)
+        assertThat(compacted.results.size(), `is`(equalTo(2)))
+        assertThat(compacted.results.getResult(0), `is`(equalTo(1.5)))
+        assertThat(compacted.results.getResult(1), `is`(equalTo(-1.0)))
+    }
+
+    @Test
+    fun scheduleCompaction_whileAppending_recoversEveryRecord() {
+        val count = 200_000
+        val results = ResultsStore()
+        repeat(count) {
+            results.add(it.toDouble(), Operator.ADD, 1.0, it + 1.0, 1000L, 1000L)
+        }
+        val compacting = CountDownLatch(1)
+        OperationJournal(file, executor).use { journal ->
+            executor.execute { compacting.countDown() }
+            journal.scheduleCompaction(emptyList(), results)
+            compacting.await()
+            // Appended while the results are written, both seal records at the same time.
+            repeat(count) { journal.submit(Operation(it.toLong(), 1000L, MATH_QUESTION)) }
+        }
+
+        val state = State()
+        val records = OperationJournal(file, executor).use { it.recover(state) }
+
+        assertThat(records, `is`(equalTo(2 * count)))
+        assertThat(state.pending.size(), `is`(equalTo(count)))
+        assertThat(state.results.size(), `is`(equalTo(count)))
+    }
+
+    @Test
+    fun compact_keepsTheWorkOfPendingOperations() {
+        val direct = Executor { it.run() }
+        val operations = List(3) { Operation(it.toLong(), 1000L, MATH_QUESTION) }
+        val batch = UUID.randomUUID()
+        val single = UUID.randomUUID()
+        OperationJournal(file, direct).use { journal ->
+            operations.forEach { journal.submit(it) }
+            journal.recordWork(batch, operations, 0, 2)
+            journal.recordWork(single, operations, 2, 3)
+            journal.complete(operations[0].id, 1.5)
+            journal.compact(listOf(operations[1], operations[2]), ResultsStore())
+        }
+
+        val state = State()
+        OperationJournal(file, direct).use { it.recover(state) }
+
+        assertThat(state.work.keys, `is`(equalTo(setOf(batch, single))))
+        assertThat(state.work[batch]!!.toList(), `is`(equalTo(listOf(operations[1].id))))
+        assertThat(state.work[single]!!.toList(), `is`(equalTo(listOf(operations[2].id))))
+    }
+
+    private class State : OperationJournal.Visitor {
+        val pending = PendingOperations()
+        val results = ResultsStore()
+        val work = HashMap<UUID, LongArray>()
+
+        override fun onSubmitted(operation: Operation) {
+            pending.add(operation)
+        }
+
+        override fun onCompleted(operationId: Long, result: Double) {
+            val operation = pending.remove(operationId) ?: return
+            val question = operation.mathQuestion
+            results.add(question.firstOperand, question.operator, question.secondOperand, result,
+                    operation.endTime, MutableResults.UNKNOWN_TIME)
+        }
+
+        override fun onCancelledAll() {
+            pending.clear()
+        }
+
+        override fun onResult(
+            firstOperand: Double, operator: Operator, secondOperand: Double, result: Double
+        ) {
+            results.add(firstOperand, operator, secondOperand, result,
+                    MutableResults.UNKNOWN_TIME, MutableResults.UNKNOWN_TIME)
+        }
+
+        override fun onWork(workId: UUID, operationIds: LongArray) {
+            work[workId] = operationIds
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.android.scheduler.implementation.java.engine.data
+
+import com.example.android.scheduler.implementation.java.engine.data.model.MathQuestion
+import com.example.android.scheduler.implementation.java.engine.data.model.Operation
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.CoreMatchers.sameInstance
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+import java.util.*
+
+class PendingOperationsTest {
+
+    companion object {
+        private val MATH_QUESTION = MathQuestion(1.0, 1.0, Operator.ADD, 10L)
+    }
+
+    private lateinit var pending: PendingOperations
+
+    @Before
+    fun setup() {
+        pending = PendingOperations()
+    }
+
+    @Test
+    fun find_returnsAddedOperation() {
+        val operation = Operation(0, 1000, MATH_QUESTION)
+        pending.add(Operation(0, 2000, MATH_QUESTION))
+        pending.add(operation)
+
+        assertThat(pending.find(operation.id), `is`(equalTo(operation)))
+        assertThat(pending.find(Operation.NO_ID), `is`(nullValue()))
+    }
+
+    @Test
+    fun remove_removesOnlyThatOperation() {
+        val first = Operation(0, 1000, MATH_QUESTION)
+        val second = Operation(0, 2000, MATH_QUESTION)
+        pending.add(first)
+        pending.add(second)
+
+        assertTrue(pending.remove(first))
+        assertFalse(pending.remove(first))
+        assertThat(pending.find(first.id), `is`(nullValue()))
+        assertThat(pending.size(), `is`(equalTo(1)))
+    }
+
+    @Test
+    fun removeById_returnsRemovedOperation() {
+        val operation = Operation(0, 1000, MATH_QUESTION)
+        pending.add(operation)
+
+        assertThat(pending.remove(operation.id), `is`(equalTo(operation)))
+        assertThat(pending.remove(operation.id), `is`(nullValue()))
+        assertTrue(pending.isEmpty)
+    }
+
+    @Test
+    fun add_sameOperationTwice_addsItOnce() {
+        val operation = Operation(0, 1000, MATH_QUESTION)
+        pending.add(operation)
+        pending.add(operation)
+
+        assertThat(pending.size(), `is`(equalTo(1)))
+    }
+
+    @Test
+    fun snapshot_isOrderedByEndTime_thenByStartTime() {
+        val late = Operation(0, 3000, MATH_QUESTION)
+        val early = Operation(0, 1000, MATH_QUESTION)
+        val sameEndTimeFirst = Operation(0, 2000, MATH_QUESTION)
+        val sameEndTimeSecond = Operation(500, 2000, MATH_QUESTION)
+        pending.add(late)
+        pending.add(sameEndTimeSecond)
+        pending.add(early)
+        pending.add(sameEndTimeFirst)
+
+        assertThat(pending.peek(), `is`(equalTo(early)))
+        assertThat(
+            pending.snapshot(),
+            `is`(equalTo(listOf(early, sameEndTimeFirst, sameEndTimeSecond, late)))
+        )
+    }
+
+    @Test
+    fun snapshot_isCachedUntilChanged() {
+        pending.add(Operation(0, 1000, MATH_QUESTION))
+        val snapshot = pending.snapshot()
+
+        assertThat(pending.snapshot(), `is`(sameInstance(snapshot)))
+        pending.add(Operation(0, 2000, MATH_QUESTION))
+        assertThat(pending.snapshot().size, `is`(equalTo(2)))
+    }
+
+    @Test
+    fun randomAddsAndRemoves_keepEndTimeOrder() {
+        val random = Random(42)
+        val expected = mutableListOf<Operation>()
+        for (i in 0 until 5000) {
+            if (expected.isNotEmpty() && random.nextInt(3) == 0) {
+                val operation = expected.removeAt(random.nextInt(expected.size))
+                assertThat(pending.remove(operation.id), `is`(equalTo(operation)))
+            } else {
+                val operation = Operation(0, random.nextInt(1000).toLong(), MATH_QUESTION)
+                expected.add(operation)
+                pending.add(operation)
+            }
+        }
+        expected.sortWith(Operation.END_TIME_ORDER)
+
+        assertThat(pending.snapshot(), `is`(equalTo<List<Operation>>(expected)))
+        assertThat(pending.peek()?.endTime, `is`(equalTo(expected.first().endTime)))
+        expected.forEach { assertThat(pending.find(it.id), `is`(equalTo(it))) }
+    }
+
+    @Test
+    fun snapshot_isNotAffectedByLaterChanges() {
+        val operation = Operation(0, 1000, MATH_QUESTION)
+        pending.add(operation)
+
+        val snapshot = pending.snapshot()
+        pending.clear()
+
+        assertThat(snapshot, `is`(equalTo(listOf(operation))))
+        assertTrue(pending.isEmpty)
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.android.scheduler.implementation.java.engine.data
+
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.Test
+
+class ResultsStoreTest {
+
+    companion object {
+        private const val TIME = 1_000L
+    }
+
+    private lateinit var store: ResultsStore
+
+    @Before
+    fun setup() {
+        store = ResultsStore()
+    }
+
+    @Test
+    fun add_keepsColumnsInOrder() {
+        for (i in 0 until 1000) {
+            val operator = Operator.values()[i % Operator.values().size]
+            store.add(i.toDouble(), operator, 2.0, operator.compute(i.toDouble(), 2.0), TIME, TIME)
+        }
+
+        assertThat(store.size(), `is`(equalTo(1000)))
+        for (i in 0 until 1000) {
+            val operator = Operator.values()[i % Operator.values().size]
+            assertThat(store.getFirstOperand(i), `is`(equalTo(i.toDouble())))
+            assertThat(store.getSecondOperand(i), `is`(equalTo(2.0)))
+            assertThat(store.getOperator(i), `is`(equalTo(operator)))
+            assertThat(store.getResult(i), `is`(equalTo(operator.compute(i.toDouble(), 2.0))))
+        }
+    }
+
+    @Test
+    fun get_returnsMathAnswer() {
+        store.add(1.0, Operator.DIVIDE, 4.0, 0.25, TIME, TIME)
+
+        val answer = store.get(0)
+        assertThat(answer.firstOperand, `is`(equalTo(1.0)))
+        assertThat(answer.operator, `is`(equalTo(Operator.DIVIDE)))
+        assertThat(answer.secondOperand, `is`(equalTo(4.0)))
+        assertThat(answer.result, `is`(equalTo(0.25)))
+    }
+
+    @Test
+    fun snapshot_isNotAffectedByLaterChanges() {
+        store.add(1.0, Operator.ADD, 1.0, 2.0, TIME, TIME)
+        val snapshot = store.snapshot()
+
+        // Force the columns to grow, then clear them
+        for (i in 0 until 100) {
+            store.add(3.0, Operator.MULTIPLY, 3.0, 9.0, TIME, TIME)
+        }
+        store.clear()
+
+        assertThat(snapshot.size(), `is`(equalTo(1)))
+        assertThat(snapshot.getResult(0), `is`(equalTo(2.0)))
+        assertThat(store.size(), `is`(equalTo(0)))
+    }
+
+    @Test(expected = IndexOutOfBoundsException::class)
+    fun get_outOfBounds_throws() {
+        store.add(1.0, Operator.ADD, 1.0, 2.0, TIME, TIME)
+        store.getResult(1)
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.android.scheduler.implementation.java.engine.data
+
+import com.example.android.scheduler.implementation.java.engine.ResultFormatter
+import com.example.android.scheduler.implementation.java.engine.data.model.Operator
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class RingResultsStoreTest {
+
+    companion object {
+        private const val TIME = 1_000L
+    }
+
+    @get:Rule
+    val folder = TemporaryFolder()
+
+    @Test
+    fun drop_keepsNewestResults() {
+        RingResultsStore(4, null).use { store ->
+            for (i in 0 until 10) {
+                store.add(i.toDouble(), Operator.ADD, 1.0, i + 1.0, TIME, TIME)
+            }
+
+            assertThat(store.size(), `is`(equalTo(4)))
+            assertThat(store.droppedCount, `is`(equalTo(6L)))
+            assertThat(store.getFirstOperand(0), `is`(equalTo(6.0)))
+            assertThat(store.getResult(3), `is`(equalTo(10.0)))
+        }
+    }
+
+    @Test
+    fun rowIds_areStableAcrossDrops() {
+        RingResultsStore(4, null).use { store ->
+            repeat(4) { store.add(it.toDouble(), Operator.ADD, 1.0, it + 1.0, TIME, TIME) }
+            val snapshot = store.snapshot()
+            repeat(3) { store.add(1.0, Operator.ADD, 1.0, 2.0, TIME, TIME) }
+
+            assertThat(store.getRowId(0), `is`(equalTo(3L)))
+            assertThat(store.getRowId(3), `is`(equalTo(6L)))
+            assertThat(snapshot.getRowId(0), `is`(equalTo(0L)))
+            assertThat(store.snapshot().getRowId(1), `is`(equalTo(4L)))
+        }
+    }
+
+    @Test
+    fun spill_keepsEveryResultReadable() {
+        val file = folder.newFile("results.spill")
+        val count = 5_000
+        RingResultsStore(100, file).use { store ->
+            for (i in 0 until count) {
+                store.add(i.toDouble(), Operator.values()[i % 4], 2.0, -i.toDouble(), TIME, TIME)
+            }
+
+            assertThat(store.size(), `is`(equalTo(count)))
+            assertThat(store.droppedCount, `is`(equalTo(0L)))
+            for (i in 0 until count) {
+                assertThat(store.getFirstOperand(i), `is`(equalTo(i.toDouble())))
+                assertThat(store.getOperator(i), `is`(equalTo(Operator.values()[i % 4])))
+                assertThat(store.getResult(i), `is`(equalTo(-i.toDouble())))
+            }
+        }
+        assertFalse(file.exists())
+    }
+
+    @Test
+    fun trimMemory_shrinksRing() {
+        RingResultsStore(8, null).use { store ->
+            repeat(8) { store.add(it.toDouble(), Operator.SUBTRACT, 1.0, it - 1.0, TIME, TIME) }
+
+            store.trimMemory(3)
+
+            assertThat(store.capacity, `is`(equalTo(3)))
+            assertThat(store.size(), `is`(equalTo(3)))
+            assertThat(store.droppedCount, `is`(equalTo(5L)))
+            assertThat(store.getFirstOperand(0), `is`(equalTo(5.0)))
+            store.add(8.0, Operator.SUBTRACT, 1.0, 7.0, TIME, TIME)
+            assertThat(store.getFirstOperand(0), `is`(equalTo(6.0)))
+            assertThat(store.getFirstOperand(2), `is`(equalTo(8.0)))
+        }
+    }
+
+    @Test
+    fun snapshot_isNotAffectedByLaterAppends() {
+        RingResultsStore(4, folder.newFile("results.spill")).use { store ->
+            repeat(6) { store.add(it.toDouble(), Operator.MULTIPLY, 2.0, it * 2.0, TIME, TIME) }
+            val snapshot = store.snapshot()
+            repeat(6) { store.add(-1.0, Operator.MULTIPLY, 2.0, -2.0, TIME, TIME) }
+
+            assertThat(snapshot.size(), `is`(equalTo(6)))
+            assertThat(snapshot.getFirstOperand(0), `is`(equalTo(0.0)))
+            assertThat(snapshot.getResult(5), `is`(equalTo(10.0)))
+        }
+    }
+
+    @Test
+    fun staleSnapshot_bindsDroppedResultsAsPlaceholders() {
+        RingResultsStore(2, null).use { store ->
+            repeat(2) { store.add(it.toDouble(), Operator.MULTIPLY, 2.0, it * 2.0, TIME, TIME) }
+            val snapshot = store.snapshot()
+            store.add(1.0, Operator.ADD, 1.0, 2.0, TIME, TIME)
+
+            // As the results adapter binds the rows of the snapshot it was last given.
+            val rows = (0 until snapshot.size()).map {
+                ResultFormatter.appendResult(StringBuilder(), snapshot.getFirstOperand(it),
+                        snapshot.getOperator(it), snapshot.getSecondOperand(it),
+                        snapshot.getResult(it)).toString()
+            }
+            assertThat(rows, `is`(equalTo(listOf("NaN + NaN = NaN", "1.00 * 2.00 = 2.00"))))
+            assertFalse(snapshot.isRetained(0))
+            assertTrue(snapshot.isRetained(1))
+            assertThat(snapshot.getRowId(0), `is`(equalTo(0L)))
+        }
+    }
+
+    @Test
+    fun staleSnapshot_afterClear_readsPlaceholders() {
+        RingResultsStore(4, null).use { store ->
+            store.add(1.0, Operator.ADD, 1.0, 2.0, TIME, TIME)
+            val snapshot = store.snapshot()
+            store.clear()
+            store.add(5.0, Operator.DIVIDE, 5.0, 1.0, TIME, TIME)
+
+            assertFalse(snapshot.isRetained(0))
+            assertThat(snapshot.getResult(0).isNaN(), `is`(true))
+            assertThat(snapshot.getOperator(0), `is`(equalTo(Operator.ADD)))
+        }
+    }
+}
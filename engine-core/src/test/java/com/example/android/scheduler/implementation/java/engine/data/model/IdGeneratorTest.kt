@@ -0,0 +1,45 @@
+package com.example.android.scheduler.implementation.java.engine.data.model
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Test
+import java.util.concurrent.ConcurrentHashMap
+import kotlin.concurrent.thread
+
+class IdGeneratorTest {
+
+    @Test
+    fun next_startsAtSeed_andIncreases() {
+        val generator = IdGenerator(100)
+
+        assertThat(generator.next(), `is`(equalTo(100L)))
+        assertThat(generator.next(), `is`(equalTo(101L)))
+    }
+
+    @Test
+    fun advancePast_skipsIdsInUse() {
+        val generator = IdGenerator(100)
+
+        generator.advancePast(500)
+        generator.advancePast(200)
+
+        assertThat(generator.next(), `is`(equalTo(501L)))
+    }
+
+    @Test
+    fun next_concurrently_neverRepeats() {
+        val generator = IdGenerator(1)
+        val ids = ConcurrentHashMap.newKeySet<Long>()
+        List(4) {
+            thread { repeat(10_000) { ids.add(generator.next()) } }
+        }.forEach { it.join() }
+
+        assertThat(ids.size, `is`(equalTo(40_000)))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun constructor_withNonPositiveSeed_throws() {
+        IdGenerator(0)
+    }
+}
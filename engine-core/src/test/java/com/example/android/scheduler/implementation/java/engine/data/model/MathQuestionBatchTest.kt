@@ -0,0 +1,38 @@
+package com.example.android.scheduler.implementation.java.engine.data.model
+
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+class MathQuestionBatchTest {
+
+    companion object {
+        private val MATH_QUESTIONS = listOf(
+            MathQuestion(1.0, 3.0, Operator.ADD, 10L),
+            MathQuestion(-2.5, 0.0, Operator.DIVIDE, 0L),
+            MathQuestion(7.0, 6.0, Operator.MULTIPLY, 60L),
+            MathQuestion(4.0, 5.0, Operator.SUBTRACT, 5L)
+        )
+    }
+
+    @Test
+    fun of_packsTheRange() {
+        val batch = MathQuestionBatch.of(MATH_QUESTIONS, 1, 3)
+
+        assertThat(batch.size(), `is`(equalTo(2)))
+        for (i in 0 until batch.size()) {
+            assertThat(batch.get(i).toString(), `is`(equalTo(MATH_QUESTIONS[i + 1].toString())))
+        }
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun constructor_withDifferentLengths_throws() {
+        MathQuestionBatch(DoubleArray(2), DoubleArray(2), ByteArray(1), LongArray(2))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun constructor_withInvalidOperator_throws() {
+        MathQuestionBatch(DoubleArray(1), DoubleArray(1), byteArrayOf(42), LongArray(1))
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.android.scheduler.implementation.java.engine.simulation
+
+import com.example.android.scheduler.implementation.java.engine.EngineConfig
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+import java.util.Random
+
+class SchedulerSimulationTest {
+
+    companion object {
+        private const val OPERATION_COUNT = 20_000
+        private const val TIMER_TICK = 100L
+        private const val SEED = 7L
+    }
+
+    @Test
+    fun sameSeed_producesSameRun() {
+        val first = simulation().build().run()
+        val second = simulation().build().run()
+
+        assertThat(first.eventCount, `is`(equalTo(second.eventCount)))
+        assertThat(first.virtualMillis, `is`(equalTo(second.virtualMillis)))
+        assertThat(first.metrics.lateness.mean, `is`(equalTo(second.metrics.lateness.mean)))
+        assertThat(first.maxPendingCount, `is`(equalTo(second.maxPendingCount)))
+    }
+
+    @Test
+    fun everyOperation_isAnswered() {
+        val report = simulation().build().run()
+
+        assertThat(report.metrics.resultCount, `is`(equalTo(OPERATION_COUNT.toLong())))
+        assertThat(report.inMemoryLateness.count + report.backendLateness.count,
+                `is`(equalTo(OPERATION_COUNT.toLong())))
+        assertTrue(report.maxResultsMemory > 0)
+    }
+
+    @Test
+    fun inMemoryLateness_isBoundedByTimerTick() {
+        val report = simulation()
+                .setDelays(DelayDistribution.uniform(1, 60))
+                .build()
+                .run()
+
+        assertThat(report.backendLateness.count, `is`(equalTo(0L)))
+        assertTrue(report.inMemoryLateness.max <= TIMER_TICK)
+    }
+
+    @Test
+    fun virtualClock_runsHoursOfSchedule() {
+        val report = simulation()
+                .setOperationCount(1_000)
+                .setDelays(DelayDistribution.uniform(3_600, 3_600))
+                .build()
+                .run()
+
+        assertTrue(report.virtualMillis >= 3_600_000L)
+        assertThat(report.inMemoryLateness.count, `is`(equalTo(0L)))
+    }
+
+    @Test
+    fun typicalDelays_areWithinBounds() {
+        val delays = DelayDistribution.typical()
+        val random = Random(SEED)
+        for (i in 0 until 10_000) {
+            val delay = delays.nextDelay(random)
+            assertTrue(delay in 1L..86_400L)
+        }
+    }
+
+    private fun simulation(): SchedulerSimulation.Builder =
+            SchedulerSimulation.Builder()
+                    .setEngineConfig(EngineConfig.Builder().setTimerTick(TIMER_TICK).build())
+                    .setOperationCount(OPERATION_COUNT)
+                    .setSeed(SEED)
+}